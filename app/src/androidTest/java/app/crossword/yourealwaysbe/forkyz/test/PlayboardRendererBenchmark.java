@@ -0,0 +1,198 @@
+package app.crossword.yourealwaysbe.forkyz.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.test.AndroidTestCase;
+
+import app.crossword.yourealwaysbe.puz.Box;
+import app.crossword.yourealwaysbe.puz.Clue;
+import app.crossword.yourealwaysbe.puz.Playboard;
+import app.crossword.yourealwaysbe.puz.Playboard.Position;
+import app.crossword.yourealwaysbe.puz.Playboard.Word;
+import app.crossword.yourealwaysbe.puz.Puzzle;
+import app.crossword.yourealwaysbe.view.PlayboardRenderer;
+
+/**
+ * Times drawing the board on a device
+ *
+ * Run with the instrumentation tests, the median times are printed to
+ * the log.
+ */
+public class PlayboardRendererBenchmark extends AndroidTestCase {
+    // same as PlayboardRenderer's tiles
+    private static final int TILE_SIZE = 256;
+    private static final int SIZE = 27;
+    private static final int RUNS = 15;
+    private static final long TIMEOUT_SECS = 30;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Time from a full redraw until every tile has been drawn
+     */
+    public void testDrawAllTiles() throws Exception {
+        Playboard board = new Playboard(makePuzzle(SIZE));
+        PlayboardRenderer renderer = newRenderer(board);
+        Bitmap bitmap = Bitmap.createBitmap(
+            TILE_SIZE, TILE_SIZE, Bitmap.Config.RGB_565
+        );
+        Canvas canvas = new Canvas(bitmap);
+
+        long[] times = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long[] start = new long[1];
+            CountDownLatch[] tilesDrawn = new CountDownLatch[1];
+            runOnMain(() -> {
+                Drawable drawable = renderer.draw(null, false, false);
+                int numTiles
+                    = getNumTiles(drawable.getIntrinsicWidth())
+                        * getNumTiles(drawable.getIntrinsicHeight());
+                tilesDrawn[0] = new CountDownLatch(numTiles);
+                drawable.setCallback(new CountingCallback(tilesDrawn[0]));
+                start[0] = System.nanoTime();
+                // not in a view, so asks for all tiles
+                drawable.draw(canvas);
+            });
+            assertTrue(tilesDrawn[0].await(TIMEOUT_SECS, TimeUnit.SECONDS));
+            times[run] = System.nanoTime() - start[0];
+        }
+
+        report("draw all tiles", times);
+    }
+
+    /**
+     * Time on the UI thread to play a letter and queue its redraw
+     */
+    public void testTypeLetters() throws Exception {
+        Playboard board = new Playboard(makePuzzle(SIZE));
+        PlayboardRenderer renderer = newRenderer(board);
+
+        List<Long> times = new ArrayList<>();
+        for (int run = 0; run < RUNS; run++) {
+            int startRow = run % SIZE;
+            runOnMain(() -> {
+                board.setHighlightLetter(new Position(0, startRow));
+                board.setAcross(true);
+                renderer.draw(null, false, false);
+                for (int i = 0; i < SIZE; i++) {
+                    long start = System.nanoTime();
+                    Word previous = board.getCurrentWord();
+                    Position changed = board.getHighlightLetter();
+                    board.playLetter('A');
+                    renderer.drawChanges(
+                        previous, Arrays.asList(changed), false, false
+                    );
+                    times.add(System.nanoTime() - start);
+                }
+            });
+        }
+
+        long[] result = new long[times.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = times.get(i);
+        report("type letter", result);
+    }
+
+    private PlayboardRenderer newRenderer(Playboard board) {
+        float dpi = getContext().getResources()
+            .getDisplayMetrics().densityDpi;
+        int widthPixels = getContext().getResources()
+            .getDisplayMetrics().widthPixels;
+        return new PlayboardRenderer(
+            board, dpi, widthPixels, false, getContext()
+        );
+    }
+
+    private void runOnMain(Runnable runnable) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        handler.post(() -> {
+            try {
+                runnable.run();
+            } finally {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(TIMEOUT_SECS, TimeUnit.SECONDS));
+    }
+
+    private static int getNumTiles(int pixels) {
+        return (pixels + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    private static void report(String name, long[] times) {
+        Arrays.sort(times);
+        System.out.println(
+            "PlayboardRendererBenchmark " + name
+            + ": median " + (times[times.length / 2] / 1000) + "us"
+            + ", min " + (times[0] / 1000) + "us"
+            + ", max " + (times[times.length - 1] / 1000) + "us"
+            + " over " + times.length
+        );
+    }
+
+    /**
+     * Square grid with a sparse pattern of blocks and a clue for
+     * every numbered box
+     */
+    private static Puzzle makePuzzle(int size) {
+        Box[][] boxes = new Box[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (row % 6 == 5 && col % 6 == 2)
+                    continue;
+                Box box = new Box();
+                box.setSolution('A');
+                boxes[row][col] = box;
+            }
+        }
+
+        Puzzle puz = new Puzzle();
+        puz.setBoxes(boxes);
+
+        for (Box[] row : puz.getBoxes()) {
+            for (Box box : row) {
+                if (box == null)
+                    continue;
+                if (box.isAcross())
+                    puz.addClue(new Clue(box.getClueNumber(), true, "A"));
+                if (box.isDown())
+                    puz.addClue(new Clue(box.getClueNumber(), false, "D"));
+            }
+        }
+
+        return puz;
+    }
+
+    /**
+     * Counts down once for each redraw the drawable asks for
+     *
+     * The renderer asks for one when each tile is ready.
+     */
+    private static class CountingCallback implements Drawable.Callback {
+        private final CountDownLatch latch;
+
+        CountingCallback(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void invalidateDrawable(Drawable who) {
+            latch.countDown();
+        }
+
+        @Override
+        public void scheduleDrawable(Drawable who, Runnable what, long when) { }
+
+        @Override
+        public void unscheduleDrawable(Drawable who, Runnable what) { }
+    }
+}
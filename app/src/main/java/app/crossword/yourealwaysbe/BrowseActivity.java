@@ -27,10 +27,9 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts.GetContent;
 import androidx.annotation.NonNull;
 import androidx.appcompat.view.ActionMode;
+import androidx.appcompat.widget.SearchView;
 import androidx.core.app.ActivityCompat;
 import androidx.fragment.app.DialogFragment;
-import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -44,24 +43,22 @@ import app.crossword.yourealwaysbe.forkyz.ForkyzApplication;
 import app.crossword.yourealwaysbe.forkyz.R;
 import app.crossword.yourealwaysbe.net.Downloader;
 import app.crossword.yourealwaysbe.net.Downloaders;
-import app.crossword.yourealwaysbe.util.files.Accessor;
+import app.crossword.yourealwaysbe.BrowseActivityViewModel.PuzzleListing;
+import app.crossword.yourealwaysbe.BrowseActivityViewModel.RowRange;
 import app.crossword.yourealwaysbe.util.files.DirHandle;
+import app.crossword.yourealwaysbe.util.files.MetaCache.SortOrder;
 import app.crossword.yourealwaysbe.util.files.PuzHandle;
 import app.crossword.yourealwaysbe.util.files.PuzMetaFile;
 import app.crossword.yourealwaysbe.view.CircleProgressBar;
 import app.crossword.yourealwaysbe.view.StoragePermissionDialog;
-import app.crossword.yourealwaysbe.view.recycler.RemovableRecyclerViewAdapter;
-import app.crossword.yourealwaysbe.view.recycler.SeparatedRecyclerViewAdapter;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -126,9 +123,8 @@ public class BrowseActivity extends ForkyzActivity {
     private DirHandle crosswordsFolder
         = getFileHandler().getCrosswordsDirectory();
 
-    private Accessor accessor = Accessor.DATE_DESC;
-    private SeparatedRecyclerViewAdapter<FileViewHolder, FileAdapter>
-        currentAdapter = null;
+    private SortOrder sortOrder = SortOrder.DATE_DESC;
+    private PuzzleListAdapter currentAdapter = new PuzzleListAdapter();
     private Handler handler = new Handler(Looper.getMainLooper());
     private RecyclerView puzzleList;
     private NotificationManager nm;
@@ -245,10 +241,53 @@ public class BrowseActivity extends ForkyzActivity {
             = menu.findItem(R.id.browse_menu_archives);
 
         setViewCrosswordsOrArchiveUI();
+        setupSearch(menu.findItem(R.id.browse_menu_search));
 
         return true;
     }
 
+    /**
+     * Search the viewed directory as the user types
+     */
+    private void setupSearch(MenuItem searchItem) {
+        SearchView searchView = (SearchView) searchItem.getActionView();
+
+        String search = model.getSearch();
+        if (search != null) {
+            searchItem.expandActionView();
+            searchView.setQuery(search, false);
+        }
+
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                searchView.clearFocus();
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String text) {
+                model.setSearch(text.isEmpty() ? null : text);
+                return true;
+            }
+        });
+
+        searchItem.setOnActionExpandListener(
+            new MenuItem.OnActionExpandListener() {
+                @Override
+                public boolean onMenuItemActionExpand(MenuItem item) {
+                    return true;
+                }
+
+                @Override
+                public boolean onMenuItemActionCollapse(MenuItem item) {
+                    model.setSearch(null);
+                    return true;
+                }
+            }
+        );
+    }
+
     private int getNightModeIcon() {
         switch (nightMode.getCurrentMode()) {
         case DAY: return R.drawable.day_mode;
@@ -286,25 +325,25 @@ public class BrowseActivity extends ForkyzActivity {
             this.startActivity(helpIntent);
             return true;
         } else if (id == R.id.browse_menu_sort_source) {
-            this.accessor = Accessor.SOURCE;
+            this.sortOrder = SortOrder.SOURCE;
             prefs.edit()
                  .putInt("sort", 2)
                  .apply();
-            this.loadPuzzleAdapter();
+            model.setSortOrder(sortOrder);
             return true;
         } else if (id == R.id.browse_menu_sort_date_asc) {
-            this.accessor = Accessor.DATE_ASC;
+            this.sortOrder = SortOrder.DATE_ASC;
             prefs.edit()
                  .putInt("sort", 1)
                  .apply();
-            this.loadPuzzleAdapter();
+            model.setSortOrder(sortOrder);
             return true;
         } else if (id == R.id.browse_menu_sort_date_desc) {
-            this.accessor = Accessor.DATE_DESC;
+            this.sortOrder = SortOrder.DATE_DESC;
             prefs.edit()
                  .putInt("sort", 0)
                  .apply();
-            this.loadPuzzleAdapter();
+            model.setSortOrder(sortOrder);
             return true;
         }
 
@@ -346,6 +385,10 @@ public class BrowseActivity extends ForkyzActivity {
                             || !selected.isEmpty()) {
                         return 0; // Don't swipe the headers.
                     }
+                    // or rows still loading
+                    FileViewHolder fileHolder = (FileViewHolder) viewHolder;
+                    if (fileHolder.getPuzMetaFile() == null)
+                        return 0;
                     return super.getSwipeDirs(recyclerView, viewHolder);
                 }
 
@@ -369,6 +412,8 @@ public class BrowseActivity extends ForkyzActivity {
 
                     PuzMetaFile puzMeta
                         = ((FileViewHolder) viewHolder).getPuzMetaFile();
+                    if (puzMeta == null)
+                        return;
 
                     boolean delete = "DELETE".equals(
                         prefs.getString("swipeAction", "DELETE")
@@ -391,13 +436,13 @@ public class BrowseActivity extends ForkyzActivity {
 
         switch (prefs.getInt("sort", 0)) {
         case 2:
-            this.accessor = Accessor.SOURCE;
+            this.sortOrder = SortOrder.SOURCE;
             break;
         case 1:
-            this.accessor = Accessor.DATE_ASC;
+            this.sortOrder = SortOrder.DATE_ASC;
             break;
         default:
-            this.accessor = Accessor.DATE_DESC;
+            this.sortOrder = SortOrder.DATE_DESC;
         }
 
         buttonAdd = findViewById(R.id.speed_dial_add);
@@ -428,18 +473,25 @@ public class BrowseActivity extends ForkyzActivity {
             = findViewById(R.id.swipeContainer);
 
         model = new ViewModelProvider(this).get(BrowseActivityViewModel.class);
-        model.getPuzzleFiles().observe(this, (v) -> {
+        model.setSortOrder(sortOrder);
+        model.getPuzzleListing().observe(this, (listing) -> {
             BrowseActivity.this.setViewCrosswordsOrArchiveUI();
-            BrowseActivity.this.loadPuzzleAdapter();
+            BrowseActivity.this.setPuzzleListing(listing, true);
             swipePuzzleReloadView.setRefreshing(false);
         });
+        model.getLoadedRows().observe(this, (rows) -> {
+            currentAdapter.notifyRowsLoaded(rows);
+        });
 
         pleaseWaitView = findViewById(R.id.please_wait_notice);
         model.getIsUIBusy().observe(this, (isBusy) -> {
-            if (isBusy)
+            if (isBusy) {
                 showPleaseWait();
-            else
+            } else {
                 hidePleaseWait();
+                // a refresh with no new files does not post a new list
+                swipePuzzleReloadView.setRefreshing(false);
+            }
         });
 
         model.getPuzzleLoadEvents().observe(this, (v) -> {
@@ -459,7 +511,8 @@ public class BrowseActivity extends ForkyzActivity {
         setViewCrosswordsOrArchiveUI();
         // populated properly inside onResume or with puzzle list
         // observer
-        setPuzzleListAdapter(buildEmptyList(), false);
+        puzzleList.setAdapter(currentAdapter);
+        setPuzzleListing(model.getPuzzleListing().getValue(), false);
 
         // If this was started by a file open
         Intent intent = getIntent();
@@ -509,7 +562,7 @@ public class BrowseActivity extends ForkyzActivity {
         // A background update will commonly happen when the user turns
         // on the preference for the first time, so check here to ensure
         // the UI is re-rendered when they exit the settings dialog.
-        if (model.getPuzzleFiles().getValue() == null
+        if (model.getPuzzleListing().getValue() == null
                 || utils.checkBackgroundDownload(prefs, hasWritePermissions)) {
 
             if (hasPendingImport()) {
@@ -541,60 +594,6 @@ public class BrowseActivity extends ForkyzActivity {
         model.refreshPuzzleMeta(lastAccessed);
     }
 
-    private SeparatedRecyclerViewAdapter<FileViewHolder, FileAdapter>
-    buildEmptyList() {
-        return new SeparatedRecyclerViewAdapter<>(
-            R.layout.puzzle_list_header,
-            FileViewHolder.class
-        );
-    }
-
-    private SeparatedRecyclerViewAdapter<FileViewHolder, FileAdapter>
-    buildList(
-        List<MutableLiveData<PuzMetaFile>> puzFiles, Accessor accessor
-    ) {
-        try {
-            Collections.sort(
-                puzFiles,
-                (pm1, pm2) -> {
-                    return accessor.compare(pm1.getValue(), pm2.getValue());
-                }
-            );
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        SeparatedRecyclerViewAdapter<FileViewHolder, FileAdapter> adapter
-            = new SeparatedRecyclerViewAdapter<>(
-                R.layout.puzzle_list_header,
-                FileViewHolder.class
-            );
-        String lastHeader = null;
-        ArrayList<MutableLiveData<PuzMetaFile>> current = new ArrayList<>();
-
-        for (MutableLiveData<PuzMetaFile> pmData: puzFiles) {
-            PuzMetaFile puzMeta = pmData.getValue();
-
-            String check = accessor.getLabel(puzMeta);
-
-            if (!((lastHeader == null) || lastHeader.equals(check))) {
-                FileAdapter fa = new FileAdapter(current);
-                adapter.addSection(lastHeader, fa);
-                current = new ArrayList<>();
-            }
-
-            lastHeader = check;
-            current.add(pmData);
-        }
-
-        if (lastHeader != null) {
-            FileAdapter fa = new FileAdapter(current);
-            adapter.addSection(lastHeader, fa);
-        }
-
-        return adapter;
-    }
-
     private void checkDownload() {
         if (!hasWritePermissions) return;
 
@@ -621,28 +620,6 @@ public class BrowseActivity extends ForkyzActivity {
         model.startLoadFiles(archive);
     }
 
-    private void loadPuzzleAdapter() {
-        cleanUpCurrentAdapter();
-        List<MutableLiveData<PuzMetaFile>> puzList
-            = model.getPuzzleFiles().getValue();
-        if (puzList != null) {
-            setPuzzleListAdapter(buildList(puzList, accessor), true);
-        } else {
-            setPuzzleListAdapter(buildEmptyList(), true);
-        }
-    }
-
-    /**
-     * Before changing adapter, clear up the old one
-     */
-    private void cleanUpCurrentAdapter() {
-        if (currentAdapter != null) {
-            for (FileAdapter adapter : currentAdapter.sectionAdapters()) {
-                adapter.cleanUpForRemoval();
-            }
-        }
-    }
-
     @Override
     public void onConfigurationChanged(Configuration newConfig) {
         super.onConfigurationChanged(newConfig);
@@ -687,26 +664,27 @@ public class BrowseActivity extends ForkyzActivity {
         currentAdapter.notifyDataSetChanged();
     }
 
-    private boolean hasCurrentPuzzleListAdapter() {
-        return currentAdapter != null;
-    }
-
     /**
-     * Set the puzzle list adapter
+     * Show the puzzle listing
+     *
+     * The list goes back to the top if the directory or order changed.
+     *
+     * @param listing the listing, null if not loaded
      * @param showEmptyMsgs give feedback to user when no files (used to
      * avoid doing so during loading)
      */
-    private void setPuzzleListAdapter(
-        SeparatedRecyclerViewAdapter<FileViewHolder, FileAdapter> adapter,
-        boolean showEmptyMsgs
+    private void setPuzzleListing(
+        PuzzleListing listing, boolean showEmptyMsgs
     ) {
-        currentAdapter = adapter;
-        puzzleList.setAdapter(adapter);
+        boolean moved = !currentAdapter.isSameListing(listing);
+        currentAdapter.setListing(listing);
+        if (moved)
+            puzzleList.scrollToPosition(0);
 
         TextView emptyMsg = findViewById(R.id.empty_listing_msg);
         TextView storageMsg = findViewById(R.id.internal_storage_msg);
 
-        if (adapter.isEmpty() && showEmptyMsgs) {
+        if (currentAdapter.isEmpty() && showEmptyMsgs) {
             if (model.getIsViewArchive()) {
                 emptyMsg.setText(R.string.no_puzzles);
             } else {
@@ -811,36 +789,152 @@ public class BrowseActivity extends ForkyzActivity {
         pendingImport = uri;
     }
 
-    private class FileAdapter
-            extends RemovableRecyclerViewAdapter<FileViewHolder> {
+    /**
+     * Section headers and puzzles of the listing
+     *
+     * Puzzles are asked of the listing as they are bound. Rows not
+     * loaded yet show empty until the listing posts them.
+     */
+    private class PuzzleListAdapter
+            extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private static final int HEADER = 0;
+        private static final int FILE = 1;
+
         final DateTimeFormatter df
             = DateTimeFormatter.ofPattern("EEEE\n MMM dd, yyyy");
-        final ArrayList<MutableLiveData<PuzMetaFile>> objects;
-        final Map<MutableLiveData<PuzMetaFile>, Observer<PuzMetaFile>>
-            objectObservers = new HashMap<>();
-
-        public FileAdapter(ArrayList<MutableLiveData<PuzMetaFile>> objects) {
-            this.objects = objects;
-            for (MutableLiveData<PuzMetaFile> pmData : objects) {
-                addObserver(pmData);
+
+        private PuzzleListing listing;
+        // the listing replaced by a reload of the same list, rows are
+        // shown from it while the new listing loads them
+        private PuzzleListing previousListing;
+        // position of each section's header, and its first row
+        private int[] headerPositions = new int[0];
+        private int[] firstRows = new int[0];
+        private int itemCount = 0;
+
+        /**
+         * True if the listing is of the same directory in the same
+         * order with the same search as the current one
+         */
+        public boolean isSameListing(PuzzleListing other) {
+            if (listing == null || other == null)
+                return listing == other;
+            return listing.getDirectory().equals(other.getDirectory())
+                && listing.getSortOrder() == other.getSortOrder()
+                && Objects.equals(listing.getSearch(), other.getSearch());
+        }
+
+        public void setListing(PuzzleListing listing) {
+            previousListing = isSameListing(listing) ? this.listing : null;
+            this.listing = listing;
+
+            int numSections = (listing == null) ? 0 : listing.getNumSections();
+            headerPositions = new int[numSections];
+            firstRows = new int[numSections];
+
+            int position = 0;
+            int row = 0;
+            for (int section = 0; section < numSections; section++) {
+                headerPositions[section] = position;
+                firstRows[section] = row;
+                int size = listing.getSectionSize(section);
+                position += size + 1;
+                row += size;
             }
+            itemCount = position;
+
+            notifyDataSetChanged();
+        }
+
+        public boolean isEmpty() {
+            return listing == null || listing.isEmpty();
+        }
+
+        /**
+         * Rebind rows loaded by the listing
+         */
+        public void notifyRowsLoaded(RowRange rows) {
+            if (rows.getListing() != listing || rows.getNumRows() == 0)
+                return;
+
+            int first = getPosition(rows.getFirstRow());
+            int last = getPosition(
+                rows.getFirstRow() + rows.getNumRows() - 1
+            );
+            notifyItemRangeChanged(first, last - first + 1);
         }
 
         @Override
-        public FileViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-            View view = LayoutInflater.from(parent.getContext())
-                    .inflate(R.layout.puzzle_list_item, parent, false);
-            return new FileViewHolder(view);
+        public RecyclerView.ViewHolder onCreateViewHolder(
+            ViewGroup parent, int viewType
+        ) {
+            LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+            if (viewType == HEADER) {
+                TextView view = (TextView) inflater.inflate(
+                    R.layout.puzzle_list_header, parent, false
+                );
+                return new HeaderViewHolder(view);
+            } else {
+                View view = inflater.inflate(
+                    R.layout.puzzle_list_item, parent, false
+                );
+                return new FileViewHolder(view);
+            }
+        }
+
+        @Override
+        public void onBindViewHolder(
+            RecyclerView.ViewHolder holder, int position
+        ) {
+            int section = getSection(position);
+            if (headerPositions[section] == position) {
+                TextView view = (TextView) holder.itemView;
+                view.setText(listing.getSectionLabel(section));
+            } else {
+                int row = firstRows[section]
+                    + (position - headerPositions[section] - 1);
+                PuzMetaFile pm = listing.getPuzMeta(row);
+                if (pm == null && previousListing != null)
+                    pm = previousListing.peekPuzMeta(row);
+                bindFile((FileViewHolder) holder, pm);
+            }
+        }
+
+        @Override
+        public int getItemCount() {
+            return itemCount;
         }
 
         @Override
-        public void onBindViewHolder(FileViewHolder holder, int position) {
+        public int getItemViewType(int position) {
+            int section = getSection(position);
+            return (headerPositions[section] == position) ? HEADER : FILE;
+        }
+
+        private void bindFile(FileViewHolder holder, PuzMetaFile pm) {
             View view = holder.itemView;
-            MutableLiveData<PuzMetaFile> pmData = objects.get(position);
-            PuzMetaFile pm = pmData.getValue();
 
             holder.setPuzMetaFile(pm);
 
+            TextView date = (TextView) view.findViewById(R.id.puzzle_date);
+            TextView titleView = (TextView) view.findViewById(R.id.puzzle_name);
+            CircleProgressBar bar
+                = (CircleProgressBar) view.findViewById(R.id.puzzle_progress);
+            TextView captionView
+                = (TextView) view.findViewById(R.id.puzzle_caption);
+
+            if (pm == null) {
+                view.setOnClickListener(null);
+                view.setOnLongClickListener(null);
+                date.setVisibility(View.GONE);
+                titleView.setText("");
+                captionView.setText("");
+                bar.setPercentFilled(0);
+                bar.setComplete(false);
+                setListItemColor(view, false);
+                return;
+            }
+
             view.setOnClickListener(new View.OnClickListener() {
                 public void onClick(View view) {
                     BrowseActivity.this.onItemClick(view, pm);
@@ -855,11 +949,9 @@ public class BrowseActivity extends ForkyzActivity {
                 }
             });
 
-            TextView date = (TextView) view.findViewById(R.id.puzzle_date);
-
             date.setText(df.format(pm.getDate()));
 
-            if (accessor == Accessor.SOURCE) {
+            if (listing.getSortOrder() == SortOrder.SOURCE) {
                 date.setVisibility(View.VISIBLE);
             } else {
                 date.setVisibility(View.GONE);
@@ -869,19 +961,11 @@ public class BrowseActivity extends ForkyzActivity {
             String caption = pm.getCaption();
             String author = pm.getAuthor();
 
-            TextView titleView = (TextView) view.findViewById(R.id.puzzle_name);
-
             titleView.setText(title);
 
-            CircleProgressBar bar
-                = (CircleProgressBar) view.findViewById(R.id.puzzle_progress);
-
             bar.setPercentFilled(pm.getFilled());
             bar.setComplete(pm.getComplete() == 100);
 
-            TextView captionView
-                = (TextView) view.findViewById(R.id.puzzle_caption);
-
             // add author if not already in title or caption
             // case insensitive trick:
             // https://www.baeldung.com/java-case-insensitive-string-matching
@@ -903,56 +987,28 @@ public class BrowseActivity extends ForkyzActivity {
             setListItemColor(view, selected.contains(pm));
         }
 
-        @Override
-        public int getItemCount() {
-            return objects.size();
-        }
-
-        @Override
-        public void remove(int position) {
-            objects.remove(position);
-        }
-
         /**
-         * Call when adapter is about to be replaced
-         *
-         * Removes observers from all live data.
+         * The section containing the adapter position
          */
-        public void cleanUpForRemoval() {
-            for (MutableLiveData<PuzMetaFile> pmData : objects)
-                removeObserver(pmData);
+        private int getSection(int position) {
+            int index = Arrays.binarySearch(headerPositions, position);
+            return (index >= 0) ? index : (-index - 2);
         }
 
         /**
-         * Only one observer per pmData, removes old if exists
+         * The adapter position of a row of the listing
          */
-        private void addObserver(MutableLiveData<PuzMetaFile> pmData) {
-            if (objectObservers.containsKey(pmData))
-                removeObserver(pmData);
-
-            Observer<PuzMetaFile> observer = (v) -> {
-                // need to search each time since position may change
-                // throughout lifecycle
-                int idx = objects.indexOf(pmData);
-                if (v == null) {
-                    objects.remove(idx);
-                    removeObserver(pmData);
-                    FileAdapter.this.notifyItemRemoved(idx);
-                } else {
-                    FileAdapter.this.notifyItemChanged(idx);
-                }
-            };
-
-            pmData.observe(BrowseActivity.this, observer);
-            objectObservers.put(pmData, observer);
+        private int getPosition(int row) {
+            int index = Arrays.binarySearch(firstRows, row);
+            // sections are never empty, so no two start on the same row
+            int section = (index >= 0) ? index : (-index - 2);
+            return headerPositions[section] + 1 + (row - firstRows[section]);
         }
+    }
 
-        private void removeObserver(MutableLiveData<PuzMetaFile> pmData) {
-            Observer<PuzMetaFile> observer = objectObservers.get(pmData);
-            if (observer != null) {
-                pmData.removeObserver(observer);
-                objectObservers.remove(pmData);
-            }
+    private static class HeaderViewHolder extends RecyclerView.ViewHolder {
+        public HeaderViewHolder(TextView itemView) {
+            super(itemView);
         }
     }
 
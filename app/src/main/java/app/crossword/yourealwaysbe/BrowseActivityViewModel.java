@@ -7,7 +7,12 @@ import java.time.Period;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.logging.Logger;
@@ -34,6 +39,7 @@ import app.crossword.yourealwaysbe.puz.Puzzle;
 import app.crossword.yourealwaysbe.util.SingleLiveEvent;
 import app.crossword.yourealwaysbe.util.files.DirHandle;
 import app.crossword.yourealwaysbe.util.files.FileHandler;
+import app.crossword.yourealwaysbe.util.files.MetaCache;
 import app.crossword.yourealwaysbe.util.files.PuzHandle;
 import app.crossword.yourealwaysbe.util.files.PuzMetaFile;
 
@@ -41,6 +47,13 @@ public class BrowseActivityViewModel extends ViewModel {
     private static final Logger LOGGER
         = Logger.getLogger(BrowseActivityViewModel.class.getCanonicalName());
 
+    // rows loaded from the meta cache at a time
+    private static final int PAGE_SIZE = 50;
+    // pages of a listing kept in memory
+    private static final int MAX_PAGES = 8;
+    // search results listed
+    private static final int MAX_SEARCH_RESULTS = 500;
+
     // important that it is single thread to avoid multiple
     // simultaneous operations
     private ExecutorService executorService
@@ -48,13 +61,26 @@ public class BrowseActivityViewModel extends ViewModel {
     // not fixed num in case user creates loads of downloads
     private ExecutorService downloadExecutorService
         = Executors.newCachedThreadPool();
+    // loads pages of the listing, separate so pages are not held up
+    // by a directory being read
+    private ExecutorService pageExecutorService
+        = Executors.newSingleThreadExecutor();
     private Handler handler = new Handler(Looper.getMainLooper());
 
     private SharedPreferences prefs;
 
     private boolean isViewArchive = false;
+    private MetaCache.SortOrder sortOrder = MetaCache.SortOrder.DATE_DESC;
+    // null if not searching
+    private String search = null;
 
-    private MutableLiveData<List<MutableLiveData<PuzMetaFile>>> puzzleFiles
+    // puzzles in the viewed directory that could not be read, so are
+    // not in the meta cache, only used on the executor thread
+    private List<PuzMetaFile> unreadablePuzMetas = new ArrayList<>();
+
+    private MutableLiveData<PuzzleListing> puzzleListing
+        = new MutableLiveData<>();
+    private MutableLiveData<RowRange> loadedRows
         = new MutableLiveData<>();
     // busy with something that isn't downloading
     private MutableLiveData<Boolean> isUIBusy
@@ -70,19 +96,20 @@ public class BrowseActivityViewModel extends ViewModel {
     }
 
     /**
-     * Get list of puzzle files in currently viewed directory
+     * The listing of the currently viewed directory
      *
-     * List of mutable live data. Each live data is for one puzzle --
-     * the base puzzle may change, but it might get updated with new
-     * meta data (e.g. new % completed). If it gets set to null, it
-     * means the puzzle was removed from the puzzle list.
-     *
-     * The puzzle list might have items added to it, a new value will be
-     * posted, containing the same list with the new item at the end.
+     * A new listing is posted whenever the directory, its puzzles or
+     * the sort order change.
+     */
+    public MutableLiveData<PuzzleListing> getPuzzleListing() {
+        return puzzleListing;
+    }
+
+    /**
+     * Rows of a listing that have been loaded since they were asked for
      */
-    public MutableLiveData<List<MutableLiveData<PuzMetaFile>>>
-    getPuzzleFiles() {
-        return puzzleFiles;
+    public MutableLiveData<RowRange> getLoadedRows() {
+        return loadedRows;
     }
 
     public MutableLiveData<Boolean> getIsUIBusy() {
@@ -97,34 +124,163 @@ public class BrowseActivityViewModel extends ViewModel {
         return isViewArchive;
     }
 
+    public MetaCache.SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    /**
+     * Change the order of the listing, reloading it if needed
+     */
+    public void setSortOrder(MetaCache.SortOrder sortOrder) {
+        if (this.sortOrder == sortOrder)
+            return;
+
+        this.sortOrder = sortOrder;
+        if (puzzleListing.getValue() != null)
+            executorService.execute(() -> { reloadListing(); });
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    /**
+     * List only puzzles matching the search, or all if null
+     */
+    public void setSearch(String search) {
+        if (Objects.equals(this.search, search))
+            return;
+
+        this.search = search;
+        if (puzzleListing.getValue() != null)
+            executorService.execute(() -> { reloadListing(); });
+    }
+
     public void startLoadFiles() {
         startLoadFiles(getIsViewArchive());
     }
 
+    /**
+     * Bring the meta cache up to date with the directory and list it
+     *
+     * The listing is posted as the cache fills, so the first puzzles
+     * show before uncached files in large directories have been read.
+     * If the directory is already shown, only the rows that changed
+     * are posted once it has been read, unless puzzles were added or
+     * removed.
+     */
     public void startLoadFiles(boolean archive) {
-        threadWithUILock(() -> {
-            FileHandler fileHandler = getFileHandler();
+        threadWithUILock(() -> { loadFiles(archive); });
+    }
+
+    private void loadFiles(boolean archive) {
+        FileHandler fileHandler = getFileHandler();
+
+        DirHandle directory = archive
+            ? fileHandler.getArchiveDirectory()
+            : fileHandler.getCrosswordsDirectory();
 
-            DirHandle directory = archive
-                ? fileHandler.getArchiveDirectory()
-                : fileHandler.getCrosswordsDirectory();
+        // if the directory is already shown, only what changed is
+        // updated once it has been read
+        PuzzleListing shown = puzzleListing.getValue();
+        boolean refresh = shown != null
+            && archive == getIsViewArchive()
+            && directory.equals(shown.getDirectory());
 
-            List<MutableLiveData<PuzMetaFile>> puzFiles
-                = new ArrayList<>();
+        List<PuzMetaFile> unreadable = new ArrayList<>();
+        unreadablePuzMetas = unreadable;
 
-            for (PuzMetaFile pm : fileHandler.getPuzMetas(directory)) {
-                puzFiles.add(new MutableLiveData<>(pm));
+        fileHandler.getPuzMetas(directory, (puzMetas) -> {
+            for (PuzMetaFile pm : puzMetas) {
+                if (pm.meta == null)
+                    unreadable.add(pm);
             }
+            // post the listing as it grows so the first puzzles show
+            // before uncached files in large directories have been read
+            if (!refresh)
+                postListing(newListing(directory), archive);
+        });
 
-            // use handler for this so viewArchive changes when
-            // puzzleFiles does
-            handler.post(() -> {
-                setIsViewArchive(archive);
-                puzzleFiles.setValue(puzFiles);
-            });
+        if (refresh) {
+            reloadListing();
+        } else {
+            // always post at end in case directory empty
+            postListing(newListing(directory), archive);
+        }
+    }
+
+    /**
+     * Update the listing of the viewed directory from the meta cache
+     *
+     * If the shown listing has the same sections and unreadable or
+     * found puzzles, its loaded pages are read again and only rows
+     * that changed are posted to getLoadedRows. Otherwise a new
+     * listing is posted.
+     *
+     * Call on the executor thread after changing puzzles in the viewed
+     * directory.
+     */
+    private void reloadListing() {
+        DirHandle directory = getViewedDirectory();
+        boolean archive = getIsViewArchive();
+        PuzzleListing listing = newListing(directory);
+        PuzzleListing shown = puzzleListing.getValue();
+
+        if (shown != null && listing.hasSameRows(shown))
+            handler.post(() -> { shown.reloadPages(); });
+        else
+            postListing(listing, archive);
+    }
+
+    /**
+     * Show the listing
+     *
+     * Use handler for this so viewArchive changes when the listing does
+     */
+    private void postListing(PuzzleListing listing, boolean archive) {
+        handler.post(() -> {
+            setIsViewArchive(archive);
+            puzzleListing.setValue(listing);
         });
     }
 
+    /**
+     * Count the sections of the directory for a listing in the current
+     * order
+     *
+     * If searching, the listing is of the search results instead.
+     */
+    private PuzzleListing newListing(DirHandle directory) {
+        FileHandler fileHandler = getFileHandler();
+        MetaCache.SortOrder order = sortOrder;
+        String listingSearch = search;
+
+        List<MetaCache.Section> sections;
+        String extraLabel;
+        List<PuzMetaFile> extraPuzMetas;
+
+        if (listingSearch == null) {
+            sections = fileHandler.getPuzMetaSections(directory, order);
+            extraLabel = getString(R.string.unreadable_puzzles);
+            extraPuzMetas = new ArrayList<>(unreadablePuzMetas);
+        } else {
+            sections = Collections.emptyList();
+            extraLabel = getString(R.string.search_results);
+            extraPuzMetas = fileHandler.searchPuzMetas(
+                directory, listingSearch, MAX_SEARCH_RESULTS
+            );
+        }
+
+        return new PuzzleListing(
+            directory, order, listingSearch,
+            sections, extraLabel, extraPuzMetas
+        );
+    }
+
+    private String getString(int resId) {
+        return ForkyzApplication.getInstance().getString(resId);
+    }
+
     public void deletePuzzle(PuzMetaFile puzMeta) {
         deletePuzzles(Collections.singleton(puzMeta));
     }
@@ -134,13 +290,19 @@ public class BrowseActivityViewModel extends ViewModel {
             FileHandler fileHandler = getFileHandler();
 
             DirHandle viewedDir = getViewedDirectory();
+            boolean changed = false;
 
             for (PuzMetaFile puzMeta : puzMetas) {
                 fileHandler.delete(puzMeta);
 
-                if (puzMeta.isInDirectory(viewedDir))
-                    removeFromPuzzleList(puzMeta);
+                if (puzMeta.isInDirectory(viewedDir)) {
+                    unreadablePuzMetas.remove(puzMeta);
+                    changed = true;
+                }
             }
+
+            if (changed)
+                reloadListing();
         });
     }
 
@@ -154,18 +316,24 @@ public class BrowseActivityViewModel extends ViewModel {
         threadWithUILock(() -> {
             DirHandle directory = getViewedDirectory();
             FileHandler fileHandler = getFileHandler();
+            boolean added = false;
+            boolean removed = false;
 
             for (PuzMetaFile puzMeta : puzMetas) {
                 boolean addToList = destDir.equals(directory);
                 boolean removeFromList = puzMeta.isInDirectory(directory);
 
+                if (removeFromList)
+                    unreadablePuzMetas.remove(puzMeta);
+
                 fileHandler.moveTo(puzMeta, destDir);
 
-                if (addToList && !removeFromList)
-                    addPuzzleToList(puzMeta);
-                else if (removeFromList && !addToList)
-                    removeFromPuzzleList(puzMeta);
+                added |= addToList && !removeFromList;
+                removed |= removeFromList && !addToList;
             }
+
+            if (added || removed)
+                reloadListing();
         });
     }
 
@@ -261,7 +429,7 @@ public class BrowseActivityViewModel extends ViewModel {
             FileHandler fileHandler = getFileHandler();
             try {
                 Puzzle puz = fileHandler.load(puzMeta);
-                if (puz == null || puz.getBoxes() == null) {
+                if (puz == null || puz.getGrid() == null) {
                     throw new IOException(
                         "Puzzle is null or contains no boxes."
                     );
@@ -319,18 +487,9 @@ public class BrowseActivityViewModel extends ViewModel {
                 if (refreshedMeta == null)
                     return;
 
-                if (refreshedMeta != null) {
-                    List<MutableLiveData<PuzMetaFile>> pmList
-                        = puzzleFiles.getValue();
-
-                    int index = -1;
-                    for (MutableLiveData<PuzMetaFile> pm : pmList) {
-                        index += 1;
-                        if (pm.getValue().isSameMainFile(refreshHandle)) {
-                            pm.postValue(refreshedMeta);
-                        }
-                    }
-                }
+                unreadablePuzMetas.remove(refreshedMeta);
+                if (refreshedMeta.isInDirectory(getViewedDirectory()))
+                    reloadListing();
             } catch (IOException e) {
                 LOGGER.warning("Could not refresh puz meta " + e);
             }
@@ -355,8 +514,9 @@ public class BrowseActivityViewModel extends ViewModel {
                     startLoadFiles();
                 } else if (ph != null) {
                     try {
-                        PuzMetaFile pm = getFileHandler().loadPuzMetaFile(ph);
-                        addPuzzleToList(pm);
+                        // adds it to the meta cache
+                        getFileHandler().loadPuzMetaFile(ph);
+                        reloadListing();
                     } catch (IOException e) {
                         // fall back to full reload
                         startLoadFiles();
@@ -399,6 +559,7 @@ public class BrowseActivityViewModel extends ViewModel {
     @Override
     protected void onCleared() {
         executorService.shutdown();
+        pageExecutorService.shutdown();
         downloadExecutorService.shutdown();
     }
 
@@ -420,38 +581,239 @@ public class BrowseActivityViewModel extends ViewModel {
     }
 
     /**
-     * Don't add the same file twice!
+     * Load a page of a listing and post it back to the listing
      */
-    private void addPuzzleToList(PuzMetaFile puzMeta) {
-        puzzleFiles.getValue().add(new MutableLiveData<>(puzMeta));
-        puzzleFiles.postValue(puzzleFiles.getValue());
+    private void loadPage(PuzzleListing listing, int page) {
+        pageExecutorService.execute(() -> {
+            List<PuzMetaFile> puzMetas = getFileHandler().getPuzMetas(
+                listing.getDirectory(),
+                listing.getSortOrder(),
+                page * PAGE_SIZE,
+                PAGE_SIZE
+            );
+            handler.post(() -> { listing.addPage(page, puzMetas); });
+        });
     }
 
     /**
-     * Assumes files only appear once in list
+     * A range of rows of a listing
      */
-    private void removeFromPuzzleList(PuzMetaFile delPuzMeta) {
-        List<MutableLiveData<PuzMetaFile>> puzList = puzzleFiles.getValue();
+    public static class RowRange {
+        private final PuzzleListing listing;
+        private final int firstRow;
+        private final int numRows;
+
+        private RowRange(PuzzleListing listing, int firstRow, int numRows) {
+            this.listing = listing;
+            this.firstRow = firstRow;
+            this.numRows = numRows;
+        }
 
-        if (puzList == null)
-            return;
+        public PuzzleListing getListing() { return listing; }
+        public int getFirstRow() { return firstRow; }
+        public int getNumRows() { return numRows; }
+    }
 
-        int index = 0;
-        int delIndex = -1;
+    /**
+     * The puzzles of a directory in sections
+     *
+     * Sections are counted by the meta cache and rows are loaded from
+     * it a page at a time when first asked for, so only the rows shown
+     * are built. Puzzles already in memory are listed in a last
+     * section of their own: those that could not be read (so are not
+     * in the cache), or the results of a search.
+     *
+     * Only use on the main thread.
+     */
+    public class PuzzleListing {
+        private final DirHandle directory;
+        private final MetaCache.SortOrder sortOrder;
+        private final String search;
+        private final List<MetaCache.Section> sections;
+        private final String extraLabel;
+        private final List<PuzMetaFile> extraPuzMetas;
+        private final int numCachedRows;
+
+        // least recently used page dropped first
+        private final Map<Integer, List<PuzMetaFile>> pages
+            = new LinkedHashMap<Integer, List<PuzMetaFile>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                    Map.Entry<Integer, List<PuzMetaFile>> eldest
+                ) {
+                    return size() > MAX_PAGES;
+                }
+            };
+        private final Set<Integer> loadingPages = new HashSet<>();
+
+        private PuzzleListing(
+            DirHandle directory,
+            MetaCache.SortOrder sortOrder,
+            String search,
+            List<MetaCache.Section> sections,
+            String extraLabel,
+            List<PuzMetaFile> extraPuzMetas
+        ) {
+            this.directory = directory;
+            this.sortOrder = sortOrder;
+            this.search = search;
+            this.sections = sections;
+            this.extraLabel = extraLabel;
+            this.extraPuzMetas = extraPuzMetas;
+
+            int numRows = 0;
+            for (MetaCache.Section section : sections)
+                numRows += section.getCount();
+            this.numCachedRows = numRows;
+        }
 
-        while (index < puzList.size() && delIndex < 0) {
-            PuzMetaFile pm = puzList.get(index).getValue();
+        public DirHandle getDirectory() { return directory; }
+        public MetaCache.SortOrder getSortOrder() { return sortOrder; }
 
-            if (pm.isSameMainFile(delPuzMeta))
-                delIndex = index;
+        /**
+         * The search listed, or null if not a search
+         */
+        public String getSearch() { return search; }
 
-            index += 1;
+        public int getNumSections() {
+            return sections.size() + (extraPuzMetas.isEmpty() ? 0 : 1);
+        }
+
+        public String getSectionLabel(int section) {
+            return (section < sections.size())
+                ? sections.get(section).getLabel()
+                : extraLabel;
+        }
+
+        public int getSectionSize(int section) {
+            return (section < sections.size())
+                ? sections.get(section).getCount()
+                : extraPuzMetas.size();
+        }
+
+        public int getNumRows() {
+            return numCachedRows + extraPuzMetas.size();
+        }
+
+        public boolean isEmpty() {
+            return getNumRows() == 0;
+        }
+
+        /**
+         * The puzzle of a row, counting across sections
+         *
+         * If the row's page is not loaded, it is loaded in the
+         * background and its rows posted to getLoadedRows when ready.
+         *
+         * @return the puzzle or null if not loaded yet
+         */
+        public PuzMetaFile getPuzMeta(int row) {
+            PuzMetaFile puzMeta = peekPuzMeta(row);
+            if (puzMeta == null && row < numCachedRows) {
+                int page = row / PAGE_SIZE;
+                if (!pages.containsKey(page) && loadingPages.add(page))
+                    loadPage(this, page);
+            }
+            return puzMeta;
+        }
+
+        /**
+         * True if the listing has the same rows as the other
+         *
+         * That is, it is of the same directory, order and search, with
+         * the same sections, and the same puzzles in the last section.
+         * Rows loaded from the cache may still differ.
+         */
+        private boolean hasSameRows(PuzzleListing other) {
+            if (!directory.equals(other.directory)
+                    || sortOrder != other.sortOrder
+                    || !Objects.equals(search, other.search)
+                    || !sections.equals(other.sections)
+                    || !extraLabel.equals(other.extraLabel)
+                    || extraPuzMetas.size() != other.extraPuzMetas.size())
+                return false;
+
+            for (int i = 0; i < extraPuzMetas.size(); i++) {
+                if (!extraPuzMetas.get(i).isSameAs(other.extraPuzMetas.get(i)))
+                    return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * Read the loaded pages again, posting rows that have changed
+         *
+         * Pages being loaded are read again too, as they may have been
+         * read before the cache was updated.
+         */
+        private void reloadPages() {
+            if (puzzleListing.getValue() != this)
+                return;
+            Set<Integer> reload = new HashSet<>(pages.keySet());
+            reload.addAll(loadingPages);
+            for (int page : reload) {
+                loadingPages.add(page);
+                loadPage(this, page);
+            }
+        }
+
+        /**
+         * The puzzle of a row if its page is loaded, without loading
+         */
+        public PuzMetaFile peekPuzMeta(int row) {
+            if (row >= numCachedRows)
+                return extraPuzMetas.get(row - numCachedRows);
+
+            int page = row / PAGE_SIZE;
+            List<PuzMetaFile> puzMetas = pages.get(page);
+            int index = row - page * PAGE_SIZE;
+            return (puzMetas != null && index < puzMetas.size())
+                ? puzMetas.get(index)
+                : null;
+        }
+
+        private void addPage(int page, List<PuzMetaFile> puzMetas) {
+            loadingPages.remove(page);
+            // a newer listing replaces this one's rows
+            if (puzzleListing.getValue() != this)
+                return;
+
+            int firstRow = page * PAGE_SIZE;
+            List<PuzMetaFile> oldPuzMetas = pages.put(page, puzMetas);
+            if (oldPuzMetas == null) {
+                loadedRows.setValue(
+                    new RowRange(this, firstRow, puzMetas.size())
+                );
+                return;
+            }
+
+            // page read again, post runs of rows that changed
+            int changedFrom = -1;
+            for (int i = 0; i <= puzMetas.size(); i++) {
+                boolean changed = i < puzMetas.size()
+                    && !isSameRow(oldPuzMetas, puzMetas, i);
+                if (changed && changedFrom < 0) {
+                    changedFrom = i;
+                } else if (!changed && changedFrom >= 0) {
+                    loadedRows.setValue(new RowRange(
+                        this, firstRow + changedFrom, i - changedFrom
+                    ));
+                    changedFrom = -1;
+                }
+            }
         }
 
-        if (delIndex >= 0) {
-            puzList
-                .remove(delIndex)
-                .postValue(null);
+        private boolean isSameRow(
+            List<PuzMetaFile> oldPuzMetas, List<PuzMetaFile> puzMetas, int i
+        ) {
+            if (i >= oldPuzMetas.size())
+                return false;
+            PuzMetaFile oldPuzMeta = oldPuzMetas.get(i);
+            PuzMetaFile puzMeta = puzMetas.get(i);
+            if (oldPuzMeta == null || puzMeta == null)
+                return oldPuzMeta == puzMeta;
+            return oldPuzMeta.isSameAs(puzMeta);
         }
     }
 }
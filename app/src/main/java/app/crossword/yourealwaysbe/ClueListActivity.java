@@ -1,5 +1,6 @@
 package app.crossword.yourealwaysbe;
 
+import java.util.Collection;
 import java.util.logging.Logger;
 
 import android.content.Intent;
@@ -169,9 +170,14 @@ public class ClueListActivity extends PuzzleActivity
 
     @Override
     public void onPlayboardChange(
-        boolean wholeBoard, Word currentWord, Word previousWord
+        boolean wholeBoard,
+        Word currentWord,
+        Word previousWord,
+        Collection<Position> changes
     ) {
-        super.onPlayboardChange(wholeBoard, currentWord, previousWord);
+        super.onPlayboardChange(
+            wholeBoard, currentWord, previousWord, changes
+        );
         this.render();
     }
 
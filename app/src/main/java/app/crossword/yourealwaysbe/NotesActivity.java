@@ -1,5 +1,6 @@
 package app.crossword.yourealwaysbe;
 
+import java.util.Collection;
 import java.util.Random;
 import java.util.logging.Logger;
 
@@ -378,9 +379,14 @@ public class NotesActivity extends PuzzleActivity {
 
     @Override
     public void onPlayboardChange(
-        boolean wholeBoard, Word currentWord, Word previousWord
+        boolean wholeBoard,
+        Word currentWord,
+        Word previousWord,
+        Collection<Position> changes
     ) {
-        super.onPlayboardChange(wholeBoard, currentWord, previousWord);
+        super.onPlayboardChange(
+            wholeBoard, currentWord, previousWord, changes
+        );
         render();
     }
 
@@ -7,6 +7,7 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.res.Configuration;
+import android.graphics.drawable.Drawable;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -53,6 +54,7 @@ import app.crossword.yourealwaysbe.view.ScrollingImageView.Point;
 import app.crossword.yourealwaysbe.view.ScrollingImageView.ScaleListener;
 import app.crossword.yourealwaysbe.view.ScrollingImageView;
 
+import java.util.Collection;
 import java.util.logging.Logger;
 
 public class PlayActivity extends PuzzleActivity
@@ -735,9 +737,14 @@ public class PlayActivity extends PuzzleActivity
     }
 
     public void onPlayboardChange(
-        boolean wholeBoard, Word currentWord, Word previousWord
+        boolean wholeBoard,
+        Word currentWord,
+        Word previousWord,
+        Collection<Position> changes
     ) {
-        super.onPlayboardChange(wholeBoard, currentWord, previousWord);
+        super.onPlayboardChange(
+            wholeBoard, currentWord, previousWord, changes
+        );
 
         // hide keyboard when moving to a new word
         Position newPos = getBoard().getHighlightLetter();
@@ -747,7 +754,7 @@ public class PlayActivity extends PuzzleActivity
         }
 
         if (!wholeBoard)
-            render(previousWord, false);
+            render(previousWord, changes, false);
         else
             render(false);
     }
@@ -926,14 +933,30 @@ public class PlayActivity extends PuzzleActivity
     }
 
     private void render(Word previous, boolean rescale) {
+        this.render(previous, null, rescale);
+    }
+
+    /**
+     * Render the board
+     *
+     * @param previous the previously selected word, or null to redraw
+     * all
+     * @param changes positions to redraw, or null to redraw the
+     * previous and current words
+     */
+    private void render(
+        Word previous, Collection<Position> changes, boolean rescale
+    ) {
         if (getBoard() == null)
             return;
 
         boolean displayScratch = this.prefs.getBoolean("displayScratch", false);
-        this.boardView.setBitmap(
-            renderer.draw(previous, displayScratch, displayScratch),
-            rescale
-        );
+        Drawable boardDrawable = (changes == null)
+            ? renderer.draw(previous, displayScratch, displayScratch)
+            : renderer.drawChanges(
+                previous, changes, displayScratch, displayScratch
+            );
+        this.boardView.setDrawable(boardDrawable, rescale);
         this.boardView.setContentDescription(
             renderer.getContentDescription(this.boardViewDescriptionBase)
         );
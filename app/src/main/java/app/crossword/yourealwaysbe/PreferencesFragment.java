@@ -62,6 +62,20 @@ public class PreferencesFragment
             backgroundDownload.setSummary("Requires Android Lollipop or later");
         }
 
+        findPreference("clearDownloadCache")
+                .setOnPreferenceClickListener(new OnPreferenceClickListener() {
+                public boolean onPreferenceClick(Preference arg0) {
+                    ForkyzApplication.getInstance().getHttpCache().clear();
+                    Toast.makeText(
+                        getActivity(),
+                        R.string.download_cache_cleared,
+                        Toast.LENGTH_SHORT
+                    ).show();
+
+                    return true;
+                }
+            });
+
         findPreference("releaseNotes")
                 .setOnPreferenceClickListener(new OnPreferenceClickListener() {
                 public boolean onPreferenceClick(Preference arg0) {
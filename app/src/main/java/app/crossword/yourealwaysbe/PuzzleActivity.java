@@ -9,11 +9,13 @@ import android.os.Looper;
 import app.crossword.yourealwaysbe.forkyz.ForkyzApplication;
 import app.crossword.yourealwaysbe.forkyz.R;
 import app.crossword.yourealwaysbe.puz.Clue;
+import app.crossword.yourealwaysbe.puz.Playboard.Position;
 import app.crossword.yourealwaysbe.puz.Playboard.Word;
 import app.crossword.yourealwaysbe.puz.Playboard;
 import app.crossword.yourealwaysbe.puz.Puzzle;
 import app.crossword.yourealwaysbe.util.files.PuzHandle;
 
+import java.util.Collection;
 import java.util.logging.Logger;
 
 public abstract class PuzzleActivity
@@ -74,7 +76,10 @@ public abstract class PuzzleActivity
     }
 
     public void onPlayboardChange(
-        boolean wholeBoard, Word currentWord, Word previousWord
+        boolean wholeBoard,
+        Word currentWord,
+        Word previousWord,
+        Collection<Position> changes
     ) {
         Puzzle puz = getPuzzle();
         ImaginaryTimer timer = getTimer();
@@ -1,6 +1,7 @@
 package app.crossword.yourealwaysbe;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.text.Normalizer;
 import java.time.LocalDate;
@@ -37,8 +38,11 @@ public class PuzzleImporter {
     /** Import from a URI supported by resolver
      *
      * Currently does not use file extension or MIME type. Instead, use puzlib
-     * that tries each known format in turn until one succeeds. Clunky, but
-     * hopefully robust.
+     * that guesses the format from the file contents and tries each known
+     * format in turn until one succeeds. Clunky, but hopefully robust.
+     *
+     * The URI is opened once and read into memory, or memory mapped if
+     * it is a local file.
      *
      * @return new puz handle if succeeded (will return null if failed
      * or uri is null)
@@ -50,9 +54,14 @@ public class PuzzleImporter {
         FileHandler fileHandler =
             ForkyzApplication.getInstance().getFileHandler();
 
-        Puzzle puz = PuzzleStreamReader.parseInput(() -> {
-            return new BufferedInputStream(resolver.openInputStream(uri));
-        });
+        Puzzle puz = null;
+        if (ContentResolver.SCHEME_FILE.equals(uri.getScheme())) {
+            puz = PuzzleStreamReader.parseInput(new File(uri.getPath()));
+        } else {
+            puz = PuzzleStreamReader.parseInput(() -> {
+                return new BufferedInputStream(resolver.openInputStream(uri));
+            });
+        }
 
         if (puz == null)
             return null;
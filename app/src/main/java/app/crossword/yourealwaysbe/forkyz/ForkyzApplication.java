@@ -11,6 +11,7 @@ import android.widget.Toast;
 import androidx.core.content.ContextCompat;
 import androidx.preference.PreferenceManager;
 
+import app.crossword.yourealwaysbe.net.HttpCache;
 import app.crossword.yourealwaysbe.puz.MovementStrategy;
 import app.crossword.yourealwaysbe.puz.Playboard;
 import app.crossword.yourealwaysbe.puz.Puzzle;
@@ -21,7 +22,9 @@ import app.crossword.yourealwaysbe.util.files.FileHandlerSAF;
 import app.crossword.yourealwaysbe.util.files.PuzHandle;
 import app.crossword.yourealwaysbe.versions.AndroidVersionUtils;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 public class ForkyzApplication extends Application {
@@ -31,12 +34,19 @@ public class ForkyzApplication extends Application {
     public static final String PUZZLE_DOWNLOAD_CHANNEL_ID = "forkyz.downloads";
     public static final String STORAGE_LOC_PREF = "storageLocation";
 
+    private static final String HTTP_CACHE_DIR = "http";
+    private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024;
+    // puzzles not yet published are asked for again after this
+    private static final long HTTP_CACHE_NEGATIVE_TTL
+        = TimeUnit.HOURS.toMillis(2);
+
     private static ForkyzApplication INSTANCE;
     private Playboard board;
     private PuzHandle puzHandle;
     private SharedPreferences settings;
 
     private FileHandler fileHandler;
+    private HttpCache httpCache;
 
     private OnSharedPreferenceChangeListener prefChangeListener
         = new OnSharedPreferenceChangeListener() {
@@ -60,6 +70,10 @@ public class ForkyzApplication extends Application {
         return fileHandler;
     }
 
+    public HttpCache getHttpCache() {
+        return httpCache;
+    }
+
     /**
      * Set the board and base file of the puzzle loaded on it
      */
@@ -123,6 +137,12 @@ public class ForkyzApplication extends Application {
         initialiseSettings();
         setFileHander();
 
+        httpCache = new HttpCache(
+            new File(getCacheDir(), HTTP_CACHE_DIR),
+            HTTP_CACHE_SIZE,
+            HTTP_CACHE_NEGATIVE_TTL
+        );
+
         settings.registerOnSharedPreferenceChangeListener(prefChangeListener);
 
         super.onCreate();
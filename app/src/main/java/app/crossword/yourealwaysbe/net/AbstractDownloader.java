@@ -13,12 +13,16 @@ import java.util.Map.Entry;
 import java.util.Map;
 import java.util.logging.Logger;
 
+import app.crossword.yourealwaysbe.forkyz.ForkyzApplication;
 import app.crossword.yourealwaysbe.io.PuzzleParser;
 import app.crossword.yourealwaysbe.puz.Puzzle;
 
 public abstract class AbstractDownloader implements Downloader {
     protected static final Logger LOG = Logger.getLogger("app.crossword.yourealwaysbe");
     protected static final Map<String, String> EMPTY_MAP = Collections.emptyMap();
+    // per request, so one slow site cannot stall a download thread
+    static final int CONNECT_TIMEOUT = 15000;
+    static final int READ_TIMEOUT = 30000;
     protected String baseUrl;
     private String downloaderName;
     protected PuzzleParser puzzleParser;
@@ -129,16 +133,22 @@ public abstract class AbstractDownloader implements Downloader {
         return LocalDate.ofEpochDay(0L);
     }
 
+    /**
+     * Open the url through the app's HTTP cache
+     */
     protected BufferedInputStream getInputStream(
         URL url, Map<String, String> headers
     ) throws IOException {
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setConnectTimeout(CONNECT_TIMEOUT);
+        conn.setReadTimeout(READ_TIMEOUT);
         conn.setRequestProperty("Connection", "close");
 
         for (Entry<String, String> e : headers.entrySet()){
             conn.setRequestProperty(e.getKey(), e.getValue());
         }
 
-        return new BufferedInputStream(conn.getInputStream());
+        HttpCache cache = ForkyzApplication.getInstance().getHttpCache();
+        return new BufferedInputStream(cache.getInputStream(conn));
     }
 }
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -41,7 +42,12 @@ public class AbstractPageScraper {
     protected String getContent() throws IOException {
         URL u = new URL(url);
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (InputStream is = new BufferedInputStream(u.openStream())) {
+        HttpCache cache = ForkyzApplication.getInstance().getHttpCache();
+        try (
+            InputStream is = new BufferedInputStream(
+                cache.getInputStream(openConnection(u))
+            )
+        ) {
             IO.copyStream(is, baos);
         }
         return new String(baos.toByteArray());
@@ -50,7 +56,11 @@ public class AbstractPageScraper {
     public static Puzzle download(String url) throws IOException {
         URL u = new URL(url);
 
-        try (InputStream is = new BufferedInputStream(u.openStream())) {
+        try (
+            InputStream is = new BufferedInputStream(
+                openConnection(u).getInputStream()
+            )
+        ) {
             return IO.loadNative(is);
         } catch (IOException e) {
             e.printStackTrace();
@@ -59,6 +69,14 @@ public class AbstractPageScraper {
         return null;
     }
 
+    private static URLConnection openConnection(URL url)
+            throws IOException {
+        URLConnection conn = url.openConnection();
+        conn.setConnectTimeout(AbstractDownloader.CONNECT_TIMEOUT);
+        conn.setReadTimeout(AbstractDownloader.READ_TIMEOUT);
+        return conn;
+    }
+
     /**
      * Map URLs to names of file at url, with file extension removed
      */
@@ -1,17 +1,13 @@
 package app.crossword.yourealwaysbe.net;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.Locale;
 import java.util.Map;
 
-import android.util.Base64;
-
 import app.crossword.yourealwaysbe.puz.Puzzle;
 import app.crossword.yourealwaysbe.io.AmuseLabsJSONIO;
 
@@ -67,12 +63,11 @@ public class AmuseLabsDownloader extends AbstractDownloader {
     ) {
         try {
             URL url = new URL(this.baseUrl + urlSuffix);
-            String cwJson = getCrosswordJSON(url, headers);
-
-            if (cwJson == null)
-                return null;
 
-            Puzzle puz = AmuseLabsJSONIO.readPuzzle(cwJson);
+            Puzzle puz;
+            try (InputStream is = getInputStream(url, headers)) {
+                puz = AmuseLabsJSONIO.readPuzzleFromPage(is);
+            }
 
             if (puz != null) {
                 puz.setSource(getName());
@@ -98,37 +93,4 @@ public class AmuseLabsDownloader extends AbstractDownloader {
             setName
         );
     }
-
-    /**
-     * Get JSON string from URL
-     *
-     * With thanks to https://github.com/thisisparker/xword-dl
-     */
-    private String getCrosswordJSON(
-        URL url, Map<String, String> headers
-    ) throws IOException {
-        try(
-            BufferedReader reader = new BufferedReader(
-                new InputStreamReader(getInputStream(url, headers))
-            )
-        ) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.contains("window.rawc")) {
-                    String[] split = line.split("'");
-                    if (split.length < 2) {
-                        // there is something wrong if we don't have
-                        // window.rawc = '<base64>'
-                        return null;
-                    }
-                    String base64json = split[1];
-                    return new String(
-                        Base64.decode(base64json, Base64.DEFAULT),
-                        Charset.forName("UTF-8")
-                    );
-                }
-            }
-        }
-        return null;
-    }
 }
@@ -0,0 +1,117 @@
+package app.crossword.yourealwaysbe.net;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs download tasks concurrently
+ *
+ * At most maxDownloads tasks run at once, and at most maxPerHost for
+ * any one host, so several sources on the same site are not all
+ * fetched at once. Tasks for a busy host wait in a queue without
+ * holding a thread, so they do not hold up other hosts.
+ */
+public class DownloadScheduler {
+    private static final Logger LOG
+        = Logger.getLogger("app.crossword.yourealwaysbe");
+
+    private final ExecutorService executor;
+    private final int maxPerHost;
+
+    // guarded by this
+    private final Map<String, Integer> running = new HashMap<>();
+    private final Map<String, Queue<Runnable>> waiting = new HashMap<>();
+    private int numPending = 0;
+
+    public DownloadScheduler(int maxDownloads, int maxPerHost) {
+        this.executor = Executors.newFixedThreadPool(maxDownloads);
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * The host tasks for the url are limited under
+     *
+     * @return the host, or the url itself if it cannot be parsed
+     */
+    public static String getHost(String url) {
+        if (url == null)
+            return "";
+        try {
+            return new URL(url).getHost();
+        } catch (MalformedURLException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Run the task when a thread and the host are free
+     */
+    public synchronized void submit(String host, Runnable task) {
+        numPending += 1;
+
+        int numRunning = running.getOrDefault(host, 0);
+        if (numRunning < maxPerHost) {
+            running.put(host, numRunning + 1);
+            executor.execute(() -> { runTask(host, task); });
+        } else {
+            Queue<Runnable> queue = waiting.get(host);
+            if (queue == null) {
+                queue = new LinkedList<>();
+                waiting.put(host, queue);
+            }
+            queue.add(task);
+        }
+    }
+
+    /**
+     * Wait for all submitted tasks to finish, then stop the threads
+     */
+    public synchronized void finish() throws InterruptedException {
+        try {
+            while (numPending > 0)
+                wait();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runTask(String host, Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Download task failed for " + host, e);
+        } finally {
+            taskDone(host);
+        }
+    }
+
+    /**
+     * Hand the host's slot to its next waiting task or release it
+     */
+    private synchronized void taskDone(String host) {
+        Queue<Runnable> queue = waiting.get(host);
+        Runnable next = (queue == null) ? null : queue.poll();
+
+        if (next != null) {
+            executor.execute(() -> { runTask(host, next); });
+        } else {
+            waiting.remove(host);
+            int numRunning = running.get(host) - 1;
+            if (numRunning > 0)
+                running.put(host, numRunning);
+            else
+                running.remove(host);
+        }
+
+        numPending -= 1;
+        notifyAll();
+    }
+}
@@ -29,9 +29,15 @@ import java.util.logging.Logger;
 
 public class Downloaders {
     private static final Logger LOG = Logger.getLogger("app.crossword.yourealwaysbe");
+    // sources downloaded at once, in total and from any one site,
+    // defaults of the maxDownloads and maxDownloadsPerHost settings
+    private static final int MAX_DOWNLOADS = 6;
+    private static final int MAX_DOWNLOADS_PER_HOST = 2;
+
     private Context context;
     private NotificationManager notificationManager;
     private boolean supressMessages;
+    private boolean isInteractive;
     private SharedPreferences prefs;
 
     public Downloaders(SharedPreferences prefs,
@@ -50,6 +56,7 @@ public class Downloaders {
         this.prefs = prefs;
         this.notificationManager = notificationManager;
         this.context = context;
+        this.isInteractive = challengeForCredentials;
         this.supressMessages = prefs.getBoolean("supressMessages", false);
     }
 
@@ -132,56 +139,109 @@ public class Downloaders {
         FileHandler fileHandler
             = ForkyzApplication.getInstance().getFileHandler();
 
+        Set<String> fileNames = fileHandler.getPuzzleNames();
+
+        Map<Downloader, LocalDate> toRun = new HashMap<>();
+        for (
+            Map.Entry<Downloader, LocalDate> puzzle
+                : puzzlesToDownload.entrySet()
+        ) {
+            Downloader downloader = puzzle.getKey();
+            LocalDate date = puzzle.getValue();
+
+            String fileName = downloader.createFileName(date);
+
+            if (downloader.alwaysRun() || !fileNames.contains(fileName))
+                toRun.put(downloader, date);
+        }
+
+        if (toRun.isEmpty())
+            return;
+
+        // the user asked, so retry puzzles recently found missing
+        if (isInteractive)
+            ForkyzApplication.getInstance().getHttpCache().clearMissing();
+
+        Intent notificationIntent = new Intent(context, PlayActivity.class);
+        PendingIntent contentIntent = PendingIntent.getActivity(
+            context, 0, notificationIntent, 0
+        );
+
         NotificationCompat.Builder not =
                 new NotificationCompat.Builder(context, ForkyzApplication.PUZZLE_DOWNLOAD_CHANNEL_ID)
                         .setSmallIcon(android.R.drawable.stat_sys_download)
                         .setContentTitle(context.getString(
                             R.string.puzzles_downloading
                         ))
+                        .setContentIntent(contentIntent)
+                        .setOnlyAlertOnce(true)
                         .setWhen(System.currentTimeMillis());
 
-        boolean somethingDownloaded = false;
+        DownloadProgress progress = new DownloadProgress(not, toRun.size());
+        progress.post();
 
-        int nextNotificationId = 1;
-        Set<String> fileNames = fileHandler.getPuzzleNames();
+        DownloadScheduler scheduler = new DownloadScheduler(
+            getIntPref("maxDownloads", MAX_DOWNLOADS),
+            getIntPref("maxDownloadsPerHost", MAX_DOWNLOADS_PER_HOST)
+        );
 
-        for (
-            Map.Entry<Downloader, LocalDate> puzzle
-                : puzzlesToDownload.entrySet()
-        ) {
+        int nextNotificationId = 1;
+        for (Map.Entry<Downloader, LocalDate> puzzle : toRun.entrySet()) {
             Downloader downloader = puzzle.getKey();
             LocalDate date = puzzle.getValue();
+            int notificationId = nextNotificationId++;
 
-            String fileName = downloader.createFileName(date);
+            String host
+                = DownloadScheduler.getHost(downloader.sourceUrl(date));
 
-            if (downloader.alwaysRun() || !fileNames.contains(fileName)) {
-                somethingDownloaded |= downloadPuzzle(
-                    downloader,
-                    puzzle.getValue(),
-                    not,
-                    nextNotificationId++
-                );
-            }
+            scheduler.submit(host, () -> {
+                boolean downloaded
+                    = downloadPuzzle(downloader, date, notificationId);
+                progress.downloadDone(downloaded);
+            });
+        }
+
+        try {
+            scheduler.finish();
+        } catch (InterruptedException e) {
+            LOG.warning("Interrupted waiting for downloads");
+            Thread.currentThread().interrupt();
         }
 
         if (this.notificationManager != null) {
             this.notificationManager.cancel(0);
         }
 
-        if (somethingDownloaded) {
+        if (progress.isSomethingDownloaded()) {
             this.postDownloadedGeneral();
         }
     }
 
+    /**
+     * A positive number from a list setting, or the default if not set
+     * or not valid
+     */
+    private int getIntPref(String key, int defaultValue) {
+        try {
+            int value = Integer.parseInt(
+                prefs.getString(key, String.valueOf(defaultValue))
+            );
+            return (value > 0) ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     /**
      * Download and save the puzzle from the downloader
      *
+     * Called from the download threads.
+     *
      * @return true if succeeded
      */
     private boolean downloadPuzzle(
         Downloader d,
         LocalDate date,
-        NotificationCompat.Builder not,
         int notificationId
     ) {
         FileHandler fileHandler
@@ -190,21 +250,6 @@ public class Downloaders {
         LOG.info("Downloading " + d.toString());
 
         try {
-            String contentText = context.getString(
-                R.string.puzzles_downloading_from, d.getName()
-            );
-            Intent notificationIntent = new Intent(context, PlayActivity.class);
-            PendingIntent contentIntent = PendingIntent.getActivity(
-                context, 0, notificationIntent, 0
-            );
-
-            not.setContentText(contentText)
-                .setContentIntent(contentIntent);
-
-            if (!this.supressMessages && this.notificationManager != null) {
-                this.notificationManager.notify(0, not.build());
-            }
-
             Puzzle puz = d.download(date);
 
             if (puz == null)
@@ -378,4 +423,44 @@ public class Downloaders {
 
         return downloaders;
     }
+
+    /**
+     * Progress of all downloads for the ongoing notification
+     *
+     * Shared by the download threads.
+     */
+    private class DownloadProgress {
+        private final NotificationCompat.Builder not;
+        private final int numDownloads;
+        private int numDone = 0;
+        private boolean somethingDownloaded = false;
+
+        public DownloadProgress(
+            NotificationCompat.Builder not, int numDownloads
+        ) {
+            this.not = not;
+            this.numDownloads = numDownloads;
+        }
+
+        public synchronized void downloadDone(boolean downloaded) {
+            numDone += 1;
+            somethingDownloaded |= downloaded;
+            post();
+        }
+
+        public synchronized boolean isSomethingDownloaded() {
+            return somethingDownloaded;
+        }
+
+        public synchronized void post() {
+            if (supressMessages || notificationManager == null)
+                return;
+
+            not.setContentText(context.getString(
+                R.string.puzzles_downloading_progress, numDone, numDownloads
+            )).setProgress(numDownloads, numDone, false);
+
+            notificationManager.notify(0, not.build());
+        }
+    }
 }
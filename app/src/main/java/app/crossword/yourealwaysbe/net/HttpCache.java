@@ -0,0 +1,407 @@
+package app.crossword.yourealwaysbe.net;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import app.crossword.yourealwaysbe.io.IO;
+
+/**
+ * On disk cache of HTTP responses for the downloaders
+ *
+ * Bodies are stored with their ETag and Last-Modified validators, and
+ * a later request for the same URL is made conditional, so an
+ * unchanged page costs a 304 rather than a full download. Responses
+ * still fresh by their Cache-Control max-age are served without a
+ * request at all.
+ *
+ * A 404 or 410 is remembered for negativeTTL, during which requests
+ * for the URL fail without going to the network. This stops puzzles
+ * that are not yet published being asked for on every background run.
+ * Manual downloads call clearMissing() first so they always try again.
+ *
+ * Each entry is a .meta properties file and a .body file. Once the
+ * files total more than maxSize, the least recently used entries are
+ * removed.
+ */
+public class HttpCache {
+    private static final Logger LOG
+        = Logger.getLogger("app.crossword.yourealwaysbe");
+
+    private static final String META_EXT = ".meta";
+    private static final String BODY_EXT = ".body";
+    private static final String TMP_EXT = ".tmp";
+
+    private static final String KEY_URL = "url";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "lastModified";
+    private static final String KEY_EXPIRES = "expires";
+    private static final String KEY_NEGATIVE = "negative";
+
+    private static final String MAX_AGE = "max-age=";
+    private static final String NO_STORE = "no-store";
+
+    private final File dir;
+    private final long maxSize;
+    private final long negativeTTL;
+
+    /**
+     * Create a cache
+     *
+     * @param dir directory for the cache files, created if needed
+     * @param maxSize bytes of cache files to keep
+     * @param negativeTTL millis to remember a missing page for
+     */
+    public HttpCache(File dir, long maxSize, long negativeTTL) {
+        this.dir = dir;
+        this.maxSize = maxSize;
+        this.negativeTTL = negativeTTL;
+    }
+
+    /**
+     * Get the body of the connection's URL, from the cache if valid
+     *
+     * The connection should be set up but not yet connected. Non-HTTP
+     * connections are passed through.
+     *
+     * @throws FileNotFoundException if the URL is not there, either now
+     * or when last asked within the negative TTL
+     */
+    public InputStream getInputStream(URLConnection urlConn)
+            throws IOException {
+        if (!(urlConn instanceof HttpURLConnection))
+            return urlConn.getInputStream();
+
+        HttpURLConnection conn = (HttpURLConnection) urlConn;
+        URL url = conn.getURL();
+        String key = getKey(url);
+        long now = System.currentTimeMillis();
+
+        Properties meta = readMeta(key, url);
+        boolean haveBody = (meta != null) && !isNegative(meta)
+            && getBodyFile(key).exists();
+
+        if (meta != null && now < getExpires(meta)) {
+            if (isNegative(meta)) {
+                conn.disconnect();
+                throw new FileNotFoundException(
+                    "Cached not found: " + url
+                );
+            } else if (haveBody) {
+                conn.disconnect();
+                return openBody(key);
+            }
+        }
+
+        if (haveBody) {
+            String etag = meta.getProperty(KEY_ETAG);
+            if (etag != null)
+                conn.setRequestProperty("If-None-Match", etag);
+            String lastModified = meta.getProperty(KEY_LAST_MODIFIED);
+            if (lastModified != null)
+                conn.setRequestProperty("If-Modified-Since", lastModified);
+        }
+
+        int code = conn.getResponseCode();
+
+        if (code == HttpURLConnection.HTTP_NOT_MODIFIED && haveBody) {
+            conn.disconnect();
+            meta.setProperty(
+                KEY_EXPIRES, Long.toString(now + getMaxAge(conn))
+            );
+            writeMeta(key, meta);
+            return openBody(key);
+        }
+
+        if (
+            code == HttpURLConnection.HTTP_NOT_FOUND
+            || code == HttpURLConnection.HTTP_GONE
+        ) {
+            conn.disconnect();
+            Properties negative = new Properties();
+            negative.setProperty(KEY_URL, url.toString());
+            negative.setProperty(KEY_NEGATIVE, "true");
+            negative.setProperty(
+                KEY_EXPIRES, Long.toString(now + negativeTTL)
+            );
+            removeBody(key);
+            writeMeta(key, negative);
+            throw new FileNotFoundException(url.toString());
+        }
+
+        String etag = conn.getHeaderField("ETag");
+        String lastModified = conn.getHeaderField("Last-Modified");
+        long maxAge = getMaxAge(conn);
+        boolean storable = (code == HttpURLConnection.HTTP_OK)
+            && !isNoStore(conn)
+            && (etag != null || lastModified != null || maxAge > 0);
+
+        if (!storable) {
+            remove(key);
+            return conn.getInputStream();
+        }
+
+        Properties newMeta = new Properties();
+        newMeta.setProperty(KEY_URL, url.toString());
+        if (etag != null)
+            newMeta.setProperty(KEY_ETAG, etag);
+        if (lastModified != null)
+            newMeta.setProperty(KEY_LAST_MODIFIED, lastModified);
+        newMeta.setProperty(KEY_EXPIRES, Long.toString(now + maxAge));
+
+        storeBody(key, newMeta, conn);
+        return openBody(key);
+    }
+
+    /**
+     * Remove all cached responses
+     */
+    public synchronized void clear() {
+        File[] files = dir.listFiles();
+        if (files == null)
+            return;
+        for (File file : files)
+            file.delete();
+    }
+
+    /**
+     * Forget the URLs remembered as not found
+     *
+     * Called when the user asks for a download, so a puzzle published
+     * within the negative TTL is still fetched.
+     */
+    public synchronized void clearMissing() {
+        File[] files = dir.listFiles();
+        if (files == null)
+            return;
+
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.endsWith(META_EXT))
+                continue;
+
+            // unreadable entries are no use either
+            Properties meta = loadMeta(file);
+            if (meta == null || isNegative(meta)) {
+                String key
+                    = name.substring(0, name.length() - META_EXT.length());
+                remove(key);
+            }
+        }
+    }
+
+    /**
+     * Read the entry's meta data, null if none for this url
+     */
+    private synchronized Properties readMeta(String key, URL url) {
+        File metaFile = getMetaFile(key);
+        if (!metaFile.exists())
+            return null;
+
+        Properties meta = loadMeta(metaFile);
+        if (meta == null) {
+            LOG.warning("Could not read cache entry for " + url);
+            return null;
+        }
+
+        // hash collision
+        if (!url.toString().equals(meta.getProperty(KEY_URL)))
+            return null;
+
+        // keep recently used entries from eviction
+        long now = System.currentTimeMillis();
+        metaFile.setLastModified(now);
+        getBodyFile(key).setLastModified(now);
+
+        return meta;
+    }
+
+    private static Properties loadMeta(File metaFile) {
+        Properties meta = new Properties();
+        try (InputStream is = new FileInputStream(metaFile)) {
+            meta.load(is);
+            return meta;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private synchronized void writeMeta(String key, Properties meta)
+            throws IOException {
+        dir.mkdirs();
+        try (OutputStream os = new FileOutputStream(getMetaFile(key))) {
+            meta.store(os, null);
+        }
+    }
+
+    /**
+     * Download the body to a temporary file and move it into place
+     *
+     * The download is done outside the lock so other requests are not
+     * held up.
+     */
+    private void storeBody(
+        String key, Properties meta, HttpURLConnection conn
+    ) throws IOException {
+        dir.mkdirs();
+        File tmp = File.createTempFile(key, TMP_EXT, dir);
+        try {
+            try (
+                InputStream is = conn.getInputStream();
+                OutputStream os = new FileOutputStream(tmp)
+            ) {
+                IO.copyStream(is, os);
+            }
+
+            synchronized (this) {
+                File body = getBodyFile(key);
+                body.delete();
+                if (!tmp.renameTo(body))
+                    throw new IOException("Could not store cache entry");
+                writeMeta(key, meta);
+                trim(key);
+            }
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    private synchronized InputStream openBody(String key)
+            throws IOException {
+        return new FileInputStream(getBodyFile(key));
+    }
+
+    private synchronized void remove(String key) {
+        getMetaFile(key).delete();
+        removeBody(key);
+    }
+
+    private synchronized void removeBody(String key) {
+        getBodyFile(key).delete();
+    }
+
+    /**
+     * Remove least recently used entries until under maxSize
+     *
+     * @param keepKey the entry just stored, kept so it can be returned
+     */
+    private synchronized void trim(String keepKey) {
+        File[] files = dir.listFiles();
+        if (files == null)
+            return;
+
+        long size = 0;
+        List<File> metaFiles = new ArrayList<>();
+        for (File file : files) {
+            size += file.length();
+            if (file.getName().endsWith(META_EXT))
+                metaFiles.add(file);
+        }
+
+        if (size <= maxSize)
+            return;
+
+        Collections.sort(metaFiles, (f1, f2) -> {
+            return Long.compare(f1.lastModified(), f2.lastModified());
+        });
+
+        for (File metaFile : metaFiles) {
+            if (size <= maxSize)
+                break;
+
+            String name = metaFile.getName();
+            String key = name.substring(0, name.length() - META_EXT.length());
+            if (key.equals(keepKey))
+                continue;
+
+            File body = getBodyFile(key);
+
+            size -= metaFile.length() + body.length();
+            metaFile.delete();
+            body.delete();
+        }
+    }
+
+    private File getMetaFile(String key) {
+        return new File(dir, key + META_EXT);
+    }
+
+    private File getBodyFile(String key) {
+        return new File(dir, key + BODY_EXT);
+    }
+
+    private static boolean isNegative(Properties meta) {
+        return Boolean.parseBoolean(meta.getProperty(KEY_NEGATIVE));
+    }
+
+    private static long getExpires(Properties meta) {
+        try {
+            return Long.parseLong(meta.getProperty(KEY_EXPIRES, "0"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Freshness lifetime in millis from Cache-Control, 0 if none
+     */
+    private static long getMaxAge(HttpURLConnection conn) {
+        String cacheControl = conn.getHeaderField("Cache-Control");
+        if (cacheControl == null)
+            return 0;
+
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim().toLowerCase(Locale.US);
+            if (directive.startsWith(MAX_AGE)) {
+                try {
+                    long seconds = Long.parseLong(
+                        directive.substring(MAX_AGE.length())
+                    );
+                    return Math.max(0, seconds * 1000);
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    private static boolean isNoStore(HttpURLConnection conn) {
+        String cacheControl = conn.getHeaderField("Cache-Control");
+        return cacheControl != null
+            && cacheControl.toLowerCase(Locale.US).contains(NO_STORE);
+    }
+
+    private static String getKey(URL url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(
+                url.toString().getBytes(Charset.forName("UTF-8"))
+            );
+            StringBuilder key = new StringBuilder();
+            for (byte b : hash)
+                key.append(String.format(Locale.US, "%02x", b));
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has SHA-1
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -122,7 +122,8 @@ public class BackgroundDownloadService extends JobService {
     }
 
     private static class DownloadTask {
-        private final Executor executor = Executors.newSingleThreadExecutor(); // change according to your requirements
+        // sources are downloaded concurrently by Downloaders
+        private final Executor executor = Executors.newSingleThreadExecutor();
         private final Handler handler = new Handler(Looper.getMainLooper());
 
         private final JobService jobService;
@@ -132,9 +133,11 @@ public class BackgroundDownloadService extends JobService {
         }
 
         public void executeAsync(JobParameters params) {
-            executor.execute(() -> { doInBackground(); });
-            handler.post(() -> {
-                jobService.jobFinished(params, false);
+            executor.execute(() -> {
+                doInBackground();
+                handler.post(() -> {
+                    jobService.jobFinished(params, false);
+                });
             });
         }
 
@@ -53,4 +53,6 @@ public class FileHandle {
     }
 
     FileHandlerSAF.Meta getSAFMeta() { return safMeta; }
+
+    void setSAFMeta(FileHandlerSAF.Meta safMeta) { this.safMeta = safMeta; }
 }
@@ -19,8 +19,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.logging.Logger;
 
 import android.content.Context;
@@ -29,6 +37,7 @@ import android.net.Uri;
 import app.crossword.yourealwaysbe.io.IO;
 import app.crossword.yourealwaysbe.io.IPuzIO;
 import app.crossword.yourealwaysbe.puz.Puzzle;
+import app.crossword.yourealwaysbe.puz.PuzzleMeta;
 
 /**
  * Abstraction layer for file operations
@@ -55,26 +64,65 @@ public abstract class FileHandler {
     public static final String FILE_EXT_FORKYZ = ".forkyz";
     public static final String FILE_EXT_IPUZ = ".ipuz";
 
+    // threads reading meta data of files not in the meta cache
+    private static final int META_LOAD_THREADS = Math.max(
+        1, Math.min(4, Runtime.getRuntime().availableProcessors())
+    );
+    // number of newly read metas to collect before passing on
+    private static final int META_LOAD_BATCH_SIZE = 100;
+    // idle meta load threads stop after this many seconds
+    private static final long META_LOAD_KEEP_ALIVE_SECS = 30;
+
     // used for saving meta cache to DB since we currently save puzzles
     // on the main thread (can be removed if/when a better save solution
     // is implemented)
     private ExecutorService executorService
         = Executors.newSingleThreadExecutor();
 
+    // threads are started on demand and time out when idle, so the
+    // pool costs nothing between refreshes
+    private ExecutorService metaLoadExecutorService
+        = newMetaLoadExecutorService();
+
     private Context applicationContext;
     private MetaCache metaCache;
+    private FileLocks fileLocks = new FileLocks();
+    private final Object createFileLock = new Object();
 
     protected FileHandler(Context applicationContext) {
         this.applicationContext = applicationContext;
         this.metaCache = new MetaCache(applicationContext, this);
     }
 
+    /**
+     * Receives puzzle meta data as it is read
+     */
+    public interface PuzMetasListener {
+        /**
+         * Called on the thread that requested the metas
+         *
+         * @param puzMetas the next batch of metas, not modified later
+         */
+        void onPuzMetas(List<PuzMetaFile> puzMetas);
+    }
+
     public abstract DirHandle getCrosswordsDirectory();
     public abstract DirHandle getArchiveDirectory();
     public abstract boolean isStorageMounted();
     public abstract boolean isStorageFull();
 
     protected abstract FileHandle getFileHandle(Uri uri);
+
+    /**
+     * Handle of a file whose name is known, without checking it exists
+     *
+     * For making handles from the meta cache. Override if
+     * getFileHandle(Uri) is costly.
+     */
+    protected FileHandle getFileHandle(Uri uri, String name) {
+        return getFileHandle(uri);
+    }
+
     protected abstract boolean exists(DirHandle dir);
     protected abstract boolean exists(FileHandle file);
     protected abstract Iterable<FileHandle> listFiles(final DirHandle dir);
@@ -82,6 +130,7 @@ public abstract class FileHandler {
     protected abstract Uri getUri(FileHandle f);
     protected abstract String getName(FileHandle f);
     protected abstract long getLastModified(FileHandle file);
+    protected abstract long getSize(FileHandle file);
 
     /**
      * Get output stream to file, erasing previous contents
@@ -100,6 +149,28 @@ public abstract class FileHandler {
         return getName(puzHandle.getMainFileHandle());
     }
 
+    /**
+     * Latest modification time of any of the puzzle's files
+     */
+    protected long getLastModified(PuzHandle ph) {
+        long lastModified = getLastModified(ph.getMainFileHandle());
+        FileHandle metaHandle = ph.getMetaFileHandle();
+        if (metaHandle != null)
+            lastModified = Math.max(lastModified, getLastModified(metaHandle));
+        return lastModified;
+    }
+
+    /**
+     * Total size of the puzzle's files
+     */
+    protected long getSize(PuzHandle ph) {
+        long size = getSize(ph.getMainFileHandle());
+        FileHandle metaHandle = ph.getMetaFileHandle();
+        if (metaHandle != null)
+            size += getSize(metaHandle);
+        return size;
+    }
+
     public boolean exists(PuzMetaFile pm) {
         return exists(pm.getPuzHandle());
     }
@@ -130,79 +201,220 @@ public abstract class FileHandler {
         return exists;
     }
 
-    public synchronized void delete(PuzMetaFile pm) {
+    public void delete(PuzMetaFile pm) {
         delete(pm.getPuzHandle());
     }
 
-    public synchronized void delete(PuzHandle ph) {
-        delete(ph.getMainFileHandle());
-
-        ph.accept(new PuzHandle.Visitor<Void>() {
-            @Override
-            public Void visit(PuzHandle.Puz puzHandle) {
-                FileHandle metaHandle = puzHandle.getMetaFileHandle();
-                if (metaHandle != null)
-                    delete(metaHandle);
-                return null;
-            }
-            @Override
-            public Void visit(PuzHandle.IPuz ipuzHandle) {
-                return null;
-            }
-        });
+    /**
+     * Delete the puzzle files
+     *
+     * Takes the write lock of the puzzle's file.
+     */
+    public void delete(PuzHandle ph) {
+        Lock lock = getLock(ph).writeLock();
+        lock.lock();
+        try {
+            delete(ph.getMainFileHandle());
+
+            ph.accept(new PuzHandle.Visitor<Void>() {
+                @Override
+                public Void visit(PuzHandle.Puz puzHandle) {
+                    FileHandle metaHandle = puzHandle.getMetaFileHandle();
+                    if (metaHandle != null)
+                        delete(metaHandle);
+                    return null;
+                }
+                @Override
+                public Void visit(PuzHandle.IPuz ipuzHandle) {
+                    return null;
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
 
         metaCache.deleteRecord(ph);
     }
 
-    public synchronized void moveTo(
+    public void moveTo(
         PuzMetaFile pm, DirHandle destDirHandle
     ) {
         moveTo(pm.getPuzHandle(), destDirHandle);
     }
 
-    public synchronized void moveTo(
+    /**
+     * Move the puzzle files to the destination
+     *
+     * The handle is updated to the moved files and their cache record
+     * moved with them.
+     *
+     * Takes the write lock of the puzzle's file.
+     */
+    public void moveTo(
         PuzHandle ph, DirHandle destDirHandle
     ) {
         DirHandle srcDirHandle = ph.getDirHandle();
+        Uri oldMainUri = getUri(ph);
+        FileHandle movedMain;
 
-        moveTo(ph.getMainFileHandle(), srcDirHandle, destDirHandle);
-
-        ph.setDirectory(destDirHandle);
+        Lock lock = getLock(ph).writeLock();
+        lock.lock();
+        try {
+            movedMain = moveTo(
+                ph.getMainFileHandle(), srcDirHandle, destDirHandle
+            );
 
-        ph.accept(new PuzHandle.Visitor<Void>() {
-            @Override
-            public Void visit(PuzHandle.Puz puzHandle) {
-                FileHandle metaHandle = puzHandle.getMetaFileHandle();
-                if (metaHandle != null)
-                    moveTo(metaHandle, srcDirHandle, destDirHandle);
-                return null;
-            }
-            @Override
-            public Void visit(PuzHandle.IPuz ipuzHandle) {
-                return null;
-            }
-        });
+            ph.setDirectory(destDirHandle);
+            if (movedMain != null)
+                ph.setMainFileHandle(movedMain);
+
+            ph.accept(new PuzHandle.Visitor<Void>() {
+                @Override
+                public Void visit(PuzHandle.Puz puzHandle) {
+                    FileHandle metaHandle = puzHandle.getMetaFileHandle();
+                    if (metaHandle != null) {
+                        FileHandle movedMeta = moveTo(
+                            metaHandle, srcDirHandle, destDirHandle
+                        );
+                        if (movedMeta != null)
+                            puzHandle.setMetaFileHandle(movedMeta);
+                    }
+                    return null;
+                }
+                @Override
+                public Void visit(PuzHandle.IPuz ipuzHandle) {
+                    return null;
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
 
-        // TODO: can we move record instead? What is new Uri?
-        metaCache.deleteRecord(ph);
+        if (movedMain != null)
+            metaCache.moveRecord(oldMainUri, ph);
+        else
+            metaCache.deleteRecord(ph);
     }
 
     /**
      * Get puz files in directory, will create meta files when missing
      */
     public List<PuzMetaFile> getPuzMetas(DirHandle dirHandle) {
+        return getPuzMetas(dirHandle, null);
+    }
+
+    /**
+     * Get puz files in directory, passing on metas as they are read
+     *
+     * Cached metas are passed to the listener first. A cached meta is
+     * only used if the files have the same last modified time and size
+     * as when it was cached. Cached records of files no longer in the
+     * directory are removed before then. Files not in the cache or
+     * changed since are read in parallel and passed on in batches as
+     * they are ready. Each batch is added to the cache before it is
+     * passed on, so the cache is up to date with what the listener
+     * has seen.
+     *
+     * @param listener receives the metas in batches, may be null
+     * @return all metas in the directory
+     */
+    public List<PuzMetaFile> getPuzMetas(
+        DirHandle dirHandle, PuzMetasListener listener
+    ) {
         ArrayList<PuzMetaFile> metas = new ArrayList<>();
+        List<PuzHandle> uncached = new ArrayList<>();
 
         Iterable<FileHandle> rawFileList = listFiles(dirHandle);
 
         Map<Uri, MetaCache.MetaRecord> cachedMetas
             = metaCache.getDirCache(dirHandle);
 
-        loadMetasFromPuzFiles(dirHandle, rawFileList, cachedMetas, metas);
-        loadMetasFromIPuzFiles(dirHandle, rawFileList, cachedMetas, metas);
+        List<PuzHandle> puzHandles = new ArrayList<>();
+        getPuzHandles(dirHandle, rawFileList, puzHandles);
+        getIPuzHandles(dirHandle, rawFileList, puzHandles);
+
+        // what is left in cachedMetas afterwards is stale
+        for (PuzHandle ph : puzHandles) {
+            MetaCache.MetaRecord metaRecord
+                = cachedMetas.remove(getUri(ph));
+            if (metaRecord != null && metaRecord.isSnapshotOf(
+                getLastModified(ph), getSize(ph)
+            ))
+                metas.add(new PuzMetaFile(ph, metaRecord));
+            else
+                uncached.add(ph);
+        }
+
+        metaCache.deleteRecords(cachedMetas.keySet());
+
+        if (listener != null && !metas.isEmpty())
+            listener.onPuzMetas(new ArrayList<>(metas));
+
+        loadUncachedMetas(uncached, metas, listener);
+
+        return metas;
+    }
+
+    /**
+     * The sections of the puzzles in the directory in the given order
+     *
+     * Read from the meta cache only, use getPuzMetas to bring the cache
+     * up to date with the directory first. Puzzles whose meta data
+     * could not be read are not cached, so are not counted.
+     */
+    public List<MetaCache.Section> getPuzMetaSections(
+        DirHandle dirHandle, MetaCache.SortOrder order
+    ) {
+        return metaCache.getSections(dirHandle, order);
+    }
 
-        metaCache.cleanupCache(dirHandle, metas);
+    /**
+     * Puzzles in the directory whose text matches the search
+     *
+     * Uses the meta cache's full text index of titles, authors,
+     * sources, notes and clues, so no puzzle files are read. Notes and
+     * clues are indexed once a puzzle has been read in full, which is
+     * when it is downloaded, imported, opened or saved.
+     *
+     * @param search words as typed by the user
+     * @param limit the most puzzles to return
+     * @return matching puzzles, newest first
+     */
+    public List<PuzMetaFile> searchPuzMetas(
+        DirHandle dirHandle, String search, int limit
+    ) {
+        List<PuzMetaFile> metas = new ArrayList<>();
+        for (MetaCache.MetaRecord record
+                : metaCache.search(dirHandle, search, limit)) {
+            PuzHandle ph = getPuzHandle(dirHandle, record);
+            if (ph != null)
+                metas.add(new PuzMetaFile(ph, record));
+        }
+        return metas;
+    }
 
+    /**
+     * A page of the puzzles in the directory in the given order
+     *
+     * Read from the meta cache only, like getPuzMetaSections, and in
+     * the same order as its sections. Handles are made from the cached
+     * file locations and names, without going to the file system.
+     *
+     * @return the metas, with null for any cached before file names
+     * were kept whose files have gone since
+     */
+    public List<PuzMetaFile> getPuzMetas(
+        DirHandle dirHandle,
+        MetaCache.SortOrder order,
+        int offset,
+        int limit
+    ) {
+        List<PuzMetaFile> metas = new ArrayList<>();
+        for (MetaCache.MetaRecord record
+                : metaCache.getRecords(dirHandle, order, offset, limit)) {
+            PuzHandle ph = getPuzHandle(dirHandle, record);
+            metas.add(ph == null ? null : new PuzMetaFile(ph, record));
+        }
         return metas;
     }
 
@@ -227,27 +439,28 @@ public abstract class FileHandler {
     }
 
     /**
-     * Synchronized to avoid reading/writing from the same file at the same
-     * time.
+     * Read the meta data of the puzzle and add it to the cache
+     *
+     * Only the meta data is read, the full puzzle is not built.
      *
      * @return null if could not be loaded
      */
     public PuzMetaFile loadPuzMetaFile(PuzHandle puzHandle) throws IOException {
-        Puzzle puz = load(puzHandle);
+        PuzzleMeta meta = loadMeta(puzHandle);
 
-        if (puz == null)
+        if (meta == null)
             return null;
 
-        MetaCache.MetaRecord metaRecord = metaCache.addRecord(puzHandle, puz);
+        MetaCache.MetaRecord metaRecord = metaCache.addRecord(puzHandle, meta);
 
         return new PuzMetaFile(puzHandle, metaRecord);
     }
 
     /**
-     * Synchronized to avoid reading/writing from the same file at the same
-     * time.
+     * Takes the read lock of the puzzle's file to avoid reading while
+     * it is being written.
      */
-    public synchronized Puzzle load(PuzMetaFile pm) throws IOException {
+    public Puzzle load(PuzMetaFile pm) throws IOException {
         return load(pm.getPuzHandle());
     }
 
@@ -256,20 +469,30 @@ public abstract class FileHandler {
      *
      * If the meta file of puz handle is null, loads without meta
      *
-     * Synchronized to avoid reading/writing from the same file at the same
-     * time.
+     * Takes the read lock of the puzzle's file to avoid reading while
+     * it is being written.
      */
-    public synchronized Puzzle load(PuzHandle ph) throws IOException {
-        Puzzle puz = ph.accept(new PuzHandle.VisitorIO<Puzzle>() {
-            @Override
-            public Puzzle visit(PuzHandle.Puz puzHandle) throws IOException {
-                return load(puzHandle);
-            }
-            @Override
-            public Puzzle visit(PuzHandle.IPuz ipuzHandle) throws IOException {
-                return load(ipuzHandle);
-            }
-        });
+    public Puzzle load(PuzHandle ph) throws IOException {
+        Puzzle puz;
+
+        Lock lock = getLock(ph).readLock();
+        lock.lock();
+        try {
+            puz = ph.accept(new PuzHandle.VisitorIO<Puzzle>() {
+                @Override
+                public Puzzle visit(PuzHandle.Puz puzHandle)
+                        throws IOException {
+                    return load(puzHandle);
+                }
+                @Override
+                public Puzzle visit(PuzHandle.IPuz ipuzHandle)
+                        throws IOException {
+                    return load(ipuzHandle);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
 
         if (puz != null)
             metaCache.addRecord(ph, puz);
@@ -277,7 +500,7 @@ public abstract class FileHandler {
         return puz;
     }
 
-    public synchronized void save(Puzzle puz, PuzMetaFile puzMeta)
+    public void save(Puzzle puz, PuzMetaFile puzMeta)
             throws IOException {
         save(puz, puzMeta.getPuzHandle());
     }
@@ -287,22 +510,32 @@ public abstract class FileHandler {
      * If puzHandle's meta handle is null, a new meta file will be created and
      * puzHandle is updated with the new meta file handle
      *
-     * Synchronized to avoid reading/writing from the same file at the same
-     * time.
+     * Takes the write lock of the puzzle's file so no one reads or
+     * writes it at the same time. Other files are not blocked.
      */
-    public synchronized void save(Puzzle puz, PuzHandle ph)
+    public void save(Puzzle puz, PuzHandle ph)
             throws IOException {
 
-        boolean success = ph.accept(new PuzHandle.VisitorIO<Boolean>() {
-            @Override
-            public Boolean visit(PuzHandle.Puz puzHandle) throws IOException {
-                return save(puz, puzHandle);
-            }
-            @Override
-            public Boolean visit(PuzHandle.IPuz ipuzHandle) throws IOException {
-                return save(puz, ipuzHandle);
-            }
-        });
+        boolean success;
+
+        Lock lock = getLock(ph).writeLock();
+        lock.lock();
+        try {
+            success = ph.accept(new PuzHandle.VisitorIO<Boolean>() {
+                @Override
+                public Boolean visit(PuzHandle.Puz puzHandle)
+                        throws IOException {
+                    return save(puz, puzHandle);
+                }
+                @Override
+                public Boolean visit(PuzHandle.IPuz ipuzHandle)
+                        throws IOException {
+                    return save(puz, ipuzHandle);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
 
         // Cannot be done on main thread (and you save puzzles on
         // the main thread).
@@ -325,25 +558,35 @@ public abstract class FileHandler {
      * extension
      * @return new puzzle handle if saved success
      */
-    public synchronized PuzHandle saveNewPuzzle(
+    public PuzHandle saveNewPuzzle(
         Puzzle puz, String fileNameBody
     ) throws IOException {
         DirHandle dirHandle = getCrosswordsDirectory();
 
-        FileHandle mainFile = createFileHandle(
-            dirHandle, fileNameBody + FILE_EXT_IPUZ, MIME_TYPE_IPUZ
-        );
+        FileHandle mainFile;
+
+        // two saves of the same name should not both create the file
+        synchronized (createFileLock) {
+            mainFile = createFileHandle(
+                dirHandle, fileNameBody + FILE_EXT_IPUZ, MIME_TYPE_IPUZ
+            );
+        }
 
         if (mainFile == null)
             return null;
 
+        PuzHandle ph = new PuzHandle.IPuz(dirHandle, mainFile);
+
+        Lock lock = getLock(ph).writeLock();
+        lock.lock();
         try {
-            PuzHandle ph = new PuzHandle.IPuz(dirHandle, mainFile);
             save(puz, ph);
             return ph;
         } catch (Exception e) {
             delete(mainFile);
             throw e;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -370,16 +613,18 @@ public abstract class FileHandler {
     /**
      * Provide a moveTo implementation
      *
-     * Assume in a synced class
+     * Called with the lock of the file's puzzle held
+     *
+     * @return the handle of the moved file, or null if not moved
      */
-    protected abstract void moveToUnsync(
+    protected abstract FileHandle moveToUnsync(
         FileHandle fileHandle, DirHandle srcDirHandle, DirHandle destDirHandle
     );
 
     /**
      * Provide a delete implementation
      *
-     * Assume in a synced class
+     * Called with the lock of the file's puzzle held
      */
     protected abstract void deleteUnsync(FileHandle fileHandle);
 
@@ -393,14 +638,22 @@ public abstract class FileHandler {
         return new BufferedInputStream(getInputStream(fileHandle));
     }
 
-    protected synchronized void delete(FileHandle fileHandle) {
+    /**
+     * Delete a file, caller should hold the write lock of its puzzle
+     */
+    protected void delete(FileHandle fileHandle) {
         deleteUnsync(fileHandle);
     }
 
-    protected synchronized void moveTo(
+    /**
+     * Move a file, caller should hold the write lock of its puzzle
+     *
+     * @return the handle of the moved file, or null if not moved
+     */
+    protected FileHandle moveTo(
         FileHandle fileHandle, DirHandle srcDirHandle, DirHandle destDirHandle
     ) {
-        moveToUnsync(fileHandle, srcDirHandle, destDirHandle);
+        return moveToUnsync(fileHandle, srcDirHandle, destDirHandle);
     }
 
     protected String getMetaFileName(FileHandle puzFile) {
@@ -430,7 +683,16 @@ public abstract class FileHandler {
         }
     }
 
-    private synchronized Puzzle load(PuzHandle.Puz ph) throws IOException {
+    /**
+     * Lock for reading/writing the puzzle's files
+     *
+     * Keyed on the main file, which covers any meta file too
+     */
+    private ReadWriteLock getLock(PuzHandle ph) {
+        return fileLocks.get(ph.getMainFileHandle());
+    }
+
+    private Puzzle load(PuzHandle.Puz ph) throws IOException {
         FileHandle metaFile = ph.getMetaFileHandle();
         if (metaFile == null) {
             try (
@@ -457,7 +719,56 @@ public abstract class FileHandler {
         }
     }
 
-    private synchronized Puzzle load(PuzHandle.IPuz ph) throws IOException {
+    /**
+     * Read meta data under the read lock of the puzzle's file
+     */
+    private PuzzleMeta loadMeta(PuzHandle ph) throws IOException {
+        Lock lock = getLock(ph).readLock();
+        lock.lock();
+        try {
+            return ph.accept(new PuzHandle.VisitorIO<PuzzleMeta>() {
+                @Override
+                public PuzzleMeta visit(PuzHandle.Puz puzHandle)
+                        throws IOException {
+                    return loadMeta(puzHandle);
+                }
+                @Override
+                public PuzzleMeta visit(PuzHandle.IPuz ipuzHandle)
+                        throws IOException {
+                    return loadMeta(ipuzHandle);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PuzzleMeta loadMeta(PuzHandle.Puz ph)
+            throws IOException {
+        FileHandle metaFile = ph.getMetaFileHandle();
+        try (
+            DataInputStream pis
+                = new DataInputStream(
+                    getBufferedInputStream(
+                        ph.getMainFileHandle()));
+            DataInputStream mis = (metaFile == null)
+                ? null
+                : new DataInputStream(getBufferedInputStream(metaFile))
+        ) {
+            return IO.loadMeta(pis, mis);
+        }
+    }
+
+    private PuzzleMeta loadMeta(PuzHandle.IPuz ph)
+            throws IOException {
+        try (
+            InputStream is = getBufferedInputStream(ph.getMainFileHandle())
+        ) {
+            return IPuzIO.readMeta(is);
+        }
+    }
+
+    private Puzzle load(PuzHandle.IPuz ph) throws IOException {
         try (
             InputStream is = getBufferedInputStream(ph.getMainFileHandle())
         ) {
@@ -465,7 +776,7 @@ public abstract class FileHandler {
         }
     }
 
-    private synchronized boolean save(Puzzle puz, PuzHandle.Puz ph)
+    private boolean save(Puzzle puz, PuzHandle.Puz ph)
             throws IOException {
         FileHandle puzFile = ph.getMainFileHandle();
         FileHandle metaFile = ph.getMetaFileHandle();
@@ -530,7 +841,7 @@ public abstract class FileHandler {
         return true;
     }
 
-    private synchronized boolean save(Puzzle puz, PuzHandle.IPuz ph)
+    private boolean save(Puzzle puz, PuzHandle.IPuz ph)
             throws IOException {
         FileHandle ipuzFile = ph.getMainFileHandle();
         DirHandle puzDir = ph.getDirHandle();
@@ -550,18 +861,16 @@ public abstract class FileHandler {
     }
 
     /**
-     * Load .puz/.forkyz file data into the loadedPuzMetas array
+     * Collect handles of .puz files and their .forkyz meta files
      *
      * @param dirHandle the directory the files are in
      * @param files the list of files in the directory
-     * @param cachedMetas cached meta data for the file URIs
-     * @param loadedPuzMetas the list into which to store the metas
+     * @param puzHandles the list into which to store the handles
      */
-    private void loadMetasFromPuzFiles(
+    private void getPuzHandles(
         DirHandle dirHandle,
         Iterable<FileHandle> files,
-        Map<Uri, MetaCache.MetaRecord> cachedMetas,
-        List<PuzMetaFile> loadedPuzMetas
+        List<PuzHandle> puzHandles
     ) {
         // Load files into data structures to avoid repeated interaction
         // with filesystem (which is good for content resolver)
@@ -587,59 +896,149 @@ public abstract class FileHandler {
                 metaFile = metaFiles.get(metaName);
             }
 
-            PuzHandle ph = new PuzHandle.Puz(dirHandle, puzFile, metaFile);
-
-            PuzMetaFile pm = getPuzMetaFile(ph, cachedMetas);
-            if (pm != null)
-                loadedPuzMetas.add(pm);
+            puzHandles.add(new PuzHandle.Puz(dirHandle, puzFile, metaFile));
         }
     }
 
     /**
-     * Load .puz/.forkyz file data into the loadedPuzMetas array
+     * Collect handles of .ipuz files
      *
      * @param dirHandle the directory the files are in
      * @param files the list of files in the directory
-     * @param cachedMetas cached meta data for the file URIs
-     * @param loadedPuzMetas the list into which to store the metas
+     * @param puzHandles the list into which to store the handles
      */
-    private void loadMetasFromIPuzFiles(
+    private void getIPuzHandles(
         DirHandle dirHandle,
         Iterable<FileHandle> files,
-        Map<Uri, MetaCache.MetaRecord> cachedMetas,
-        List<PuzMetaFile> loadedPuzMetas
+        List<PuzHandle> puzHandles
     ) {
         for (FileHandle f : files) {
             String fileName = getName(f);
-            if (fileName.endsWith(FILE_EXT_IPUZ)) {
-                PuzHandle ph = new PuzHandle.IPuz(dirHandle, f);
-                PuzMetaFile pm = getPuzMetaFile(ph, cachedMetas);
-                if (pm != null)
-                    loadedPuzMetas.add(pm);
-            }
+            if (fileName.endsWith(FILE_EXT_IPUZ))
+                puzHandles.add(new PuzHandle.IPuz(dirHandle, f));
         }
     }
 
     /**
-     * Get the PuzMetaFile from the handle
+     * Rebuild the handle of a cached record from its file locations
+     *
+     * Records with a file name get handles without going to the file
+     * system, so a file gone since it was cached shows up when it is
+     * read. Older records look their files up.
      *
-     * Uses cache if possible, else loads data from file
+     * @return null if the main file no longer exists
      */
-    private PuzMetaFile getPuzMetaFile(
-        PuzHandle ph, Map<Uri, MetaCache.MetaRecord> cachedMetas
+    private PuzHandle getPuzHandle(
+        DirHandle dirHandle, MetaCache.MetaRecord record
     ) {
-        Uri puzFileUri = getUri(ph);
-        MetaCache.MetaRecord metaRecord = cachedMetas.get(puzFileUri);
+        String mainFileName = record.getMainFileName();
+        FileHandle mainFile = (mainFileName == null)
+            ? getFileHandle(record.getMainFileUri())
+            : getFileHandle(record.getMainFileUri(), mainFileName);
+        if (mainFile == null)
+            return null;
 
-        if (metaRecord != null) {
-            return new PuzMetaFile(ph, metaRecord);
-        } else {
-            try {
-                return loadPuzMetaFile(ph);
-            } catch (IOException e) {
-                LOGGER.warning("Could not load puz meta for " + ph +": " + e);
-                return new PuzMetaFile(ph, null);
+        if (getName(mainFile).endsWith(FILE_EXT_IPUZ))
+            return new PuzHandle.IPuz(dirHandle, mainFile);
+
+        Uri metaFileUri = record.getMetaFileUri();
+        FileHandle metaFile;
+        if (metaFileUri == null)
+            metaFile = null;
+        else if (mainFileName == null)
+            metaFile = getFileHandle(metaFileUri);
+        else
+            metaFile = getFileHandle(metaFileUri, getMetaFileName(mainFile));
+
+        return new PuzHandle.Puz(dirHandle, mainFile, metaFile);
+    }
+
+    /**
+     * Read meta data of files not in the cache on the meta load pool
+     *
+     * Metas are added to loadedPuzMetas and passed to the listener in
+     * batches as they complete. Each batch of new records is written
+     * to the cache in one go before it is passed on.
+     */
+    private void loadUncachedMetas(
+        List<PuzHandle> puzHandles,
+        List<PuzMetaFile> loadedPuzMetas,
+        PuzMetasListener listener
+    ) {
+        if (puzHandles.isEmpty())
+            return;
+
+        CompletionService<PuzMetaFile> completionService
+            = new ExecutorCompletionService<>(metaLoadExecutorService);
+
+        for (PuzHandle ph : puzHandles)
+            completionService.submit(() -> readPuzMetaFile(ph));
+
+        List<MetaCache.MetaRecord> newRecords = new ArrayList<>();
+        List<PuzMetaFile> batch = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < puzHandles.size(); i++) {
+                PuzMetaFile pm;
+                try {
+                    pm = completionService.take().get();
+                } catch (ExecutionException e) {
+                    LOGGER.severe("Unexpected error reading puz meta: " + e);
+                    continue;
+                }
+
+                if (pm == null)
+                    continue;
+
+                loadedPuzMetas.add(pm);
+                batch.add(pm);
+                if (pm.meta != null)
+                    newRecords.add(pm.meta);
+
+                if (batch.size() >= META_LOAD_BATCH_SIZE) {
+                    metaCache.addRecords(newRecords);
+                    newRecords = new ArrayList<>();
+                    if (listener != null)
+                        listener.onPuzMetas(batch);
+                    batch = new ArrayList<>();
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+
+        metaCache.addRecords(newRecords);
+        if (listener != null && !batch.isEmpty())
+            listener.onPuzMetas(batch);
+    }
+
+    /**
+     * Read the PuzMetaFile for a file not in the cache
+     *
+     * Does not add it to the cache.
+     *
+     * @return the meta file, with null meta if it could not be read,
+     * or null if the file is not a puzzle
+     */
+    private PuzMetaFile readPuzMetaFile(PuzHandle ph) {
+        try {
+            PuzzleMeta meta = loadMeta(ph);
+            if (meta == null)
+                return null;
+            return new PuzMetaFile(ph, metaCache.newRecord(ph, meta));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("Could not load puz meta for " + ph +": " + e);
+            return new PuzMetaFile(ph, null);
+        }
+    }
+
+    private static ExecutorService newMetaLoadExecutorService() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            META_LOAD_THREADS, META_LOAD_THREADS,
+            META_LOAD_KEEP_ALIVE_SECS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 }
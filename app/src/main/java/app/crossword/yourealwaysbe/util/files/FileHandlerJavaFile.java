@@ -100,6 +100,11 @@ public abstract class FileHandlerJavaFile extends FileHandler {
         return file.getFile().lastModified();
     }
 
+    @Override
+    protected long getSize(FileHandle file) {
+        return file.getFile().length();
+    }
+
     @Override
     protected FileHandle createFileHandle(
         DirHandle dir, String fileName, String mimeType
@@ -117,12 +122,13 @@ public abstract class FileHandlerJavaFile extends FileHandler {
     }
 
     @Override
-    protected void moveToUnsync(
+    protected FileHandle moveToUnsync(
         FileHandle fileHandle, DirHandle srcDirHandle, DirHandle destDirHandle
     ) {
         File file = fileHandle.getFile();
         File directory = destDirHandle.getFile();
-        file.renameTo(new File(directory, file.getName()));
+        File moved = new File(directory, file.getName());
+        return file.renameTo(moved) ? new FileHandle(moved) : null;
     }
 
     @Override
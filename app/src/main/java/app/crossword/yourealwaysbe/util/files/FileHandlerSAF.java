@@ -2,6 +2,7 @@
 package app.crossword.yourealwaysbe.util.files;
 
 import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -45,14 +46,30 @@ public class FileHandlerSAF extends FileHandler {
     public static class Meta {
         private String name;
         private long lastModified;
+        private long size;
+        private boolean complete;
 
-        public Meta(String name, long lastModified) {
+        public Meta(String name, long lastModified, long size) {
             this.name = name;
             this.lastModified = lastModified;
+            this.size = size;
+            this.complete = true;
+        }
+
+        /**
+         * Meta of a file known only by name
+         *
+         * The rest is asked of the provider when first needed.
+         */
+        Meta(String name) {
+            this.name = name;
         }
 
         public String getName() { return name; }
         public long getLastModified() { return lastModified; }
+        public long getSize() { return size; }
+
+        boolean isComplete() { return complete; }
     }
 
     public static boolean isSAFSupported() {
@@ -104,6 +121,11 @@ public class FileHandlerSAF extends FileHandler {
             return null;
     }
 
+    @Override
+    protected FileHandle getFileHandle(Uri uri, String name) {
+        return new FileHandle(uri, new Meta(name));
+    }
+
     @Override
     protected boolean exists(DirHandle dir) {
         return exists(getContentResolver(), dir.getUri());
@@ -137,7 +159,8 @@ public class FileHandlerSAF extends FileHandler {
                     Document.COLUMN_DOCUMENT_ID,
                     Document.COLUMN_DISPLAY_NAME,
                     Document.COLUMN_LAST_MODIFIED,
-                    Document.COLUMN_MIME_TYPE
+                    Document.COLUMN_MIME_TYPE,
+                    Document.COLUMN_SIZE
                 },
                 null, null, null
             )
@@ -147,13 +170,16 @@ public class FileHandlerSAF extends FileHandler {
                 String name = cursor.getString(1);
                 long modified = cursor.getLong(2);
                 String mimeType = cursor.getString(3);
+                long size = cursor.getLong(4);
 
                 if (!Document.MIME_TYPE_DIR.equals(mimeType)) {
                     Uri uri = DocumentsContract.buildDocumentUriUsingTree(
                         dirUri, id
                     );
 
-                    files.add(new FileHandle(uri, new Meta(name, modified)));
+                    files.add(new FileHandle(
+                        uri, new Meta(name, modified, size)
+                    ));
                 }
             }
         }
@@ -174,7 +200,12 @@ public class FileHandlerSAF extends FileHandler {
 
     @Override
     protected long getLastModified(FileHandle file) {
-        return file.getSAFMeta().getLastModified();
+        return getCompleteMeta(file).getLastModified();
+    }
+
+    @Override
+    protected long getSize(FileHandle file) {
+        return getCompleteMeta(file).getSize();
     }
 
     @Override
@@ -198,36 +229,80 @@ public class FileHandlerSAF extends FileHandler {
     }
 
     @Override
-    protected void moveToUnsync(
+    protected FileHandle moveToUnsync(
         FileHandle fileHandle, DirHandle srcDirHandle, DirHandle destDirHandle
     ) {
         try {
-            DocumentsContract.moveDocument(
+            Uri movedUri = DocumentsContract.moveDocument(
                 getContentResolver(),
                 fileHandle.getUri(),
                 srcDirHandle.getUri(),
                 destDirHandle.getUri()
             );
+            // a move does not change the name, size or modified time
+            return (movedUri == null)
+                ? null
+                : new FileHandle(movedUri, fileHandle.getSAFMeta());
         } catch (FileNotFoundException | IllegalArgumentException e) {
             LOGGER.severe(
                 "Attempt to move " + fileHandle + " to " +
                 destDirHandle + " failed."
             );
             e.printStackTrace();
+            return null;
         }
     }
 
+    /**
+     * Get output stream to file, erasing previous contents
+     *
+     * When the stream is closed, the handle's size is set to the bytes
+     * written and its last modified time to the current time, without
+     * asking the provider, as saves can be on the main thread. If the
+     * provider's time differs, the next listing reads the file again.
+     */
     @Override
     protected OutputStream getOutputStream(FileHandle fileHandle)
         throws IOException {
+        OutputStream os;
         try {
-            return getContentResolver().openOutputStream(
+            os = getContentResolver().openOutputStream(
                 fileHandle.getUri(), "wt"
             );
         } catch (IllegalArgumentException e) {
             // happens when e.g. file was deleted, so consider as IO
             throw new IOException(e);
         }
+
+        return new FilterOutputStream(os) {
+            private long written = 0;
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                written += 1;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len)
+                    throws IOException {
+                out.write(b, off, len);
+                written += len;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    fileHandle.setSAFMeta(new Meta(
+                        fileHandle.getSAFMeta().getName(),
+                        System.currentTimeMillis(),
+                        written
+                    ));
+                }
+            }
+        };
     }
 
     @Override
@@ -274,7 +349,7 @@ public class FileHandlerSAF extends FileHandler {
             );
             if (uri != null) {
                 return new FileHandle(
-                    uri, new Meta(fileName, System.currentTimeMillis())
+                    uri, new Meta(fileName, System.currentTimeMillis(), 0)
                 );
             }
         } catch (FileNotFoundException e) {
@@ -495,7 +570,8 @@ public class FileHandlerSAF extends FileHandler {
                 uri,
                 new String[] {
                     Document.COLUMN_DISPLAY_NAME,
-                    Document.COLUMN_LAST_MODIFIED
+                    Document.COLUMN_LAST_MODIFIED,
+                    Document.COLUMN_SIZE
                 },
                 null, null, null
             )
@@ -505,7 +581,8 @@ public class FileHandlerSAF extends FileHandler {
                     c.getString(0),
                     // avoid exception crash if last modified is not known
                     // e.g. when opening firefox download urls
-                    getLongColumnWithDefault(c, 1, System.currentTimeMillis())
+                    getLongColumnWithDefault(c, 1, System.currentTimeMillis()),
+                    getLongColumnWithDefault(c, 2, 0)
                 );
             } else {
                 return null;
@@ -513,11 +590,29 @@ public class FileHandlerSAF extends FileHandler {
         }
     }
 
+    /**
+     * The file's meta, asking the provider if only its name is known
+     *
+     * If the file has gone, the meta is left with only the name and
+     * zero time and size.
+     */
+    private Meta getCompleteMeta(FileHandle file) {
+        Meta meta = file.getSAFMeta();
+        if (!meta.isComplete()) {
+            Meta fullMeta = getMetaFromUri(file.getUri());
+            if (fullMeta != null) {
+                file.setSAFMeta(fullMeta);
+                meta = fullMeta;
+            }
+        }
+        return meta;
+    }
+
     private long getLongColumnWithDefault(
         Cursor c, int columnIndex, long defaultValue
     ) {
         try {
-            return c.getLong(1);
+            return c.getLong(columnIndex);
         } catch (Throwable e) {
             return defaultValue;
         }
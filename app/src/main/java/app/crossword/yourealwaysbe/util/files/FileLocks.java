@@ -0,0 +1,35 @@
+package app.crossword.yourealwaysbe.util.files;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Striped read/write locks for puzzle files
+ *
+ * Each file maps to one of a fixed number of locks by the hash of its
+ * URI. Reads of the same file can run together, writes are exclusive,
+ * and files on different stripes do not block each other at all.
+ *
+ * Only ever hold one file's lock at a time: two files may share a
+ * stripe, and taking locks on two stripes risks lock order deadlocks.
+ */
+class FileLocks {
+    private static final int NUM_STRIPES = 64;
+
+    private final ReadWriteLock[] locks = new ReadWriteLock[NUM_STRIPES];
+
+    public FileLocks() {
+        for (int i = 0; i < locks.length; i++)
+            locks[i] = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Get the lock for the file
+     */
+    public ReadWriteLock get(FileHandle fileHandle) {
+        int hash = fileHandle.hashCode();
+        // spread high bits as hashes of similar URIs are close
+        hash ^= (hash >>> 16);
+        return locks[(hash & 0x7FFFFFFF) % NUM_STRIPES];
+    }
+}
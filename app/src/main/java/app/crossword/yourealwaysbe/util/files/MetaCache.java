@@ -2,10 +2,14 @@
 package app.crossword.yourealwaysbe.util.files;
 
 import java.time.LocalDate;
-import java.util.AbstractList;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import android.content.Context;
 import android.net.Uri;
@@ -14,6 +18,8 @@ import androidx.room.ColumnInfo;
 import androidx.room.Dao;
 import androidx.room.Database;
 import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.Index;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.PrimaryKey;
@@ -25,9 +31,74 @@ import androidx.room.TypeConverters;
 import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
+import app.crossword.yourealwaysbe.puz.Clue;
 import app.crossword.yourealwaysbe.puz.Puzzle;
+import app.crossword.yourealwaysbe.puz.PuzzleMeta;
 
 public class MetaCache {
+    // SQLite's default limit on the number of parameters in a statement
+    private static final int MAX_DELETE_BATCH = 999;
+
+    /**
+     * Section key of records with no source (or no date)
+     */
+    public static final String UNKNOWN = "Unknown";
+
+    private static final DateTimeFormatter SECTION_DATE_FORMAT
+        = DateTimeFormatter.ofPattern("EEEE MMM dd, yyyy");
+
+    /**
+     * Orders in which the records of a directory can be listed
+     *
+     * Records are grouped into sections by date or source.
+     */
+    public enum SortOrder { DATE_DESC, DATE_ASC, SOURCE }
+
+    /**
+     * A run of records with the same date or source in a listing
+     */
+    public static class Section {
+        private final String label;
+        private final int count;
+
+        Section(String label, int count) {
+            this.label = label;
+            this.count = count;
+        }
+
+        public String getLabel() { return label; }
+        public int getCount() { return count; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Section))
+                return false;
+            Section other = (Section) o;
+            return count == other.count && label.equals(other.label);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(label, count);
+        }
+    }
+
+    /**
+     * Number of records with a date
+     */
+    @TypeConverters({Converters.class})
+    public static class DateCount {
+        public LocalDate date;
+        public int count;
+    }
+
+    /**
+     * Number of records with a source
+     */
+    public static class SourceCount {
+        public String source;
+        public int count;
+    }
 
     public static class Converters {
         @TypeConverter
@@ -51,7 +122,13 @@ public class MetaCache {
         }
     }
 
-    @Entity(tableName = "cachedMeta")
+    @Entity(
+        tableName = "cachedMeta",
+        indices = {
+            @Index("date"), @Index("source"),
+            @Index({"directoryUri", "date"})
+        }
+    )
     @TypeConverters({Converters.class})
     public static class CachedMeta {
         @PrimaryKey
@@ -88,6 +165,75 @@ public class MetaCache {
         // from db version 2
         @ColumnInfo
         public String author;
+
+        // from db version 4, the state of the files when cached
+        @ColumnInfo(defaultValue = "0")
+        public long fileLastModified;
+
+        @ColumnInfo(defaultValue = "0")
+        public long fileSize;
+
+        // from db version 7, so listings can make file handles without
+        // asking the file system, null in rows from before
+        @ColumnInfo
+        public String mainFileName;
+    }
+
+    /**
+     * The searchable text of a cached puzzle
+     *
+     * Kept apart from CachedMeta so listings do not load it. Notes and
+     * clues are only known once the whole puzzle has been read (when
+     * it is downloaded, opened or saved) and are null until then.
+     */
+    @Entity(tableName = "cachedText")
+    @TypeConverters({Converters.class})
+    public static class CachedText {
+        @PrimaryKey
+        @NonNull
+        public Uri mainFileUri;
+
+        @ColumnInfo
+        public String title;
+
+        @ColumnInfo
+        public String author;
+
+        @ColumnInfo
+        public String source;
+
+        @ColumnInfo
+        public String notes;
+
+        // all clue hints, one per line
+        @ColumnInfo
+        public String clues;
+    }
+
+    /**
+     * Full text index of CachedText
+     *
+     * Room keeps it in step with cachedText by triggers. The triggers
+     * do not see rows removed by REPLACE, so cachedText rows are
+     * deleted before being inserted again.
+     */
+    @Entity(tableName = "cachedTextFts")
+    @Fts4(contentEntity = CachedText.class)
+    public static class CachedTextFts {
+        @ColumnInfo
+        public String title;
+
+        @ColumnInfo
+        public String author;
+
+        @ColumnInfo
+        public String source;
+
+        @ColumnInfo
+        public String notes;
+
+        @ColumnInfo
+        public String clues;
     }
 
     @Dao
@@ -102,17 +248,108 @@ public class MetaCache {
         @Insert(onConflict = OnConflictStrategy.REPLACE)
         public void insertAll(CachedMeta... metas);
 
-        @Query(
-            "DELETE FROM cachedMeta" +
-            " WHERE directoryUri = :dirUri" +
-            "  AND mainFileUri NOT IN (:mainFileUris)")
-        public void deleteOutside(Uri dirUri, List<Uri> mainFileUris);
-
         @Query("DELETE FROM cachedMeta WHERE mainFileUri IN (:mainFileUris)")
         public void delete(Uri... mainFileUris);
+
+        @Insert(onConflict = OnConflictStrategy.ABORT)
+        public void insertText(CachedText... texts);
+
+        @Query("DELETE FROM cachedText WHERE mainFileUri IN (:mainFileUris)")
+        public void deleteText(Uri... mainFileUris);
+
+        /**
+         * Update the text known without reading the whole puzzle
+         *
+         * @return the number of rows updated
+         */
+        @Query(
+            "UPDATE cachedText"
+            + " SET title = :title, author = :author, source = :source"
+            + " WHERE mainFileUri = :mainFileUri"
+        )
+        public int updateText(
+            Uri mainFileUri, String title, String author, String source
+        );
+
+        @Query(
+            "UPDATE cachedText SET mainFileUri = :newMainFileUri"
+            + " WHERE mainFileUri = :oldMainFileUri"
+        )
+        public void moveText(Uri oldMainFileUri, Uri newMainFileUri);
+
+        @Query(
+            "SELECT cachedMeta.* FROM cachedMeta"
+            + " JOIN cachedText"
+            + " ON cachedText.mainFileUri = cachedMeta.mainFileUri"
+            + " JOIN cachedTextFts"
+            + " ON cachedTextFts.docid = cachedText.rowid"
+            + " WHERE cachedTextFts MATCH :query"
+            + " AND cachedMeta.directoryUri = :directory"
+            + " ORDER BY cachedMeta.date DESC, cachedMeta.mainFileUri"
+            + " LIMIT :limit"
+        )
+        public List<CachedMeta> search(Uri directory, String query, int limit);
+
+        @Query(
+            "SELECT date, COUNT(*) AS count FROM cachedMeta"
+            + " WHERE directoryUri = :directory"
+            + " GROUP BY date ORDER BY date DESC"
+        )
+        public List<DateCount> getDateSectionsDesc(Uri directory);
+
+        @Query(
+            "SELECT date, COUNT(*) AS count FROM cachedMeta"
+            + " WHERE directoryUri = :directory"
+            + " GROUP BY date ORDER BY date ASC"
+        )
+        public List<DateCount> getDateSectionsAsc(Uri directory);
+
+        @Query(
+            "SELECT IFNULL(source, '" + UNKNOWN + "') AS source,"
+            + " COUNT(*) AS count FROM cachedMeta"
+            + " WHERE directoryUri = :directory"
+            + " GROUP BY 1 ORDER BY 1"
+        )
+        public List<SourceCount> getSourceSections(Uri directory);
+
+        // pages are ordered as the sections, mainFileUri makes the
+        // order within a section stable between pages
+
+        @Query(
+            "SELECT * FROM cachedMeta WHERE directoryUri = :directory"
+            + " ORDER BY date DESC, mainFileUri"
+            + " LIMIT :limit OFFSET :offset"
+        )
+        public List<CachedMeta> getPageDateDesc(
+            Uri directory, int offset, int limit
+        );
+
+        @Query(
+            "SELECT * FROM cachedMeta WHERE directoryUri = :directory"
+            + " ORDER BY date ASC, mainFileUri"
+            + " LIMIT :limit OFFSET :offset"
+        )
+        public List<CachedMeta> getPageDateAsc(
+            Uri directory, int offset, int limit
+        );
+
+        @Query(
+            "SELECT * FROM cachedMeta WHERE directoryUri = :directory"
+            + " ORDER BY IFNULL(source, '" + UNKNOWN + "'),"
+            + " date DESC, mainFileUri"
+            + " LIMIT :limit OFFSET :offset"
+        )
+        public List<CachedMeta> getPageSource(
+            Uri directory, int offset, int limit
+        );
     }
 
-    @Database(entities = {CachedMeta.class}, version = 2)
+    @Database(
+        entities = {
+            CachedMeta.class, CachedText.class, CachedTextFts.class
+        },
+        version = 7
+    )
     public static abstract class CachedMetaDB extends RoomDatabase {
         private static CachedMetaDB instance = null;
 
@@ -131,12 +368,146 @@ public class MetaCache {
             }
         };
 
+        /**
+         * Version 3 indexes the directory (for listing) and date and
+         * source (for sorting)
+         *
+         * Index names are as Room generates them from the annotations.
+         */
+        private static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+            @Override
+            public void migrate(SupportSQLiteDatabase database) {
+                for (String column : new String[] {
+                    "directoryUri", "date", "source"
+                }) {
+                    database.execSQL(
+                        "CREATE INDEX IF NOT EXISTS index_cachedMeta_"
+                            + column + " ON cachedMeta (" + column + ")"
+                    );
+                }
+            }
+        };
+
+        /**
+         * Version 4 records the last modified time and size of the
+         * files when cached
+         *
+         * Old rows get 0 so their files are read again once.
+         */
+        private static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+            @Override
+            public void migrate(SupportSQLiteDatabase database) {
+                database.execSQL(
+                    "ALTER TABLE cachedMeta ADD COLUMN fileLastModified"
+                        + " INTEGER NOT NULL DEFAULT 0"
+                );
+                database.execSQL(
+                    "ALTER TABLE cachedMeta ADD COLUMN fileSize"
+                        + " INTEGER NOT NULL DEFAULT 0"
+                );
+            }
+        };
+
+        /**
+         * Version 5 indexes the directory and date together so a
+         * directory can be listed in date order without a sort
+         *
+         * The new index also serves lookups by directory alone, so the
+         * directory index is dropped.
+         */
+        private static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+            @Override
+            public void migrate(SupportSQLiteDatabase database) {
+                database.execSQL(
+                    "DROP INDEX IF EXISTS index_cachedMeta_directoryUri"
+                );
+                database.execSQL(
+                    "CREATE INDEX IF NOT EXISTS"
+                        + " index_cachedMeta_directoryUri_date"
+                        + " ON cachedMeta (directoryUri, date)"
+                );
+            }
+        };
+
+        /**
+         * Version 6 adds the text of puzzles and its full text index
+         *
+         * Statements are as Room generates them from the annotations.
+         * Text of cached puzzles is copied from their records, notes
+         * and clues follow when the puzzles are next read in full.
+         */
+        private static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+            @Override
+            public void migrate(SupportSQLiteDatabase database) {
+                String columns = "`title`, `author`, `source`, `notes`, `clues`";
+                String newColumns = "NEW.`title`, NEW.`author`,"
+                    + " NEW.`source`, NEW.`notes`, NEW.`clues`";
+
+                database.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `cachedText`"
+                        + " (`mainFileUri` TEXT NOT NULL, `title` TEXT,"
+                        + " `author` TEXT, `source` TEXT, `notes` TEXT,"
+                        + " `clues` TEXT, PRIMARY KEY(`mainFileUri`))"
+                );
+                database.execSQL(
+                    "CREATE VIRTUAL TABLE IF NOT EXISTS `cachedTextFts`"
+                        + " USING FTS4(`title` TEXT, `author` TEXT,"
+                        + " `source` TEXT, `notes` TEXT, `clues` TEXT,"
+                        + " content=`cachedText`)"
+                );
+                for (String when : new String[] { "UPDATE", "DELETE" }) {
+                    database.execSQL(
+                        "CREATE TRIGGER IF NOT EXISTS"
+                            + " room_fts_content_sync_cachedTextFts_BEFORE_"
+                            + when + " BEFORE " + when + " ON `cachedText`"
+                            + " BEGIN DELETE FROM `cachedTextFts`"
+                            + " WHERE `docid`=OLD.`rowid`; END"
+                    );
+                }
+                for (String when : new String[] { "UPDATE", "INSERT" }) {
+                    database.execSQL(
+                        "CREATE TRIGGER IF NOT EXISTS"
+                            + " room_fts_content_sync_cachedTextFts_AFTER_"
+                            + when + " AFTER " + when + " ON `cachedText`"
+                            + " BEGIN INSERT INTO `cachedTextFts`(`docid`, "
+                            + columns + ") VALUES (NEW.`rowid`, "
+                            + newColumns + "); END"
+                    );
+                }
+
+                // indexed by the insert trigger
+                database.execSQL(
+                    "INSERT INTO `cachedText`"
+                        + " (`mainFileUri`, `title`, `author`, `source`)"
+                        + " SELECT mainFileUri, title, author, source"
+                        + " FROM cachedMeta"
+                );
+            }
+        };
+
+        /**
+         * Version 7 records the name of the main file
+         *
+         * Old rows get null, and their handles are looked up from the
+         * file system until they are cached again.
+         */
+        private static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+            @Override
+            public void migrate(SupportSQLiteDatabase database) {
+                database.execSQL(
+                    "ALTER TABLE cachedMeta ADD COLUMN mainFileName TEXT"
+                );
+            }
+        };
+
         public static CachedMetaDB getInstance(Context applicationContext) {
             if (instance == null) {
                 instance = Room.databaseBuilder(
                     applicationContext, CachedMetaDB.class, "meta-cache-db"
-                ).addMigrations(MIGRATION_l_2)
-                .build();
+                ).addMigrations(
+                    MIGRATION_l_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5,
+                    MIGRATION_5_6, MIGRATION_6_7
+                ).build();
             }
             return instance;
         }
@@ -159,6 +530,38 @@ public class MetaCache {
         public String getSource() { return dbRow.source; }
         public String getTitle() { return dbRow.title; }
         public String getAuthor() { return dbRow.author; }
+
+        Uri getMainFileUri() { return dbRow.mainFileUri; }
+        Uri getMetaFileUri() { return dbRow.metaFileUri; }
+
+        /**
+         * Name of the main file, or null if cached before it was kept
+         */
+        String getMainFileName() { return dbRow.mainFileName; }
+
+        /**
+         * True if the record was cached from files in the given state
+         */
+        boolean isSnapshotOf(long fileLastModified, long fileSize) {
+            return dbRow.fileLastModified == fileLastModified
+                && dbRow.fileSize == fileSize;
+        }
+
+        /**
+         * True if the records have the same meta data
+         *
+         * The state of the files they were cached from is ignored.
+         */
+        public boolean isSameMeta(MetaRecord other) {
+            CachedMeta otherRow = other.dbRow;
+            return dbRow.isUpdatable == otherRow.isUpdatable
+                && dbRow.percentComplete == otherRow.percentComplete
+                && dbRow.percentFilled == otherRow.percentFilled
+                && Objects.equals(dbRow.date, otherRow.date)
+                && Objects.equals(dbRow.source, otherRow.source)
+                && Objects.equals(dbRow.title, otherRow.title)
+                && Objects.equals(dbRow.author, otherRow.author);
+        }
     }
 
     private Context applicationContext;
@@ -181,6 +584,88 @@ public class MetaCache {
         return  cache;
     }
 
+    /**
+     * The sections of the directory's records in the given order
+     *
+     * Counted by the database, so no records are loaded. Labels are
+     * the formatted date or the source.
+     */
+    public List<Section> getSections(DirHandle dirHandle, SortOrder order) {
+        Uri dirUri = fileHandler.getUri(dirHandle);
+        CachedMetaDao dao = getDao();
+        List<Section> sections = new ArrayList<>();
+
+        if (order == SortOrder.SOURCE) {
+            for (SourceCount sc : dao.getSourceSections(dirUri))
+                sections.add(new Section(sc.source, sc.count));
+        } else {
+            List<DateCount> dateCounts = (order == SortOrder.DATE_ASC)
+                ? dao.getDateSectionsAsc(dirUri)
+                : dao.getDateSectionsDesc(dirUri);
+            for (DateCount dc : dateCounts) {
+                String label = (dc.date == null)
+                    ? UNKNOWN
+                    : SECTION_DATE_FORMAT.format(dc.date);
+                sections.add(new Section(label, dc.count));
+            }
+        }
+
+        return sections;
+    }
+
+    /**
+     * A page of the directory's records in the given order
+     *
+     * Records are in the same order as the sections of getSections.
+     */
+    public List<MetaRecord> getRecords(
+        DirHandle dirHandle, SortOrder order, int offset, int limit
+    ) {
+        Uri dirUri = fileHandler.getUri(dirHandle);
+        CachedMetaDao dao = getDao();
+
+        List<CachedMeta> rows;
+        switch (order) {
+        case DATE_ASC:
+            rows = dao.getPageDateAsc(dirUri, offset, limit);
+            break;
+        case SOURCE:
+            rows = dao.getPageSource(dirUri, offset, limit);
+            break;
+        default:
+            rows = dao.getPageDateDesc(dirUri, offset, limit);
+        }
+
+        List<MetaRecord> records = new ArrayList<>(rows.size());
+        for (CachedMeta cm : rows)
+            records.add(new MetaRecord(cm));
+        return records;
+    }
+
+    /**
+     * Records in the directory whose text matches the search
+     *
+     * Every word of the search must start a word of the title, author,
+     * source, notes or clues. Newest first.
+     *
+     * @param search words as typed by the user
+     * @param limit the most records to return
+     */
+    public List<MetaRecord> search(
+        DirHandle dirHandle, String search, int limit
+    ) {
+        List<MetaRecord> records = new ArrayList<>();
+
+        String query = getMatchQuery(search);
+        if (query == null)
+            return records;
+
+        Uri dirUri = fileHandler.getUri(dirHandle);
+        for (CachedMeta cm : getDao().search(dirUri, query, limit))
+            records.add(new MetaRecord(cm));
+        return records;
+    }
+
     /**
      * Return cached meta for given handle
      *
@@ -195,24 +680,7 @@ public class MetaCache {
      * Cache meta for a file URI, returns new record
      */
     public MetaRecord addRecord(PuzHandle puzHandle, Puzzle puz) {
-        CachedMeta cm = new CachedMeta();
-        cm.mainFileUri = fileHandler.getUri(puzHandle.getMainFileHandle());
-
-        FileHandle metaHandle
-            = puzHandle.accept(new PuzHandle.Visitor<FileHandle>() {
-                public FileHandle visit(PuzHandle.Puz puzPH) {
-                    return puzPH.getMetaFileHandle();
-                }
-                public FileHandle visit(PuzHandle.IPuz ipuzPH) {
-                    return null;
-                }
-            });
-
-        cm.metaFileUri = (metaHandle == null)
-            ? null
-            : fileHandler.getUri(metaHandle);
-
-        cm.directoryUri = fileHandler.getUri(puzHandle.getDirHandle());
+        CachedMeta cm = newCachedMeta(puzHandle);
         cm.isUpdatable = puz.isUpdatable();
         cm.date = puz.getDate();
         cm.percentComplete = puz.getPercentComplete();
@@ -221,40 +689,215 @@ public class MetaCache {
         cm.title = puz.getTitle();
         cm.author = puz.getAuthor();
 
-        getDao().insertAll(cm);
+        CachedText text = newCachedText(cm);
+        text.notes = puz.getNotes();
+        text.clues = getClueText(puz);
+
+        CachedMetaDao dao = getDao();
+        getDB().runInTransaction(() -> {
+            dao.insertAll(cm);
+            dao.deleteText(cm.mainFileUri);
+            dao.insertText(text);
+        });
+
+        return new MetaRecord(cm);
+    }
+
+    /**
+     * Add a record from meta data read without loading the puzzle
+     */
+    public MetaRecord addRecord(PuzHandle puzHandle, PuzzleMeta meta) {
+        MetaRecord record = newRecord(puzHandle, meta);
+        addRecords(Collections.singleton(record));
+        return record;
+    }
+
+    /**
+     * Create a record from meta data without adding it to the cache
+     *
+     * Use addRecords to add a collection of new records at once.
+     */
+    public MetaRecord newRecord(PuzHandle puzHandle, PuzzleMeta meta) {
+        CachedMeta cm = newCachedMeta(puzHandle);
+        cm.isUpdatable = meta.updatable;
+        cm.date = meta.date;
+        cm.percentComplete = meta.percentComplete;
+        cm.percentFilled = meta.percentFilled;
+        cm.source = meta.source;
+        cm.title = meta.title;
+        cm.author = meta.author;
 
         return new MetaRecord(cm);
     }
 
+    /**
+     * Add records created by newRecord in a single transaction
+     *
+     * Only the text in the records is updated in the search index,
+     * notes and clues already indexed are kept.
+     */
+    public void addRecords(Collection<MetaRecord> records) {
+        if (records.isEmpty())
+            return;
+
+        CachedMeta[] rows = new CachedMeta[records.size()];
+        int i = 0;
+        for (MetaRecord record : records)
+            rows[i++] = record.dbRow;
+
+        CachedMetaDao dao = getDao();
+        getDB().runInTransaction(() -> {
+            dao.insertAll(rows);
+            for (CachedMeta cm : rows) {
+                int updated = dao.updateText(
+                    cm.mainFileUri, cm.title, cm.author, cm.source
+                );
+                if (updated == 0)
+                    dao.insertText(newCachedText(cm));
+            }
+        });
+    }
+
+    /**
+     * Move the record of a puzzle to the files it was moved to
+     *
+     * @param oldMainFileUri where the puzzle's main file was
+     * @param puzHandle the handle of the moved files
+     */
+    public void moveRecord(Uri oldMainFileUri, PuzHandle puzHandle) {
+        CachedMeta moved = newCachedMeta(puzHandle);
+        CachedMetaDao dao = getDao();
+
+        getDB().runInTransaction(() -> {
+            CachedMeta cm = dao.getCache(oldMainFileUri);
+            dao.delete(oldMainFileUri);
+            dao.deleteText(moved.mainFileUri);
+
+            if (cm == null) {
+                dao.deleteText(oldMainFileUri);
+                return;
+            }
+
+            moved.isUpdatable = cm.isUpdatable;
+            moved.date = cm.date;
+            moved.percentComplete = cm.percentComplete;
+            moved.percentFilled = cm.percentFilled;
+            moved.source = cm.source;
+            moved.title = cm.title;
+            moved.author = cm.author;
+
+            dao.insertAll(moved);
+            dao.moveText(oldMainFileUri, moved.mainFileUri);
+        });
+    }
+
+    /**
+     * A cached meta with the file locations and state of the handle
+     * filled in
+     */
+    private CachedMeta newCachedMeta(PuzHandle puzHandle) {
+        CachedMeta cm = new CachedMeta();
+        cm.mainFileUri = fileHandler.getUri(puzHandle.getMainFileHandle());
+        cm.mainFileName = fileHandler.getName(puzHandle);
+
+        FileHandle metaHandle = puzHandle.getMetaFileHandle();
+        cm.metaFileUri = (metaHandle == null)
+            ? null
+            : fileHandler.getUri(metaHandle);
+
+        cm.directoryUri = fileHandler.getUri(puzHandle.getDirHandle());
+
+        cm.fileLastModified = fileHandler.getLastModified(puzHandle);
+        cm.fileSize = fileHandler.getSize(puzHandle);
+
+        return cm;
+    }
+
     /**
      * Remove a record from the cache
      */
     public void deleteRecord(PuzHandle puzHandle) {
-        getDao().delete(fileHandler.getUri(puzHandle.getMainFileHandle()));
+        deleteRecords(Collections.singleton(
+            fileHandler.getUri(puzHandle.getMainFileHandle())
+        ));
     }
 
     /**
-     * Remove all records from directory that are not in the handles
+     * Remove the records of the given main file URIs
+     *
+     * All are removed in one transaction, in as few statements as
+     * SQLite's limit on query parameters allows.
      */
-    public void cleanupCache(
-        DirHandle dir, List<PuzMetaFile> puzMetaFiles
-    ) {
-        Uri dirUri = fileHandler.getUri(dir);
-        getDao().deleteOutside(dirUri, new AbstractList<Uri>() {
-            public int size() {
-                return puzMetaFiles.size();
+    public void deleteRecords(Collection<Uri> mainFileUris) {
+        if (mainFileUris.isEmpty())
+            return;
+
+        List<Uri> uris = new ArrayList<>(mainFileUris);
+        CachedMetaDao dao = getDao();
+        getDB().runInTransaction(() -> {
+            for (int i = 0; i < uris.size(); i += MAX_DELETE_BATCH) {
+                int end = Math.min(uris.size(), i + MAX_DELETE_BATCH);
+                Uri[] batch = uris.subList(i, end).toArray(new Uri[0]);
+                dao.delete(batch);
+                dao.deleteText(batch);
             }
+        });
+    }
 
-            public Uri get(int i) {
-                PuzMetaFile pm = puzMetaFiles.get(i);
-                return fileHandler.getUri(
-                    pm.getPuzHandle().getMainFileHandle()
-                );
+    /**
+     * Text of the record for the search index, without notes or clues
+     */
+    private CachedText newCachedText(CachedMeta cm) {
+        CachedText text = new CachedText();
+        text.mainFileUri = cm.mainFileUri;
+        text.title = cm.title;
+        text.author = cm.author;
+        text.source = cm.source;
+        return text;
+    }
+
+    /**
+     * All clue hints of the puzzle, one per line
+     */
+    private static String getClueText(Puzzle puz) {
+        StringBuilder text = new StringBuilder();
+        for (boolean across : new boolean[] { true, false }) {
+            for (Clue clue : puz.getClues(across)) {
+                String hint = clue.getHint();
+                if (hint != null)
+                    text.append(hint).append('\n');
             }
-        });
+        }
+        return text.toString();
+    }
+
+    /**
+     * An FTS query matching the words of the search as prefixes
+     *
+     * Words are quoted so nothing typed is read as query syntax.
+     *
+     * @return null if there are no words to search for
+     */
+    private static String getMatchQuery(String search) {
+        if (search == null)
+            return null;
+
+        StringBuilder query = new StringBuilder();
+        for (String word : search.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty())
+                continue;
+            if (query.length() > 0)
+                query.append(' ');
+            query.append('"').append(word).append("*\"");
+        }
+        return (query.length() == 0) ? null : query.toString();
     }
 
     private CachedMetaDao getDao() {
-        return CachedMetaDB.getInstance(applicationContext).cachedMetaDao();
+        return getDB().cachedMetaDao();
+    }
+
+    private CachedMetaDB getDB() {
+        return CachedMetaDB.getInstance(applicationContext);
     }
 }
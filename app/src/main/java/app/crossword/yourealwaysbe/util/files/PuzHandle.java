@@ -2,6 +2,7 @@
 package app.crossword.yourealwaysbe.util.files;
 
 import java.io.IOException;
+import java.util.Objects;
 
 public abstract class PuzHandle {
     public DirHandle dirHandle;
@@ -24,6 +25,14 @@ public abstract class PuzHandle {
         return getMainFileHandle().equals(other.getMainFileHandle());
     }
 
+    /**
+     * True if the objects refer to the same main and meta files
+     */
+    public boolean isSameFiles(PuzHandle other) {
+        return isSameMainFile(other)
+            && Objects.equals(getMetaFileHandle(), other.getMetaFileHandle());
+    }
+
     /**
      * True if the puzzle is in the given directory
      */
@@ -43,6 +52,19 @@ public abstract class PuzHandle {
         this.dirHandle = dirHandle;
     }
 
+    /**
+     * To update the main file if it moves
+     *
+     * Deliberately package level only
+     */
+    void setMainFileHandle(FileHandle mainHandle) {
+        this.mainHandle = mainHandle;
+    }
+
+    /**
+     * The meta file handle of the puzzle, or null if it has none
+     */
+    FileHandle getMetaFileHandle() { return null; }
 
     static class Puz extends PuzHandle {
         private FileHandle metaHandle;
@@ -54,6 +76,7 @@ public abstract class PuzHandle {
             this.metaHandle = metaHandle;
         }
 
+        @Override
         public FileHandle getMetaFileHandle() { return metaHandle; }
 
         // deliberately package-level
@@ -49,6 +49,18 @@ public class PuzMetaFile
         return isSameMainFile(other.getPuzHandle());
     }
 
+    /**
+     * True if the objects refer to the same files with the same meta
+     * data
+     */
+    public boolean isSameAs(PuzMetaFile other) {
+        if (!getPuzHandle().isSameFiles(other.getPuzHandle()))
+            return false;
+        if (meta == null || other.meta == null)
+            return meta == other.meta;
+        return meta.isSameMeta(other.meta);
+    }
+
     public boolean isInDirectory(DirHandle dirHandle) {
         return getPuzHandle().isInDirectory(dirHandle);
     }
@@ -83,7 +95,7 @@ public class PuzMetaFile
 
     public String getSource() {
         return ((meta == null) || (meta.getSource() == null))
-            ? "Unknown"
+            ? MetaCache.UNKNOWN
             : meta.getSource();
     }
 
@@ -103,6 +115,23 @@ public class PuzMetaFile
         return (author == null) ? "" : author;
     }
 
+    /**
+     * Equal if the same main puzzle file
+     *
+     * So a selection survives the list being reloaded.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PuzMetaFile))
+            return false;
+        return isSameMainFile((PuzMetaFile) o);
+    }
+
+    @Override
+    public int hashCode() {
+        return handle.getMainFileHandle().hashCode();
+    }
+
     @Override
     public String toString(){
         return getHandler().getUri(handle.getMainFileHandle()).toString();
@@ -2,6 +2,7 @@ package app.crossword.yourealwaysbe.view;
 
 import app.crossword.yourealwaysbe.forkyz.R;
 import app.crossword.yourealwaysbe.puz.Clue;
+import app.crossword.yourealwaysbe.puz.Playboard.Position;
 import app.crossword.yourealwaysbe.puz.Playboard.Word;
 import app.crossword.yourealwaysbe.puz.Playboard;
 import app.crossword.yourealwaysbe.puz.Puzzle.ClueNumDir;
@@ -32,6 +33,7 @@ import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.tabs.TabLayoutMediator;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -242,7 +244,10 @@ public class ClueTabs extends LinearLayout
     }
 
     public void onPlayboardChange(
-        boolean wholeBoard, Word currentWord, Word previousWord
+        boolean wholeBoard,
+        Word currentWord,
+        Word previousWord,
+        Collection<Position> changes
     ) {
         if (viewPager != null) {
             viewPager.getAdapter().notifyDataSetChanged();
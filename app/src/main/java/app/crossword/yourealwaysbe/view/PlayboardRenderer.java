@@ -5,12 +5,19 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.ColorFilter;
 import android.graphics.Paint;
 import android.graphics.Paint.Align;
 import android.graphics.Paint.Style;
+import android.graphics.PixelFormat;
 import android.graphics.Rect;
 import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.view.View;
 
 import androidx.core.content.ContextCompat;
 
@@ -23,30 +30,90 @@ import app.crossword.yourealwaysbe.puz.Playboard.Word;
 import app.crossword.yourealwaysbe.puz.Playboard;
 import app.crossword.yourealwaysbe.view.ScrollingImageView.Point;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 
 public class PlayboardRenderer {
     private static final float BASE_BOX_SIZE_INCHES = 0.25F;
+    // board is drawn in square tiles of this many pixels
+    private static final int TILE_SIZE = 256;
+    // most memory used by cached tiles, also limited by heap size
+    private static final int MAX_TILE_CACHE_KB = 16 * 1024;
+    // tiles are drawn off the UI thread, one thread for all renderers,
+    // jobs are RenderJobs run by priority
+    private static final ExecutorService RENDER_EXECUTOR
+        = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<Runnable>()
+        );
+    // box redraws are what the user is waiting on, so go before tiles
+    private static final int PRIORITY_BOXES = 0;
+    private static final int PRIORITY_TILE = 1;
+    // orders render jobs of the same priority
+    private static final AtomicLong RENDER_JOB_SEQUENCE = new AtomicLong();
+    // most box state buffers kept for reuse by tile jobs
+    private static final int MAX_FREE_TILE_STATES = 16;
+    // strings of single chars so box states do not make new ones
+    private static final String[] CHAR_STRINGS = new String[128];
+    static {
+        for (char c = 0; c < CHAR_STRINGS.length; c++)
+            CHAR_STRINGS[c] = String.valueOf(c);
+    }
     private static final Logger LOG = Logger.getLogger(PlayboardRenderer.class.getCanonicalName());
     @SuppressLint("NewApi")
     private static final Typeface TYPEFACE_SEMI_BOLD_SANS = (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P)
                 ? Typeface.create(Typeface.SANS_SERIF, 600, false) // semi-bold if available
                 : Typeface.create("sans-serif", Typeface.BOLD); // or fallback to bold
-    private final Paint blackBox = new Paint();
-    private final Paint blackCircle = new Paint();
-    private final Paint blackLine = new Paint();
-    private final Paint cheated = new Paint();
-    private final Paint currentLetterBox = new Paint();
-    private final Paint currentLetterHighlight = new Paint();
-    private final Paint currentWordHighlight = new Paint();
-    private final Paint letterText = new Paint();
-    private final Paint numberText = new Paint();
-    private final Paint noteText = new Paint();
-    private final Paint red = new Paint();
-    private final Paint redHighlight = new Paint();
-    private final Paint white = new Paint();
-    private Bitmap bitmap;
+    // a Paint is not thread safe, so the UI and render threads each
+    // have their own
+    private final BoxPaints uiPaints;
+    private final BoxPaints renderPaints;
+    private final LruCache<Integer, Bitmap> tiles
+        = new LruCache<Integer, Bitmap>(getTileCacheSizeKB()) {
+            @Override
+            protected int sizeOf(Integer key, Bitmap tile) {
+                return tile.getByteCount() / 1024;
+            }
+        };
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // increased when all tiles are stale, older renders are dropped
+    private volatile int generation = 0;
+    // box size of the tiles in the cache
+    private int tilesBoxSize;
+    // tiles asked of the render thread and not yet cached
+    private final Set<Integer> requestedTiles = new HashSet<>();
+    // boxes to redraw in cached tiles for the last queued BoxesJob,
+    // null once the job starts
+    private Map<Integer, BoxState> pendingBoxes;
+    // tile jobs queued and not started, by tile key, box changes are
+    // put in them as box jobs run first and would miss their tiles
+    private final Map<Integer, TileJob> queuedTiles = new HashMap<>();
+    // box state buffers of finished tile jobs
+    private final List<BoxState[]> freeTileStates = new ArrayList<>();
+    private final Object pendingBoxesLock = new Object();
+    // shown in place of missing tiles until they are drawn
+    private Map<Integer, Bitmap> staleTiles;
+    private int staleBoxSize;
+    private BoardDrawable boardDrawable;
+    // only used on the UI thread, see getClueNumberString
+    private String[] clueNumberStrings = new String[0];
+    // copy of the highlight shared by box states, see getHighlightCopy
+    private Position highlightCopy;
+    private boolean displayScratchAcross;
+    private boolean displayScratchDown;
     private Playboard board;
     private float dpi;
     private float scale = 1.0F;
@@ -88,51 +155,8 @@ public class PlayboardRenderer {
         boardNoteColor
             = ContextCompat.getColor(context, R.color.boardNoteColor);
 
-        blackLine.setColor(blankColor);
-        blackLine.setStrokeWidth(2.0F);
-
-        numberText.setTextAlign(Align.LEFT);
-        numberText.setColor(boardLetterColor);
-        numberText.setAntiAlias(true);
-        numberText.setTypeface(Typeface.MONOSPACE);
-
-        noteText.setTextAlign(Align.CENTER);
-        noteText.setColor(boardNoteColor);
-        noteText.setAntiAlias(true);
-        noteText.setTypeface(TYPEFACE_SEMI_BOLD_SANS);
-
-        letterText.setTextAlign(Align.CENTER);
-        letterText.setColor(boardLetterColor);
-        letterText.setAntiAlias(true);
-        letterText.setTypeface(Typeface.SANS_SERIF);
-
-        blackBox.setColor(blankColor);
-
-        blackCircle.setColor(boardLetterColor);
-        blackCircle.setAntiAlias(true);
-        blackCircle.setStyle(Style.STROKE);
-
-        currentWordHighlight.setColor(currentWordHighlightColor);
-        currentLetterHighlight.setColor(currentLetterHighlightColor);
-        currentLetterBox.setColor(boxColor);
-        currentLetterBox.setStrokeWidth(2.0F);
-
-        white.setTextAlign(Align.CENTER);
-        white.setColor(boxColor);
-        white.setAntiAlias(true);
-        white.setTypeface(Typeface.SANS_SERIF);
-
-        red.setTextAlign(Align.CENTER);
-        red.setColor(errorColor);
-        red.setAntiAlias(true);
-        red.setTypeface(Typeface.SANS_SERIF);
-
-        redHighlight.setTextAlign(Align.CENTER);
-        redHighlight.setColor(errorHighlightColor);
-        redHighlight.setAntiAlias(true);
-        redHighlight.setTypeface(Typeface.SANS_SERIF);
-
-        cheated.setColor(cheatedColor);
+        uiPaints = new BoxPaints();
+        renderPaints = new BoxPaints();
     }
 
     public float getDeviceMaxScale(){
@@ -167,7 +191,7 @@ public class PlayboardRenderer {
         } else if (String.valueOf(scale).equals("NaN")) {
             scale = 1.0f;
         }
-        this.bitmap = null;
+        this.boardDrawable = null;
         this.scale = scale;
     }
 
@@ -176,54 +200,63 @@ public class PlayboardRenderer {
         return this.scale;
     }
 
-    public Bitmap draw(Word reset,
-                       boolean displayScratchAcross, boolean displayScratchDown) {
-        try {
-            Box[][] boxes = this.board.getBoxes();
-            boolean renderAll = reset == null;
-
-            if (scale > getDeviceMaxScale()) {
-                scale = getDeviceMaxScale();
-            } else if (scale < getDeviceMinScale()) {
-                scale = getDeviceMinScale();
-            } else if (Float.isNaN(scale)) {
-                scale = 1.0F;
-            }
-
-            int boxSize = (int) (BASE_BOX_SIZE_INCHES * dpi * scale);
-
-            if (bitmap == null) {
-                LOG.warning("New bitmap box size "+boxSize);
-                bitmap = Bitmap.createBitmap(boxes.length * boxSize,
-                        boxes[0].length * boxSize, Bitmap.Config.RGB_565);
-                bitmap.eraseColor(Color.BLACK);
-                renderAll = true;
-            }
+    /**
+     * Get the board drawable, updated for changes
+     *
+     * Tiles of the board are drawn on a render thread when displayed,
+     * this only queues redraws of boxes in tiles already drawn.
+     *
+     * @param reset the previously selected word whose boxes need
+     * redrawing, or null to redraw all
+     */
+    public Drawable draw(Word reset,
+                         boolean displayScratchAcross, boolean displayScratchDown) {
+        if (prepareBoard(displayScratchAcross, displayScratchDown))
+            return boardDrawable;
 
-            Canvas canvas = new Canvas(bitmap);
+        if (reset == null) {
+            invalidateTiles();
+        } else {
+            Word currentWord = this.board.getCurrentWord();
+            queueWordBoxes(currentWord, currentWord);
+            queueWordBoxes(reset, currentWord);
+        }
 
-            // board data
+        return boardDrawable;
+    }
 
-            Word currentWord = this.board.getCurrentWord();
+    /**
+     * Get the board drawable, redrawing only boxes that have changed
+     *
+     * @param previousWord the word selected when last drawn, if it is
+     * not the current word, both words are redrawn, if null, the
+     * whole board is
+     * @param changes positions of other boxes to redraw
+     */
+    public Drawable drawChanges(Word previousWord,
+                                Collection<Position> changes,
+                                boolean displayScratchAcross,
+                                boolean displayScratchDown) {
+        if (prepareBoard(displayScratchAcross, displayScratchDown))
+            return boardDrawable;
+
+        if (previousWord == null) {
+            invalidateTiles();
+            return boardDrawable;
+        }
 
-            for (int col = 0; col < boxes.length; col++) {
-                for (int row = 0; row < boxes[col].length; row++) {
-                    if (!renderAll) {
-                        if (!currentWord.checkInWord(col, row) && !reset.checkInWord(col, row)) {
-                            continue;
-                        }
-                    }
+        Word currentWord = this.board.getCurrentWord();
 
-                    int x = col * boxSize;
-                    int y = row * boxSize;
-                    this.drawBox(canvas, x, y, row, col, boxSize, boxes[col][row], currentWord, this.board.getHighlightLetter(), displayScratchAcross, displayScratchDown);
-                }
-            }
+        if (!currentWord.equals(previousWord)) {
+            queueWordBoxes(currentWord, currentWord);
+            queueWordBoxes(previousWord, currentWord);
+        }
 
-            return bitmap;
-        } catch (OutOfMemoryError e) {
-            return bitmap;
+        for (Position p : changes) {
+            queueBox(p.across, p.down, currentWord);
         }
+
+        return boardDrawable;
     }
 
     public Bitmap drawWord(boolean displayScratchAcross, boolean displayScratchDown) {
@@ -234,11 +267,14 @@ public class PlayboardRenderer {
         bitmap.eraseColor(Color.BLACK);
 
         Canvas canvas = new Canvas(bitmap);
+        Position highlight = this.board.getHighlightLetter();
+        BoxState state = new BoxState();
 
         for (int i = 0; i < word.length; i++) {
             int x = i * boxSize;
             int y = 0;
-            this.drawBox(canvas, x, y, word[i].down, word[i].across, boxSize, boxes[i], null, this.board.getHighlightLetter(), displayScratchAcross, displayScratchDown);
+            state.set(boxes[i], word[i].down, word[i].across, null, highlight, displayScratchAcross, displayScratchDown);
+            this.drawBox(canvas, x, y, boxSize, state, uiPaints);
         }
 
         return bitmap;
@@ -259,18 +295,18 @@ public class PlayboardRenderer {
         bitmap.eraseColor(Color.BLACK);
 
         Canvas canvas = new Canvas(bitmap);
+        BoxState state = new BoxState();
 
         for (int i = 0; i < boxes.length; i++) {
             int x = i * boxSize;
             int y = 0;
-            this.drawBox(canvas,
-                         x, y,
-                         0, i,
-                         boxSize,
-                         boxes[i],
-                         null,
-                         highlight,
-                         displayScratchAcross, displayScratchDown);
+            state.set(boxes[i],
+                      0, i,
+                      null,
+                      highlight,
+                      displayScratchAcross,
+                      displayScratchDown);
+            this.drawBox(canvas, x, y, boxSize, state, uiPaints);
         }
 
         return bitmap;
@@ -330,7 +366,7 @@ public class PlayboardRenderer {
     }
 
     public float fitTo(int shortDimension) {
-        this.bitmap = null;
+        this.boardDrawable = null;
         // (pixels / boxes) / (pixels per inch / inches)
         Box[][] boxes = this.board.getBoxes();
         int numBoxes = Math.max(boxes.length, boxes[0].length);
@@ -338,7 +374,7 @@ public class PlayboardRenderer {
     }
 
     public float fitTo(int shortDimension, int numBoxes) {
-        this.bitmap = null;
+        this.boardDrawable = null;
         double newScale = (double) shortDimension / (double) numBoxes / ((double) dpi * (double) BASE_BOX_SIZE_INCHES);
         LOG.warning("fitTo "+shortDimension+" dpi"+ dpi +" == "+newScale);
         if(newScale < getDeviceMinScale()){
@@ -349,7 +385,7 @@ public class PlayboardRenderer {
     }
 
     public float zoomIn() {
-        this.bitmap = null;
+        this.boardDrawable = null;
         this.scale = scale * 1.25F;
         if(scale > this.getDeviceMaxScale()){
             this.scale = this.getDeviceMaxScale();
@@ -358,7 +394,7 @@ public class PlayboardRenderer {
     }
 
     public float zoomOut() {
-        this.bitmap = null;
+        this.boardDrawable = null;
         this.scale = scale / 1.25F;
         if(scale < this.getDeviceMinScale()){
             scale = this.getDeviceMinScale();
@@ -367,13 +403,13 @@ public class PlayboardRenderer {
     }
 
     public float zoomReset() {
-        this.bitmap = null;
+        this.boardDrawable = null;
         this.scale = 1.0F;
         return scale;
     }
 
     public float zoomInMax() {
-        this.bitmap = null;
+        this.boardDrawable = null;
         this.scale = getDeviceMaxScale();
 
         return scale;
@@ -479,159 +515,367 @@ public class PlayboardRenderer {
         return contentDesc;
     }
 
+    /**
+     * Clamp the scale and return the board box size for it
+     */
+    private int getBoardBoxSize() {
+        if (scale > getDeviceMaxScale()) {
+            scale = getDeviceMaxScale();
+        } else if (scale < getDeviceMinScale()) {
+            scale = getDeviceMinScale();
+        } else if (Float.isNaN(scale)) {
+            scale = 1.0F;
+        }
+
+        return (int) (BASE_BOX_SIZE_INCHES * dpi * scale);
+    }
+
+    /**
+     * Make sure the board drawable is for the current scale and options
+     *
+     * @return true if the board has changed and all tiles are stale
+     */
+    private boolean prepareBoard(boolean displayScratchAcross,
+                                 boolean displayScratchDown) {
+        int boxSize = getBoardBoxSize();
+
+        boolean changed = (boardDrawable == null)
+            || (boardDrawable.boxSize != boxSize)
+            || (this.displayScratchAcross != displayScratchAcross)
+            || (this.displayScratchDown != displayScratchDown);
+
+        if (changed) {
+            if (boardDrawable == null || boardDrawable.boxSize != boxSize) {
+                LOG.warning("New board box size "+boxSize);
+                boardDrawable = new BoardDrawable(boxSize);
+            }
+            this.displayScratchAcross = displayScratchAcross;
+            this.displayScratchDown = displayScratchDown;
+            invalidateTiles();
+        }
+
+        return changed;
+    }
+
+    /**
+     * Mark all tiles as needing drawing
+     *
+     * The old tiles are kept to show until new ones are ready.
+     */
+    private void invalidateTiles() {
+        synchronized (tiles) {
+            generation += 1;
+            Map<Integer, Bitmap> current = tiles.snapshot();
+            if (!current.isEmpty()) {
+                staleTiles = current;
+                staleBoxSize = tilesBoxSize;
+            }
+            tiles.evictAll();
+        }
+        tilesBoxSize = boardDrawable.boxSize;
+        requestedTiles.clear();
+        synchronized (pendingBoxesLock) {
+            pendingBoxes = null;
+            queuedTiles.clear();
+        }
+    }
+
+    private void queueWordBoxes(Word word, Word currentWord) {
+        for (int i = 0; i < word.length; i++) {
+            int col = word.start.across + (word.across ? i : 0);
+            int row = word.start.down + (word.across ? 0 : i);
+            queueBox(col, row, currentWord);
+        }
+    }
+
+    /**
+     * Queue the box to be redrawn in the cached tiles it overlaps
+     *
+     * Tiles not cached will have the new box when they are drawn. Boxes
+     * queued before the render thread gets to them are drawn together.
+     */
+    private void queueBox(int col, int row, Word currentWord) {
+        if (!isOnBoard(col, row))
+            return;
+
+        BoxState state = new BoxState();
+        state.set(
+            this.board.getBoxes()[col][row], row, col,
+            currentWord, getHighlightCopy(),
+            displayScratchAcross, displayScratchDown
+        );
+
+        synchronized (pendingBoxesLock) {
+            if (pendingBoxes == null) {
+                pendingBoxes = new LinkedHashMap<>();
+                RENDER_EXECUTOR.execute(
+                    new BoxesJob(pendingBoxes, generation, tilesBoxSize)
+                );
+            }
+            pendingBoxes.put(getTileKey(col, row), state);
+
+            for (TileJob job : queuedTiles.values())
+                job.updateBox(state);
+        }
+    }
+
+    /**
+     * Ask the render thread to draw the tile, if not already asked
+     *
+     * The boxes in the tile are copied here so the board can change
+     * while the tile is drawn. They are copied into a buffer of box
+     * states from an earlier tile job if there is one.
+     */
+    private void requestTile(int tileCol, int tileRow) {
+        int key = getTileKey(tileCol, tileRow);
+        if (!requestedTiles.add(key))
+            return;
+
+        int boxSize = boardDrawable.boxSize;
+        int left = tileCol * TILE_SIZE;
+        int top = tileRow * TILE_SIZE;
+        int width = Math.min(TILE_SIZE, boardDrawable.width - left);
+        int height = Math.min(TILE_SIZE, boardDrawable.height - top);
+
+        Box[][] boxes = this.board.getBoxes();
+        Word currentWord = this.board.getCurrentWord();
+        Position highlight = getHighlightCopy();
+
+        // include neighbours whose lines may overlap the tile
+        int firstCol = Math.max(0, left / boxSize - 1);
+        int lastCol = Math.min(boxes.length - 1, (left + width) / boxSize);
+        int firstRow = Math.max(0, top / boxSize - 1);
+        int lastRow = Math.min(boxes[0].length - 1, (top + height) / boxSize);
+
+        int numRows = lastRow - firstRow + 1;
+        int numStates = (lastCol - firstCol + 1) * numRows;
+        BoxState[] states = takeTileStates(numStates);
+        int index = 0;
+        for (int col = firstCol; col <= lastCol; col++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                states[index++].set(
+                    boxes[col][row], row, col,
+                    currentWord, highlight,
+                    displayScratchAcross, displayScratchDown
+                );
+            }
+        }
+
+        TileJob job = new TileJob(
+            generation, tileCol, tileRow, width, height, boxSize,
+            firstCol, firstRow, numRows, states, numStates
+        );
+        synchronized (pendingBoxesLock) {
+            queuedTiles.put(key, job);
+        }
+        RENDER_EXECUTOR.execute(job);
+    }
+
+    /**
+     * A buffer of at least the number of box states
+     *
+     * A buffer given back by a finished tile job if one is big
+     * enough, else a new one.
+     */
+    private BoxState[] takeTileStates(int numStates) {
+        synchronized (pendingBoxesLock) {
+            for (int i = freeTileStates.size() - 1; i >= 0; i--) {
+                if (freeTileStates.get(i).length >= numStates)
+                    return freeTileStates.remove(i);
+            }
+        }
+
+        BoxState[] states = new BoxState[numStates];
+        for (int i = 0; i < numStates; i++)
+            states[i] = new BoxState();
+        return states;
+    }
+
+    /**
+     * Keep the box states of a finished tile job for reuse
+     */
+    private void giveTileStates(BoxState[] states) {
+        synchronized (pendingBoxesLock) {
+            if (freeTileStates.size() < MAX_FREE_TILE_STATES)
+                freeTileStates.add(states);
+        }
+    }
+
+    /**
+     * A copy of the board's highlight for box states
+     *
+     * The board's position may change while the states are drawn. The
+     * copy is never changed, so it is shared by all states made while
+     * the highlight stays the same.
+     */
+    private Position getHighlightCopy() {
+        Position highlight = this.board.getHighlightLetter();
+        if (highlightCopy == null
+                || highlightCopy.across != highlight.across
+                || highlightCopy.down != highlight.down) {
+            highlightCopy = new Position(highlight.across, highlight.down);
+        }
+        return highlightCopy;
+    }
+
+    /**
+     * Swap a newly drawn tile into the cache and redraw the board
+     *
+     * Dropped if the tiles have been invalidated since the drawing
+     * started.
+     */
+    private void publishTile(int tileGeneration, int key, Bitmap tile) {
+        synchronized (tiles) {
+            if (tileGeneration != generation)
+                return;
+            tiles.put(key, tile);
+        }
+
+        handler.post(() -> {
+            if (tileGeneration == generation)
+                requestedTiles.remove(key);
+            if (boardDrawable != null)
+                boardDrawable.invalidateSelf();
+        });
+    }
+
+    private boolean isOnBoard(int col, int row) {
+        Box[][] boxes = this.board.getBoxes();
+        return col >= 0 && col < boxes.length
+            && row >= 0 && row < boxes[col].length;
+    }
+
+    private static int getTileKey(int tileCol, int tileRow) {
+        return (tileRow << 16) | tileCol;
+    }
+
+    private static int getTileCol(int key) {
+        return key & 0xFFFF;
+    }
+
+    private static int getTileRow(int key) {
+        return key >>> 16;
+    }
+
+    private static int getTileCacheSizeKB() {
+        long heapKB = Runtime.getRuntime().maxMemory() / 1024;
+        return (int) Math.min(MAX_TILE_CACHE_KB, heapKB / 8);
+    }
+
+    /**
+     * Draw the box from its state
+     *
+     * @param paints the paints of the thread drawing
+     */
     private void drawBox(Canvas canvas,
                          int x, int y,
-                         int row, int col,
                          int boxSize,
-                         Box box,
-                         Word currentWord,
-                         Position highlight,
-                         boolean displayScratchAcross, boolean displayScratchDown) {
-        int numberTextSize = boxSize / 4;
-        int miniNoteTextSize = boxSize / 2;
-        int noteTextSize = Math.round(boxSize * 0.6F);
-        int letterTextSize = Math.round(boxSize * 0.7F);
-
-        // scale paints
-        numberText.setTextSize(numberTextSize);
-        letterText.setTextSize(letterTextSize);
-        red.setTextSize(letterTextSize);
-        redHighlight.setTextSize(letterTextSize);
-        white.setTextSize(letterTextSize);
-
-        boolean inCurrentWord = (currentWord != null) && currentWord.checkInWord(col, row);
-        boolean isHighlighted
-            = (highlight.across == col) && (highlight.down == row);
+                         BoxState state,
+                         BoxPaints paints) {
+        int row = state.row;
+        int col = state.col;
+        Position highlight = state.highlight;
+
+        paints.updateTextMetrics(boxSize);
+
+        boolean inCurrentWord = state.inCurrentWord;
+        boolean isHighlighted = state.isHighlighted;
 
         Paint thisLetter;
 
-        Rect r = new Rect(x + 1, y + 1, (x + boxSize) - 1, (y + boxSize) - 1);
+        Rect r = paints.boxRect;
+        r.set(x + 1, y + 1, (x + boxSize) - 1, (y + boxSize) - 1);
 
-        if (box == null) {
-            canvas.drawRect(r, this.blackBox);
+        if (state.isBlock) {
+            canvas.drawRect(r, paints.blackBox);
         } else {
-            boolean highlightError = highlightError(box, isHighlighted);
-
-            if (highlightError)
-                box.setCheated(true);
+            boolean highlightError = state.highlightError;
 
             // Background colors
             if (isHighlighted && !highlightError) {
-                canvas.drawRect(r, this.currentLetterHighlight);
+                canvas.drawRect(r, paints.currentLetterHighlight);
             } else if (isHighlighted && highlightError) {
-                canvas.drawRect(r, this.redHighlight);
-            } else if ((currentWord != null) && currentWord.checkInWord(col, row)) {
-                canvas.drawRect(r, this.currentWordHighlight);
+                canvas.drawRect(r, paints.redHighlight);
+            } else if (inCurrentWord) {
+                canvas.drawRect(r, paints.currentWordHighlight);
             } else if (highlightError) {
-                canvas.drawRect(r, this.red);
-            } else if (this.hintHighlight && box.isCheated()) {
-                canvas.drawRect(r, this.cheated);
+                canvas.drawRect(r, paints.red);
+            } else if (this.hintHighlight && state.cheated) {
+                canvas.drawRect(r, paints.cheated);
             } else {
-                canvas.drawRect(r, this.white);
+                canvas.drawRect(r, paints.white);
             }
 
-            if (drawClueNumber(box)) {
-                canvas.drawText(Integer.toString(box.getClueNumber()), x + 2, y + numberTextSize + 2, this.numberText);
+            if (state.clueNumber != null) {
+                canvas.drawText(state.clueNumber, x + 2, y + paints.numberTextSize + 2, paints.numberText);
             }
 
             // Draw circle
-            if (box.isCircled()) {
-                canvas.drawCircle(x + (boxSize / 2) + 0.5F, y + (boxSize / 2) + 0.5F, (boxSize / 2) - 1.5F, blackCircle);
+            if (state.circled) {
+                canvas.drawCircle(x + (boxSize / 2) + 0.5F, y + (boxSize / 2) + 0.5F, (boxSize / 2) - 1.5F, paints.blackCircle);
             }
 
-            thisLetter = this.letterText;
-            String letterString = box.isBlank() ? null : Character.toString(box.getResponse());
-            String noteStringAcross = null;
-            String noteStringDown = null;
+            thisLetter = paints.letterText;
+            String letterString = state.letter;
+            String noteStringAcross = state.noteAcross;
+            String noteStringDown = state.noteDown;
 
             if (highlightError) {
                 if (isHighlighted) {
-                    thisLetter = this.white;
+                    thisLetter = paints.white;
                 } else if (inCurrentWord) {
-                    thisLetter = this.redHighlight;
+                    thisLetter = paints.redHighlight;
                 }
             }
 
-            if (box.isBlank()) {
-                if (displayScratchAcross && box.isPartOfAcross()) {
-                    int clueNumber = box.getPartOfAcrossClueNumber();
-                    Note note = board.getPuzzle().getNote(clueNumber, true);
-                    if (note != null) {
-                        String scratch = note.getScratch();
-                        int pos = box.getAcrossPosition();
-                        if (scratch != null && pos < scratch.length()) {
-                            char noteChar = scratch.charAt(pos);
-                            if (noteChar != ' ') noteStringAcross = Character.toString(noteChar);
-                        }
-                    }
-                }
-                if (displayScratchDown && box.isPartOfDown()) {
-                    int clueNumber = box.getPartOfDownClueNumber();
-                    Note note = board.getPuzzle().getNote(clueNumber, false);
-                    if (note != null) {
-                        String scratch = note.getScratch();
-                        int pos = box.getDownPosition();
-                        if (scratch != null && pos < scratch.length()) {
-                            char noteChar = scratch.charAt(pos);
-                            if (noteChar != ' ') noteStringDown = Character.toString(noteChar);
-                        }
-                    }
-                }
-            }
-
-
             if (letterString != null) {
                 // Full size letter in normal font
                 canvas.drawText(letterString,
                         x + (boxSize / 2),
-                        y + (int)(boxSize / 2 - thisLetter.ascent() * 0.6),
+                        y + (int)(boxSize / 2 - paints.letterAscent * 0.6),
                         thisLetter);
             } else {
-                float[] mWidth = new float[1];
-                letterText.getTextWidths("M", mWidth);
-                float letterTextHalfWidth = mWidth[0] / 2;
-
                 if (noteStringAcross != null && noteStringDown != null) {
                     if (noteStringAcross.equals(noteStringDown)) {
                         // Same scratch letter in both directions - align letter with across and
                         // down answers
-                        noteText.setTextSize(noteTextSize);
+                        paints.noteText.setTextSize(paints.noteTextSize);
                         canvas.drawText(noteStringAcross,
-                                x + (int)(boxSize - letterTextHalfWidth),
+                                x + (int)(boxSize - paints.letterTextHalfWidth),
                                 y + (boxSize * 9 / 10),
-                                noteText);
+                                paints.noteText);
                     } else {
                         // Conflicting scratch letters - display both letters side by side
-                        noteText.setTextSize(miniNoteTextSize);
+                        paints.noteText.setTextSize(paints.miniNoteTextSize);
                         canvas.drawText(noteStringAcross,
-                                x + (int)(boxSize * 0.05 + letterTextHalfWidth),
+                                x + (int)(boxSize * 0.05 + paints.letterTextHalfWidth),
                                 y + (boxSize * 9 / 10),
-                                noteText);
+                                paints.noteText);
                         canvas.drawText(noteStringDown,
-                                x + (int)(boxSize - letterTextHalfWidth),
-                                y + (boxSize * 1 / 10) - noteText.ascent(),
-                                noteText);
+                                x + (int)(boxSize - paints.letterTextHalfWidth),
+                                y + (boxSize * 1 / 10) - paints.miniNoteAscent,
+                                paints.noteText);
                     }
                 } else if (noteStringAcross != null) {
                     // Across scratch letter only - display in bottom left
-                    noteText.setTextSize(noteTextSize);
+                    paints.noteText.setTextSize(paints.noteTextSize);
                     canvas.drawText(noteStringAcross,
                             x + (boxSize / 2),
                             y + (boxSize * 9 / 10),
-                            noteText);
+                            paints.noteText);
                 } else if (noteStringDown != null) {
                     // Down scratch letter only - display in bottom right
-                    noteText.setTextSize(noteTextSize);
+                    paints.noteText.setTextSize(paints.noteTextSize);
                     canvas.drawText(noteStringDown,
-                            x + (int)(boxSize - letterTextHalfWidth),
-                            y + (boxSize - noteText.ascent())  / 2,
-                            noteText);
+                            x + (int)(boxSize - paints.letterTextHalfWidth),
+                            y + (boxSize - paints.noteAscent)  / 2,
+                            paints.noteText);
                 }
             }
         }
 
-        Paint boxColor = (((highlight.across == col) && (highlight.down == row)) && (currentWord != null))
-                ? this.currentLetterBox : this.blackLine;
+        Paint boxColor = (isHighlighted && state.hasCurrentWord)
+                ? paints.currentLetterBox : paints.blackLine;
 
         // Draw left
         if ((col != (highlight.across + 1)) || (row != highlight.down)) {
@@ -654,6 +898,36 @@ public class PlayboardRenderer {
         }
     }
 
+    private static String getCharString(char c) {
+        return (c < CHAR_STRINGS.length)
+            ? CHAR_STRINGS[c]
+            : Character.toString(c);
+    }
+
+    /**
+     * String of the clue number, kept for reuse
+     *
+     * Box states are made on the UI thread, so this is only called
+     * there and needs no lock.
+     */
+    private String getClueNumberString(int number) {
+        if (number < 0)
+            return Integer.toString(number);
+
+        if (number >= clueNumberStrings.length) {
+            String[] strings = new String[
+                Math.max(number + 1, 2 * clueNumberStrings.length)
+            ];
+            System.arraycopy(
+                clueNumberStrings, 0, strings, 0, clueNumberStrings.length
+            );
+            clueNumberStrings = strings;
+        }
+        if (clueNumberStrings[number] == null)
+            clueNumberStrings[number] = Integer.toString(number);
+        return clueNumberStrings[number];
+    }
+
     private boolean highlightError(Box box, boolean hasCursor) {
         boolean showErrors = this.board.isShowErrorsGrid()
             || (this.board.isShowErrorsCursor() && hasCursor);
@@ -667,4 +941,595 @@ public class PlayboardRenderer {
     private boolean drawClueNumber(Box box) {
         return box.isAcross() || box.isDown();
     }
+
+    /**
+     * The scratch letter at the position in the clue's note, or null
+     */
+    private String getScratchLetter(int clueNumber, boolean across, int pos) {
+        Note note = board.getPuzzle().getNote(clueNumber, across);
+        if (note != null) {
+            String scratch = note.getScratch();
+            if (scratch != null && pos < scratch.length()) {
+                char noteChar = scratch.charAt(pos);
+                if (noteChar != ' ')
+                    return getCharString(noteChar);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The paints and text metrics for drawing boxes
+     *
+     * Each thread drawing boxes needs its own.
+     */
+    private class BoxPaints {
+        private final Paint blackBox = new Paint();
+        private final Paint blackCircle = new Paint();
+        private final Paint blackLine = new Paint();
+        private final Paint cheated = new Paint();
+        private final Paint currentLetterBox = new Paint();
+        private final Paint currentLetterHighlight = new Paint();
+        private final Paint currentWordHighlight = new Paint();
+        private final Paint letterText = new Paint();
+        private final Paint numberText = new Paint();
+        private final Paint noteText = new Paint();
+        private final Paint red = new Paint();
+        private final Paint redHighlight = new Paint();
+        private final Paint white = new Paint();
+        private final Rect boxRect = new Rect();
+        // text sizes and metrics for the box size, see updateTextMetrics
+        private int metricsBoxSize = -1;
+        private int numberTextSize;
+        private int miniNoteTextSize;
+        private int noteTextSize;
+        private float letterAscent;
+        private float letterTextHalfWidth;
+        private float noteAscent;
+        private float miniNoteAscent;
+
+        BoxPaints() {
+            blackLine.setColor(blankColor);
+            blackLine.setStrokeWidth(2.0F);
+
+            numberText.setTextAlign(Align.LEFT);
+            numberText.setColor(boardLetterColor);
+            numberText.setAntiAlias(true);
+            numberText.setTypeface(Typeface.MONOSPACE);
+
+            noteText.setTextAlign(Align.CENTER);
+            noteText.setColor(boardNoteColor);
+            noteText.setAntiAlias(true);
+            noteText.setTypeface(TYPEFACE_SEMI_BOLD_SANS);
+
+            letterText.setTextAlign(Align.CENTER);
+            letterText.setColor(boardLetterColor);
+            letterText.setAntiAlias(true);
+            letterText.setTypeface(Typeface.SANS_SERIF);
+
+            blackBox.setColor(blankColor);
+
+            blackCircle.setColor(boardLetterColor);
+            blackCircle.setAntiAlias(true);
+            blackCircle.setStyle(Style.STROKE);
+
+            currentWordHighlight.setColor(currentWordHighlightColor);
+            currentLetterHighlight.setColor(currentLetterHighlightColor);
+            currentLetterBox.setColor(boxColor);
+            currentLetterBox.setStrokeWidth(2.0F);
+
+            white.setTextAlign(Align.CENTER);
+            white.setColor(boxColor);
+            white.setAntiAlias(true);
+            white.setTypeface(Typeface.SANS_SERIF);
+
+            red.setTextAlign(Align.CENTER);
+            red.setColor(errorColor);
+            red.setAntiAlias(true);
+            red.setTypeface(Typeface.SANS_SERIF);
+
+            redHighlight.setTextAlign(Align.CENTER);
+            redHighlight.setColor(errorHighlightColor);
+            redHighlight.setAntiAlias(true);
+            redHighlight.setTypeface(Typeface.SANS_SERIF);
+
+            cheated.setColor(cheatedColor);
+        }
+
+        /**
+         * Set paint text sizes and measure text for the box size
+         *
+         * Done when the box size changes rather than for every box.
+         */
+        private void updateTextMetrics(int boxSize) {
+            if (boxSize == metricsBoxSize)
+                return;
+
+            metricsBoxSize = boxSize;
+            numberTextSize = boxSize / 4;
+            miniNoteTextSize = boxSize / 2;
+            noteTextSize = Math.round(boxSize * 0.6F);
+            int letterTextSize = Math.round(boxSize * 0.7F);
+
+            numberText.setTextSize(numberTextSize);
+            letterText.setTextSize(letterTextSize);
+            red.setTextSize(letterTextSize);
+            redHighlight.setTextSize(letterTextSize);
+            white.setTextSize(letterTextSize);
+
+            // letter paints share a typeface and size
+            letterAscent = letterText.ascent();
+
+            float[] mWidth = new float[1];
+            letterText.getTextWidths("M", mWidth);
+            letterTextHalfWidth = mWidth[0] / 2;
+
+            noteText.setTextSize(miniNoteTextSize);
+            miniNoteAscent = noteText.ascent();
+            noteText.setTextSize(noteTextSize);
+            noteAscent = noteText.ascent();
+        }
+    }
+
+    /**
+     * Everything needed to draw a box
+     *
+     * Set on the UI thread so that the box can be drawn on the render
+     * thread while the board changes. The states of tile jobs are
+     * reused once the job is done.
+     */
+    private class BoxState {
+        private int row;
+        private int col;
+        private Position highlight;
+        private boolean isHighlighted;
+        private boolean inCurrentWord;
+        private boolean hasCurrentWord;
+        private boolean isBlock;
+        private boolean highlightError;
+        private boolean cheated;
+        private boolean circled;
+        private String clueNumber;
+        private String letter;
+        private String noteAcross;
+        private String noteDown;
+
+        /**
+         * Set the state from the box
+         *
+         * @param highlight kept by the state, so must not change while
+         * the state is drawn, see getHighlightCopy
+         */
+        void set(Box box,
+                 int row, int col,
+                 Word currentWord,
+                 Position highlight,
+                 boolean displayScratchAcross,
+                 boolean displayScratchDown) {
+            this.row = row;
+            this.col = col;
+            this.highlight = highlight;
+            this.isHighlighted
+                = (highlight.across == col) && (highlight.down == row);
+            this.inCurrentWord
+                = (currentWord != null) && currentWord.checkInWord(col, row);
+            this.hasCurrentWord = (currentWord != null);
+            this.isBlock = (box == null);
+            highlightError = false;
+            cheated = false;
+            circled = false;
+            clueNumber = null;
+            letter = null;
+            noteAcross = null;
+            noteDown = null;
+
+            if (box == null)
+                return;
+
+            highlightError = highlightError(box, isHighlighted);
+            if (highlightError)
+                box.setCheated(true);
+
+            cheated = box.isCheated();
+            circled = box.isCircled();
+            if (drawClueNumber(box))
+                clueNumber = getClueNumberString(box.getClueNumber());
+
+            if (!box.isBlank()) {
+                letter = getCharString(box.getResponse());
+            } else {
+                if (displayScratchAcross && box.isPartOfAcross()) {
+                    noteAcross = getScratchLetter(
+                        box.getPartOfAcrossClueNumber(), true,
+                        box.getAcrossPosition()
+                    );
+                }
+                if (displayScratchDown && box.isPartOfDown()) {
+                    noteDown = getScratchLetter(
+                        box.getPartOfDownClueNumber(), false,
+                        box.getDownPosition()
+                    );
+                }
+            }
+        }
+
+        void copyFrom(BoxState other) {
+            row = other.row;
+            col = other.col;
+            highlight = other.highlight;
+            isHighlighted = other.isHighlighted;
+            inCurrentWord = other.inCurrentWord;
+            hasCurrentWord = other.hasCurrentWord;
+            isBlock = other.isBlock;
+            highlightError = other.highlightError;
+            cheated = other.cheated;
+            circled = other.circled;
+            clueNumber = other.clueNumber;
+            letter = other.letter;
+            noteAcross = other.noteAcross;
+            noteDown = other.noteDown;
+        }
+    }
+
+    /**
+     * A job for the render thread
+     *
+     * Jobs run in order of priority, then in the order they were made.
+     */
+    private static abstract class RenderJob
+            implements Runnable, Comparable<RenderJob> {
+        private final int priority;
+        private final long sequence
+            = RENDER_JOB_SEQUENCE.getAndIncrement();
+
+        RenderJob(int priority) {
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(RenderJob other) {
+            if (priority != other.priority)
+                return (priority < other.priority) ? -1 : 1;
+            if (sequence != other.sequence)
+                return (sequence < other.sequence) ? -1 : 1;
+            return 0;
+        }
+    }
+
+    /**
+     * Draws a tile on the render thread and swaps it into the cache
+     *
+     * The first numBoxes box states are the boxes in the tile, in
+     * column order. Until the job starts, box changes are copied into
+     * them with updateBox. The states are given back for reuse when
+     * the job is done.
+     */
+    private class TileJob extends RenderJob {
+        private final int tileGeneration;
+        private final int tileCol;
+        private final int tileRow;
+        private final int width;
+        private final int height;
+        private final int boxSize;
+        private final int firstCol;
+        private final int firstRow;
+        private final int numRows;
+        private final BoxState[] boxes;
+        private final int numBoxes;
+
+        TileJob(int tileGeneration,
+                int tileCol, int tileRow,
+                int width, int height,
+                int boxSize,
+                int firstCol, int firstRow, int numRows,
+                BoxState[] boxes, int numBoxes) {
+            super(PRIORITY_TILE);
+            this.tileGeneration = tileGeneration;
+            this.tileCol = tileCol;
+            this.tileRow = tileRow;
+            this.width = width;
+            this.height = height;
+            this.boxSize = boxSize;
+            this.firstCol = firstCol;
+            this.firstRow = firstRow;
+            this.numRows = numRows;
+            this.boxes = boxes;
+            this.numBoxes = numBoxes;
+        }
+
+        /**
+         * Replace the state of the box if it is in the tile
+         *
+         * Call with pendingBoxesLock held.
+         */
+        void updateBox(BoxState state) {
+            int col = state.col - firstCol;
+            int row = state.row - firstRow;
+            if (col < 0 || row < 0 || row >= numRows)
+                return;
+
+            int index = col * numRows + row;
+            if (index < numBoxes)
+                boxes[index].copyFrom(state);
+        }
+
+        @Override
+        public void run() {
+            int key = getTileKey(tileCol, tileRow);
+            synchronized (pendingBoxesLock) {
+                // later changes are drawn by box jobs after this
+                if (queuedTiles.get(key) == this)
+                    queuedTiles.remove(key);
+            }
+
+            try {
+                draw(key);
+            } finally {
+                giveTileStates(boxes);
+            }
+        }
+
+        private void draw(int key) {
+            if (tileGeneration != generation)
+                return;
+
+            try {
+                Bitmap tile = Bitmap.createBitmap(
+                    width, height, Bitmap.Config.RGB_565
+                );
+                tile.eraseColor(Color.BLACK);
+
+                Canvas canvas = new Canvas(tile);
+                canvas.translate(-tileCol * TILE_SIZE, -tileRow * TILE_SIZE);
+
+                for (int i = 0; i < numBoxes; i++) {
+                    BoxState state = boxes[i];
+                    drawBox(
+                        canvas,
+                        state.col * boxSize, state.row * boxSize,
+                        boxSize, state, renderPaints
+                    );
+                }
+
+                publishTile(tileGeneration, key, tile);
+            } catch (OutOfMemoryError e) {
+                tiles.evictAll();
+
+                // let the tile be asked for again
+                handler.post(() -> {
+                    if (tileGeneration == generation)
+                        requestedTiles.remove(key);
+                });
+            }
+        }
+    }
+
+    /**
+     * Draws queued boxes into copies of the cached tiles they overlap
+     *
+     * Tiles that may be on screen are never drawn on, the copies are
+     * swapped into the cache.
+     */
+    private class BoxesJob extends RenderJob {
+        private final Map<Integer, BoxState> boxes;
+        private final int boxesGeneration;
+        private final int boxSize;
+
+        BoxesJob(Map<Integer, BoxState> boxes,
+                 int boxesGeneration,
+                 int boxSize) {
+            super(PRIORITY_BOXES);
+            this.boxes = boxes;
+            this.boxesGeneration = boxesGeneration;
+            this.boxSize = boxSize;
+        }
+
+        @Override
+        public void run() {
+            List<BoxState> states;
+            synchronized (pendingBoxesLock) {
+                // later changes go to a new job
+                if (pendingBoxes == boxes)
+                    pendingBoxes = null;
+                states = new ArrayList<>(boxes.values());
+            }
+
+            if (boxesGeneration != generation)
+                return;
+
+            Map<Integer, List<BoxState>> tileBoxes = new HashMap<>();
+            for (BoxState state : states) {
+                int x = state.col * boxSize;
+                int y = state.row * boxSize;
+
+                // box lines may be drawn a pixel outside the box
+                int firstTileCol = Math.max(0, (x - 1) / TILE_SIZE);
+                int lastTileCol = (x + boxSize + 1) / TILE_SIZE;
+                int firstTileRow = Math.max(0, (y - 1) / TILE_SIZE);
+                int lastTileRow = (y + boxSize + 1) / TILE_SIZE;
+
+                for (int tileCol = firstTileCol; tileCol <= lastTileCol; tileCol++) {
+                    for (int tileRow = firstTileRow; tileRow <= lastTileRow; tileRow++) {
+                        int key = getTileKey(tileCol, tileRow);
+                        List<BoxState> tileStates = tileBoxes.get(key);
+                        if (tileStates == null) {
+                            tileStates = new ArrayList<>();
+                            tileBoxes.put(key, tileStates);
+                        }
+                        tileStates.add(state);
+                    }
+                }
+            }
+
+            try {
+                for (Map.Entry<Integer, List<BoxState>> entry : tileBoxes.entrySet()) {
+                    int key = entry.getKey();
+                    Bitmap front = tiles.get(key);
+                    if (front == null)
+                        continue;
+
+                    Bitmap back = front.copy(Bitmap.Config.RGB_565, true);
+                    if (back == null)
+                        continue;
+
+                    Canvas canvas = new Canvas(back);
+                    canvas.translate(
+                        -getTileCol(key) * TILE_SIZE,
+                        -getTileRow(key) * TILE_SIZE
+                    );
+                    for (BoxState state : entry.getValue()) {
+                        drawBox(
+                            canvas,
+                            state.col * boxSize, state.row * boxSize,
+                            boxSize, state, renderPaints
+                        );
+                    }
+
+                    publishTile(boxesGeneration, key, back);
+                }
+            } catch (OutOfMemoryError e) {
+                tiles.evictAll();
+            }
+        }
+    }
+
+    /**
+     * The board drawn from cached tiles
+     *
+     * Only the tiles in the visible part of the view showing the board
+     * are drawn, so memory use does not grow with the board size or
+     * zoom. Missing tiles are asked of the render thread, and the
+     * stale tiles are shown in their place until they are ready.
+     */
+    private class BoardDrawable extends Drawable {
+        private final int boxSize;
+        private final int width;
+        private final int height;
+
+        BoardDrawable(int boxSize) {
+            Box[][] boxes = board.getBoxes();
+            this.boxSize = boxSize;
+            this.width = boxes.length * boxSize;
+            this.height = boxes[0].length * boxSize;
+        }
+
+        @Override
+        public int getIntrinsicWidth() { return width; }
+
+        @Override
+        public int getIntrinsicHeight() { return height; }
+
+        @Override
+        public void draw(Canvas canvas) {
+            Rect visible = getVisibleArea();
+            if (visible.isEmpty())
+                return;
+
+            int firstTileCol = visible.left / TILE_SIZE;
+            int lastTileCol = (visible.right - 1) / TILE_SIZE;
+            int firstTileRow = visible.top / TILE_SIZE;
+            int lastTileRow = (visible.bottom - 1) / TILE_SIZE;
+
+            boolean missing = false;
+
+            for (int tileCol = firstTileCol; tileCol <= lastTileCol; tileCol++) {
+                for (int tileRow = firstTileRow; tileRow <= lastTileRow; tileRow++) {
+                    Bitmap tile = tiles.get(getTileKey(tileCol, tileRow));
+                    if (tile != null) {
+                        canvas.drawBitmap(
+                            tile, tileCol * TILE_SIZE, tileRow * TILE_SIZE, null
+                        );
+                    } else {
+                        missing = true;
+                        drawStaleTile(canvas, tileCol, tileRow);
+                        requestTile(tileCol, tileRow);
+                    }
+                }
+            }
+
+            if (!missing)
+                staleTiles = null;
+        }
+
+        @Override
+        public void setAlpha(int alpha) { }
+
+        @Override
+        public void setColorFilter(ColorFilter colorFilter) { }
+
+        @Override
+        public int getOpacity() { return PixelFormat.OPAQUE; }
+
+        /**
+         * Fill the area of a missing tile from the stale tiles
+         *
+         * Stale tiles are scaled if their box size is different.
+         */
+        private void drawStaleTile(Canvas canvas, int tileCol, int tileRow) {
+            Map<Integer, Bitmap> stale = staleTiles;
+            if (stale == null || staleBoxSize <= 0)
+                return;
+
+            float ratio = boxSize / (float) staleBoxSize;
+            int left = tileCol * TILE_SIZE;
+            int top = tileRow * TILE_SIZE;
+
+            int firstStaleCol = (int) (left / ratio) / TILE_SIZE;
+            int lastStaleCol = (int) ((left + TILE_SIZE) / ratio) / TILE_SIZE;
+            int firstStaleRow = (int) (top / ratio) / TILE_SIZE;
+            int lastStaleRow = (int) ((top + TILE_SIZE) / ratio) / TILE_SIZE;
+
+            canvas.save();
+            canvas.clipRect(left, top, left + TILE_SIZE, top + TILE_SIZE);
+            canvas.scale(ratio, ratio);
+            for (int col = firstStaleCol; col <= lastStaleCol; col++) {
+                for (int row = firstStaleRow; row <= lastStaleRow; row++) {
+                    Bitmap tile = stale.get(getTileKey(col, row));
+                    if (tile != null) {
+                        canvas.drawBitmap(
+                            tile, col * TILE_SIZE, row * TILE_SIZE, null
+                        );
+                    }
+                }
+            }
+            canvas.restore();
+        }
+
+        /**
+         * The part of the board visible in the view displaying it
+         *
+         * The whole board if not displayed in a view.
+         */
+        private Rect getVisibleArea() {
+            Rect visible = new Rect(0, 0, width, height);
+
+            Callback callback = getCallback();
+            if (!(callback instanceof View))
+                return visible;
+
+            View view = (View) callback;
+            Rect viewVisible = new Rect();
+            if (!view.getLocalVisibleRect(viewVisible)
+                    || view.getWidth() == 0
+                    || view.getHeight() == 0) {
+                visible.setEmpty();
+                return visible;
+            }
+
+            // view is stretched during a pinch zoom
+            float scaleX = width / (float) view.getWidth();
+            float scaleY = height / (float) view.getHeight();
+            Rect boardVisible = new Rect(
+                (int) Math.floor(viewVisible.left * scaleX),
+                (int) Math.floor(viewVisible.top * scaleY),
+                (int) Math.ceil(viewVisible.right * scaleX),
+                (int) Math.ceil(viewVisible.bottom * scaleY)
+            );
+
+            if (!visible.intersect(boardVisible))
+                visible.setEmpty();
+
+            return visible;
+        }
+    }
 }
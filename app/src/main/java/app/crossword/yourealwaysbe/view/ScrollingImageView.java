@@ -4,6 +4,7 @@ import java.util.logging.Logger;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
 import android.text.InputType;
 import android.util.AttributeSet;
 import android.util.TypedValue;
@@ -79,19 +80,40 @@ public class ScrollingImageView extends FrameLayout implements OnGestureListener
             return;
         }
 
-        if (rescale){
-            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
-                bitmap.getWidth(), bitmap.getHeight()
+        imageView.setImageBitmap(bitmap);
+        if (rescale)
+            setImageSize(bitmap.getWidth(), bitmap.getHeight());
+    }
+
+    /**
+     * Show a drawable instead of a bitmap
+     *
+     * The drawable is redrawn when scrolled, so it can draw only the
+     * visible part of itself. It may be the drawable already shown if
+     * its content has changed.
+     */
+    public void setDrawable(Drawable drawable, boolean rescale) {
+        if (drawable == null) {
+            return;
+        }
+
+        imageView.setImageDrawable(drawable);
+        imageView.invalidate();
+        if (rescale) {
+            setImageSize(
+                drawable.getIntrinsicWidth(), drawable.getIntrinsicHeight()
             );
-            imageView.setImageBitmap(bitmap);
-            if(!haveAdded){
-                this.addView(imageView, params);
-                haveAdded = true;
-            } else {
-                imageView.setLayoutParams(params);
-            }
+        }
+    }
+
+    private void setImageSize(int width, int height) {
+        FrameLayout.LayoutParams params
+            = new FrameLayout.LayoutParams(width, height);
+        if(!haveAdded){
+            this.addView(imageView, params);
+            haveAdded = true;
         } else {
-            imageView.setImageBitmap(bitmap);
+            imageView.setLayoutParams(params);
         }
     }
 
@@ -319,6 +341,13 @@ public class ScrollingImageView extends FrameLayout implements OnGestureListener
         super.scrollTo(x, y);
     }
 
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        // drawables may only draw what was visible before
+        imageView.invalidate();
+    }
+
     public void zoom(float scale, int x, int y) {
         if (this.scaleScrollLocation == null) {
             this.scaleScrollLocation = new ScrollLocation(
@@ -1,9 +0,0 @@
-package app.crossword.yourealwaysbe.view.recycler;
-
-/**
- * Created by rcooper on 7/23/15.
- */
-public interface Dismissable {
-
-    void onItemDismiss(int position);
-}
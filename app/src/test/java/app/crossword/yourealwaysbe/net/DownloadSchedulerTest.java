@@ -0,0 +1,197 @@
+package app.crossword.yourealwaysbe.net;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+public class DownloadSchedulerTest extends TestCase {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    public DownloadSchedulerTest(String testName) {
+        super(testName);
+    }
+
+    public void testTotalLimit() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(6, 2);
+        Tasks tasks = new Tasks();
+
+        // 5 hosts could run 10 at once, so the total limit applies
+        for (int i = 0; i < 15; i++) {
+            String host = "host" + (i % 5);
+            scheduler.submit(host, tasks.newTask(host));
+        }
+
+        tasks.awaitRunning(6);
+        // give any extra task time to start if it was going to
+        Thread.sleep(100);
+        assertEquals(6, tasks.getStarted());
+
+        tasks.release();
+        scheduler.finish();
+
+        assertEquals(15, tasks.getFinished());
+        assertEquals(6, tasks.getMaxRunning());
+        assertEquals(2, tasks.getMaxRunningPerHost());
+    }
+
+    public void testPerHostLimit() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(6, 2);
+        Tasks tasks = new Tasks();
+
+        for (int i = 0; i < 5; i++)
+            scheduler.submit("busy", tasks.newTask("busy"));
+        scheduler.submit("other", tasks.newTask("other"));
+
+        // a busy host does not hold up other hosts
+        tasks.awaitRunning(3);
+        Thread.sleep(100);
+        assertEquals(3, tasks.getStarted());
+        assertEquals(2, tasks.getMaxRunningPerHost());
+
+        tasks.release();
+        scheduler.finish();
+
+        assertEquals(6, tasks.getFinished());
+        assertEquals(2, tasks.getMaxRunningPerHost());
+    }
+
+    public void testConfiguredLimits() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(3, 1);
+        Tasks tasks = new Tasks();
+
+        for (int i = 0; i < 12; i++) {
+            String host = "host" + (i % 4);
+            scheduler.submit(host, tasks.newTask(host));
+        }
+
+        tasks.awaitRunning(3);
+        Thread.sleep(100);
+        assertEquals(3, tasks.getStarted());
+
+        tasks.release();
+        scheduler.finish();
+
+        assertEquals(12, tasks.getFinished());
+        assertEquals(3, tasks.getMaxRunning());
+        assertEquals(1, tasks.getMaxRunningPerHost());
+    }
+
+    public void testFinishWaitsForAll() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(6, 2);
+        Tasks tasks = new Tasks();
+        tasks.release();
+
+        for (int i = 0; i < 10; i++) {
+            String host = (i < 7) ? "slow" : "host" + i;
+            Runnable task = tasks.newTask(host);
+            scheduler.submit(host, () -> {
+                sleep(20);
+                task.run();
+            });
+        }
+
+        scheduler.finish();
+
+        assertEquals(10, tasks.getFinished());
+    }
+
+    public void testFailedTaskReleasesSlot() throws Exception {
+        DownloadScheduler scheduler = new DownloadScheduler(6, 1);
+        Tasks tasks = new Tasks();
+        tasks.release();
+
+        scheduler.submit("host", () -> {
+            throw new RuntimeException("Expected test failure");
+        });
+        scheduler.submit("host", tasks.newTask("host"));
+
+        scheduler.finish();
+
+        assertEquals(1, tasks.getFinished());
+    }
+
+    public void testGetHost() {
+        assertEquals(
+            "example.com", DownloadScheduler.getHost("https://example.com/a")
+        );
+        assertEquals("not a url", DownloadScheduler.getHost("not a url"));
+        assertEquals("", DownloadScheduler.getHost(null));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tasks that wait to be released and count how many run at once
+     */
+    private static class Tasks {
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final Map<String, Integer> runningPerHost = new HashMap<>();
+        private int running;
+        private int started;
+        private int finished;
+        private int maxRunning;
+        private int maxRunningPerHost;
+
+        Runnable newTask(String host) {
+            return () -> {
+                start(host);
+                try {
+                    assertTrue(released.await(
+                        TIMEOUT_MILLIS, TimeUnit.MILLISECONDS
+                    ));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    end(host);
+                }
+            };
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        synchronized void awaitRunning(int count)
+                throws InterruptedException {
+            long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (running < count) {
+                long remaining = end - System.currentTimeMillis();
+                assertTrue("Tasks did not start", remaining > 0);
+                wait(remaining);
+            }
+        }
+
+        synchronized int getStarted() { return started; }
+        synchronized int getFinished() { return finished; }
+        synchronized int getMaxRunning() { return maxRunning; }
+        synchronized int getMaxRunningPerHost() { return maxRunningPerHost; }
+
+        private synchronized void start(String host) {
+            started += 1;
+            running += 1;
+            maxRunning = Math.max(maxRunning, running);
+
+            int hostRunning = runningPerHost.getOrDefault(host, 0) + 1;
+            runningPerHost.put(host, hostRunning);
+            maxRunningPerHost = Math.max(maxRunningPerHost, hostRunning);
+
+            notifyAll();
+        }
+
+        private synchronized void end(String host) {
+            running -= 1;
+            finished += 1;
+            runningPerHost.put(host, runningPerHost.get(host) - 1);
+        }
+    }
+}
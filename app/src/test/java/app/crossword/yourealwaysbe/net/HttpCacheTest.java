@@ -0,0 +1,336 @@
+package app.crossword.yourealwaysbe.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+
+import app.crossword.yourealwaysbe.io.IO;
+
+public class HttpCacheTest extends TestCase {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String ETAG = "\"v1\"";
+    private static final String LAST_MODIFIED
+        = "Mon, 04 Oct 2021 10:00:00 GMT";
+    private static final long MAX_SIZE = 1024 * 1024;
+    private static final long NEGATIVE_TTL = 60 * 60 * 1000;
+
+    private HttpServer server;
+    private final Map<String, Page> pages = new HashMap<>();
+    private File dir;
+
+    public HttpCacheTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        dir = Files.createTempDirectory("httpcache").toFile();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.stop(0);
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files)
+                file.delete();
+        }
+        dir.delete();
+    }
+
+    public void testETagValidator() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, NEGATIVE_TTL);
+        Page page = addPage("/puz", "first");
+        page.etag = ETAG;
+
+        assertEquals("first", get(cache, "/puz"));
+        assertNull(page.ifNoneMatch);
+
+        assertEquals("first", get(cache, "/puz"));
+        assertEquals(ETAG, page.ifNoneMatch);
+        assertEquals(2, page.requests);
+        assertEquals(1, page.notModified);
+    }
+
+    public void testLastModifiedValidator() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, NEGATIVE_TTL);
+        Page page = addPage("/puz", "first");
+        page.lastModified = LAST_MODIFIED;
+
+        assertEquals("first", get(cache, "/puz"));
+        assertNull(page.ifModifiedSince);
+
+        assertEquals("first", get(cache, "/puz"));
+        assertEquals(LAST_MODIFIED, page.ifModifiedSince);
+        assertEquals(2, page.requests);
+        assertEquals(1, page.notModified);
+    }
+
+    public void testChangedPageReplaced() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, NEGATIVE_TTL);
+        Page page = addPage("/puz", "first");
+        page.etag = ETAG;
+
+        assertEquals("first", get(cache, "/puz"));
+
+        page.body = "second";
+        page.etag = "\"v2\"";
+        assertEquals("second", get(cache, "/puz"));
+        assertEquals(0, page.notModified);
+
+        // the new version is the one revalidated
+        assertEquals("second", get(cache, "/puz"));
+        assertEquals("\"v2\"", page.ifNoneMatch);
+        assertEquals(1, page.notModified);
+    }
+
+    public void testMaxAgeServedWithoutRequest() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, NEGATIVE_TTL);
+        Page page = addPage("/puz", "first");
+        page.cacheControl = "public, max-age=600";
+
+        assertEquals("first", get(cache, "/puz"));
+        page.body = "second";
+        assertEquals("first", get(cache, "/puz"));
+        assertEquals(1, page.requests);
+    }
+
+    public void testExpiredMaxAgeRevalidated() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, NEGATIVE_TTL);
+        Page page = addPage("/puz", "first");
+        page.etag = ETAG;
+        page.cacheControl = "max-age=0";
+
+        assertEquals("first", get(cache, "/puz"));
+        assertEquals("first", get(cache, "/puz"));
+        assertEquals(2, page.requests);
+        assertEquals(1, page.notModified);
+    }
+
+    public void testNotStoredWithoutValidators() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, NEGATIVE_TTL);
+        Page page = addPage("/puz", "first");
+
+        assertEquals("first", get(cache, "/puz"));
+        page.body = "second";
+        assertEquals("second", get(cache, "/puz"));
+        assertEquals(2, page.requests);
+    }
+
+    public void testNoStore() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, NEGATIVE_TTL);
+        Page page = addPage("/puz", "first");
+        page.etag = ETAG;
+        page.cacheControl = "no-store";
+
+        assertEquals("first", get(cache, "/puz"));
+        assertEquals("first", get(cache, "/puz"));
+        assertNull(page.ifNoneMatch);
+        assertEquals(0, page.notModified);
+    }
+
+    public void testNotFoundRemembered() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, NEGATIVE_TTL);
+        Page page = addPage("/puz", null);
+
+        assertNotFound(cache, "/puz");
+        assertNotFound(cache, "/puz");
+        assertEquals(1, page.requests);
+    }
+
+    public void testNotFoundExpires() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, 0);
+        Page page = addPage("/puz", null);
+
+        assertNotFound(cache, "/puz");
+        page.body = "published";
+        page.etag = ETAG;
+        assertEquals("published", get(cache, "/puz"));
+        assertEquals(2, page.requests);
+    }
+
+    public void testClearMissing() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, NEGATIVE_TTL);
+        Page missing = addPage("/missing", null);
+        Page found = addPage("/found", "found");
+        found.cacheControl = "max-age=600";
+
+        assertNotFound(cache, "/missing");
+        assertEquals("found", get(cache, "/found"));
+
+        cache.clearMissing();
+
+        missing.body = "published";
+        assertEquals("published", get(cache, "/missing"));
+        assertEquals(2, missing.requests);
+
+        // other entries are kept
+        assertEquals("found", get(cache, "/found"));
+        assertEquals(1, found.requests);
+    }
+
+    public void testClear() throws Exception {
+        HttpCache cache = new HttpCache(dir, MAX_SIZE, NEGATIVE_TTL);
+        Page page = addPage("/puz", "first");
+        page.cacheControl = "max-age=600";
+
+        assertEquals("first", get(cache, "/puz"));
+        cache.clear();
+        page.body = "second";
+        assertEquals("second", get(cache, "/puz"));
+        assertEquals(2, page.requests);
+    }
+
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        // room for two entries but not three
+        HttpCache cache = new HttpCache(dir, 2500, NEGATIVE_TTL);
+        char[] big = new char[1000];
+        Arrays.fill(big, 'x');
+        Page a = addPage("/a", "a" + new String(big));
+        Page b = addPage("/b", "b" + new String(big));
+        Page c = addPage("/c", "c" + new String(big));
+        for (Page page : Arrays.asList(a, b, c))
+            page.cacheControl = "max-age=600";
+
+        get(cache, "/a");
+        pause();
+        get(cache, "/b");
+        pause();
+        // a is now more recently used than b
+        get(cache, "/a");
+        pause();
+        get(cache, "/c");
+
+        assertEquals(a.body, get(cache, "/a"));
+        assertEquals(1, a.requests);
+        assertEquals(c.body, get(cache, "/c"));
+        assertEquals(1, c.requests);
+        assertEquals(b.body, get(cache, "/b"));
+        assertEquals(2, b.requests);
+    }
+
+    public void testLargerThanCache() throws Exception {
+        HttpCache cache = new HttpCache(dir, 100, NEGATIVE_TTL);
+        char[] big = new char[1000];
+        Arrays.fill(big, 'x');
+        Page page = addPage("/puz", new String(big));
+        page.etag = ETAG;
+
+        assertEquals(page.body, get(cache, "/puz"));
+        assertEquals(page.body, get(cache, "/puz"));
+    }
+
+    private Page addPage(String path, String body) {
+        Page page = new Page();
+        page.body = body;
+        pages.put(path, page);
+        return page;
+    }
+
+    private String get(HttpCache cache, String path) throws IOException {
+        URL url = new URL(
+            "http://localhost:" + server.getAddress().getPort() + path
+        );
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = cache.getInputStream(url.openConnection())) {
+            IO.copyStream(is, baos);
+        }
+        return new String(baos.toByteArray(), UTF8);
+    }
+
+    private void assertNotFound(HttpCache cache, String path)
+            throws IOException {
+        try {
+            get(cache, path);
+            fail("Expected not found: " + path);
+        } catch (FileNotFoundException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Make sure the next file use has a later modified time
+     */
+    private static void pause() throws InterruptedException {
+        Thread.sleep(50);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Page page = pages.get(exchange.getRequestURI().getPath());
+        Headers request = exchange.getRequestHeaders();
+        Headers response = exchange.getResponseHeaders();
+
+        synchronized (this) {
+            if (page == null || page.body == null) {
+                if (page != null)
+                    page.requests += 1;
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+
+            page.requests += 1;
+            page.ifNoneMatch = request.getFirst("If-None-Match");
+            page.ifModifiedSince = request.getFirst("If-Modified-Since");
+
+            if (page.etag != null)
+                response.set("ETag", page.etag);
+            if (page.lastModified != null)
+                response.set("Last-Modified", page.lastModified);
+            if (page.cacheControl != null)
+                response.set("Cache-Control", page.cacheControl);
+
+            boolean notModified
+                = (page.etag != null && page.etag.equals(page.ifNoneMatch))
+                    || (page.lastModified != null
+                        && page.lastModified.equals(page.ifModifiedSince));
+            if (notModified) {
+                page.notModified += 1;
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+        }
+
+        byte[] body = page.body.getBytes(UTF8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    /**
+     * What the server sends for a path and what it was asked
+     *
+     * A null body is a 404.
+     */
+    private static class Page {
+        String body;
+        String etag;
+        String lastModified;
+        String cacheControl;
+        int requests;
+        int notModified;
+        String ifNoneMatch;
+        String ifModifiedSince;
+    }
+}
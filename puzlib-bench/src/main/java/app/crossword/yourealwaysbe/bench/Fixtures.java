@@ -0,0 +1,49 @@
+package app.crossword.yourealwaysbe.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import app.crossword.yourealwaysbe.io.IO;
+
+/**
+ * Access to the puzlib test fixtures for benchmarking
+ *
+ * Fixtures are read fully into memory once so that benchmarks measure
+ * parsing rather than resource loading.
+ */
+public class Fixtures {
+    public static final String PUZ = "/test.puz";
+    public static final String PUZ_GEXT = "/2010-7-4-LosAngelesTimes.puz";
+    public static final String PUZ_SCRAMBLED = "/puz_110523margulies.puz";
+    public static final String IPUZ = "/test.ipuz";
+    public static final String JPZ = "/lat_puzzle_111128.xml";
+    public static final String UCLICK = "/crnet091215-data.xml";
+    public static final String BRAINS_ONLY = "/brainsonly.txt";
+    public static final String KING_FEATURES = "/premiere-20100704.txt";
+    public static final String GUARDIAN = "/guardian.json";
+    public static final String AMUSE_LABS = "/amuselabs.json";
+
+    private Fixtures() { }
+
+    /**
+     * Read the named classpath resource into a byte array
+     */
+    public static byte[] load(String resource) throws IOException {
+        try (
+            InputStream is = Fixtures.class.getResourceAsStream(resource)
+        ) {
+            if (is == null)
+                throw new IOException("No such fixture " + resource);
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            IO.copyStream(is, baos);
+            return baos.toByteArray();
+        }
+    }
+
+    public static InputStream stream(byte[] data) {
+        return new ByteArrayInputStream(data);
+    }
+}
@@ -0,0 +1,88 @@
+package app.crossword.yourealwaysbe.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import app.crossword.yourealwaysbe.io.IO;
+import app.crossword.yourealwaysbe.io.IPuzIO;
+import app.crossword.yourealwaysbe.puz.Puzzle;
+import app.crossword.yourealwaysbe.puz.PuzzleMeta;
+
+/**
+ * Cost of getting browse list meta data for .puz/.forkyz and .ipuz
+ *
+ * Compares loading the full puzzle with reading only the meta data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetaBenchmarks {
+    private byte[] puz;
+    private byte[] meta;
+    private byte[] ipuz;
+
+    @Setup
+    public void setup() throws Exception {
+        Puzzle p = IO.loadNative(Fixtures.stream(Fixtures.load(Fixtures.PUZ)));
+        p.setSource("Bench");
+        p.setDate(LocalDate.now());
+
+        ByteArrayOutputStream puzOS = new ByteArrayOutputStream();
+        ByteArrayOutputStream metaOS = new ByteArrayOutputStream();
+        IO.save(p, puzOS, metaOS);
+
+        puz = puzOS.toByteArray();
+        meta = metaOS.toByteArray();
+
+        ipuz = Fixtures.load(Fixtures.IPUZ);
+    }
+
+    @Benchmark
+    public void puzFullLoad(Blackhole bh) throws Exception {
+        Puzzle p = IO.load(
+            new DataInputStream(Fixtures.stream(puz)),
+            new DataInputStream(Fixtures.stream(meta))
+        );
+        bh.consume(p.getTitle());
+        bh.consume(p.getPercentComplete());
+        bh.consume(p.getPercentFilled());
+    }
+
+    @Benchmark
+    public PuzzleMeta puzMetaOnly() throws Exception {
+        return IO.loadMeta(
+            new DataInputStream(Fixtures.stream(puz)),
+            new DataInputStream(Fixtures.stream(meta))
+        );
+    }
+
+    @Benchmark
+    public void ipuzFullLoad(Blackhole bh) throws Exception {
+        Puzzle p = IPuzIO.readPuzzle(Fixtures.stream(ipuz));
+        bh.consume(p.getTitle());
+        bh.consume(p.getPercentComplete());
+        bh.consume(p.getPercentFilled());
+    }
+
+    @Benchmark
+    public PuzzleMeta ipuzMetaOnly() throws Exception {
+        return IPuzIO.readMeta(Fixtures.stream(ipuz));
+    }
+}
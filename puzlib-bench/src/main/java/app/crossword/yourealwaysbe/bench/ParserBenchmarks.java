@@ -0,0 +1,111 @@
+package app.crossword.yourealwaysbe.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.crossword.yourealwaysbe.io.AmuseLabsJSONIO;
+import app.crossword.yourealwaysbe.io.BrainsOnlyIO;
+import app.crossword.yourealwaysbe.io.GuardianJSONIO;
+import app.crossword.yourealwaysbe.io.IO;
+import app.crossword.yourealwaysbe.io.IPuzIO;
+import app.crossword.yourealwaysbe.io.JPZIO;
+import app.crossword.yourealwaysbe.io.KingFeaturesPlaintextIO;
+import app.crossword.yourealwaysbe.io.UclickXMLIO;
+import app.crossword.yourealwaysbe.puz.Puzzle;
+
+/**
+ * Throughput and latency of each puzzle parser on its test fixture
+ *
+ * Run with "-prof gc" (the default for the jmh gradle task) to get
+ * gc.alloc.rate.norm, the bytes allocated per parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmarks {
+    private byte[] puz;
+    private ByteBuffer puzDirect;
+    private byte[] ipuz;
+    private byte[] jpz;
+    private byte[] uclick;
+    private byte[] brainsOnly;
+    private byte[] kingFeatures;
+    private byte[] guardian;
+    private byte[] amuseLabs;
+
+    @Setup
+    public void setup() throws Exception {
+        puz = Fixtures.load(Fixtures.PUZ);
+        puzDirect = ByteBuffer.allocateDirect(puz.length);
+        puzDirect.put(puz);
+        puzDirect.flip();
+        ipuz = Fixtures.load(Fixtures.IPUZ);
+        jpz = Fixtures.load(Fixtures.JPZ);
+        uclick = Fixtures.load(Fixtures.UCLICK);
+        brainsOnly = Fixtures.load(Fixtures.BRAINS_ONLY);
+        kingFeatures = Fixtures.load(Fixtures.KING_FEATURES);
+        guardian = Fixtures.load(Fixtures.GUARDIAN);
+        amuseLabs = Fixtures.load(Fixtures.AMUSE_LABS);
+    }
+
+    @Benchmark
+    public Puzzle puz() throws Exception {
+        return IO.loadNative(Fixtures.stream(puz));
+    }
+
+    @Benchmark
+    public Puzzle puzBuffer() throws Exception {
+        return IO.loadNative(puzDirect);
+    }
+
+    @Benchmark
+    public Puzzle ipuz() throws Exception {
+        return IPuzIO.readPuzzle(Fixtures.stream(ipuz));
+    }
+
+    @Benchmark
+    public Puzzle jpz() throws Exception {
+        return JPZIO.readPuzzle(Fixtures.stream(jpz));
+    }
+
+    @Benchmark
+    public Puzzle uclick() throws Exception {
+        return UclickXMLIO.parsePuzzle(Fixtures.stream(uclick));
+    }
+
+    @Benchmark
+    public Puzzle brainsOnly() throws Exception {
+        return BrainsOnlyIO.parse(Fixtures.stream(brainsOnly));
+    }
+
+    @Benchmark
+    public Puzzle kingFeatures() throws Exception {
+        return KingFeaturesPlaintextIO.parsePuzzle(
+            Fixtures.stream(kingFeatures)
+        );
+    }
+
+    @Benchmark
+    public Puzzle guardian() throws Exception {
+        return GuardianJSONIO.readPuzzle(Fixtures.stream(guardian));
+    }
+
+    @Benchmark
+    public Puzzle amuseLabs() throws Exception {
+        return AmuseLabsJSONIO.readPuzzle(Fixtures.stream(amuseLabs));
+    }
+}
@@ -0,0 +1,99 @@
+package app.crossword.yourealwaysbe.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import app.crossword.yourealwaysbe.puz.Box;
+import app.crossword.yourealwaysbe.puz.Clue;
+import app.crossword.yourealwaysbe.puz.Playboard;
+import app.crossword.yourealwaysbe.puz.Playboard.Position;
+import app.crossword.yourealwaysbe.puz.Puzzle;
+
+/**
+ * Cost of the word lookups done on every keystroke
+ *
+ * Uses generated square grids with few blocks so words are long, as in
+ * large variety puzzles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayboardBenchmarks {
+    @Param({ "15", "27" })
+    private int size;
+
+    private Playboard board;
+    private Position wordEnd;
+
+    @Setup
+    public void setup() {
+        board = new Playboard(makePuzzle(size));
+        // end of the first across word, so scans back cover the word
+        wordEnd = new Position(size - 1, 0);
+    }
+
+    @Benchmark
+    public void currentWord(Blackhole bh) {
+        board.setHighlightLetter(wordEnd);
+        board.setAcross(true);
+        bh.consume(board.getCurrentWord());
+        bh.consume(board.getCurrentWordBoxes());
+        bh.consume(board.getClueNumber());
+    }
+
+    @Benchmark
+    public void typeWord(Blackhole bh) {
+        board.setHighlightLetter(new Position(0, 0));
+        board.setAcross(true);
+        for (int i = 0; i < size; i++)
+            bh.consume(board.playLetter('A'));
+    }
+
+    /**
+     * Square grid with a sparse pattern of blocks and a clue for
+     * every numbered box
+     */
+    private static Puzzle makePuzzle(int size) {
+        Box[][] boxes = new Box[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (row % 6 == 5 && col % 6 == 2)
+                    continue;
+                Box box = new Box();
+                box.setSolution('A');
+                boxes[row][col] = box;
+            }
+        }
+
+        Puzzle puz = new Puzzle();
+        puz.setBoxes(boxes);
+
+        for (Box[] row : boxes) {
+            for (Box box : row) {
+                if (box == null)
+                    continue;
+                if (box.isAcross())
+                    puz.addClue(new Clue(box.getClueNumber(), true, "A"));
+                if (box.isDown())
+                    puz.addClue(new Clue(box.getClueNumber(), false, "D"));
+            }
+        }
+
+        return puz;
+    }
+}
@@ -0,0 +1,61 @@
+package app.crossword.yourealwaysbe.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.crossword.yourealwaysbe.io.IO;
+import app.crossword.yourealwaysbe.io.PuzChecksum;
+import app.crossword.yourealwaysbe.puz.Puzzle;
+
+/**
+ * Cost of saving a puzzle in .puz format, as done on every autosave
+ *
+ * The checksum benchmark measures PuzChecksum alone over the bytes of
+ * the saved file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveBenchmarks {
+    @Param({ Fixtures.PUZ, Fixtures.PUZ_GEXT })
+    public String fixture;
+
+    private Puzzle puz;
+    private byte[] saved;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setup() throws Exception {
+        puz = IO.loadNative(Fixtures.stream(Fixtures.load(fixture)));
+        out = new ByteArrayOutputStream();
+        IO.saveNative(puz, out);
+        saved = out.toByteArray();
+    }
+
+    @Benchmark
+    public int saveNative() throws Exception {
+        out.reset();
+        IO.saveNative(puz, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int checksum() {
+        return PuzChecksum.checksum(saved, 0, saved.length, 0);
+    }
+}
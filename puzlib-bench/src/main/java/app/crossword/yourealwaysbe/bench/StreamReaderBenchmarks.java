@@ -0,0 +1,56 @@
+package app.crossword.yourealwaysbe.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.crossword.yourealwaysbe.io.PuzzleStreamReader;
+import app.crossword.yourealwaysbe.puz.Puzzle;
+
+/**
+ * Cost of PuzzleStreamReader finding the right format for each fixture
+ *
+ * Compare with ParserBenchmarks to see the overhead of detecting the
+ * format on top of the parse itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamReaderBenchmarks {
+    @Param({
+        Fixtures.PUZ,
+        Fixtures.JPZ,
+        Fixtures.IPUZ,
+        Fixtures.UCLICK,
+        Fixtures.BRAINS_ONLY,
+        Fixtures.KING_FEATURES,
+        Fixtures.GUARDIAN,
+        Fixtures.AMUSE_LABS
+    })
+    public String fixture;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() throws Exception {
+        data = Fixtures.load(fixture);
+    }
+
+    @Benchmark
+    public Puzzle parseInput() {
+        return PuzzleStreamReader.parseInput(() -> Fixtures.stream(data));
+    }
+}
@@ -0,0 +1,50 @@
+package app.crossword.yourealwaysbe.bench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.crossword.yourealwaysbe.io.IO;
+import app.crossword.yourealwaysbe.io.PuzUnscrambler;
+
+/**
+ * Cost of finding the key of a scrambled puzzle
+ *
+ * The fixture's key is late in the key space so most keys are tried.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnscrambleBenchmarks {
+    private PuzUnscrambler unscrambler;
+
+    @Setup
+    public void setup() throws Exception {
+        unscrambler = new PuzUnscrambler(IO.loadNative(
+            Fixtures.stream(Fixtures.load(Fixtures.PUZ_SCRAMBLED))
+        ));
+    }
+
+    @Benchmark
+    public int findKey() {
+        return unscrambler.findKey();
+    }
+
+    @Benchmark
+    public int findKeyParallel() {
+        return unscrambler.findKey(ForkJoinPool.commonPool());
+    }
+}
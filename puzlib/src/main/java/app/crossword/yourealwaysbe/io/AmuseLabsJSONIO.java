@@ -1,15 +1,15 @@
-
 package app.crossword.yourealwaysbe.io;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
-import org.json.JSONArray;
 import org.json.JSONException;
-import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import app.crossword.yourealwaysbe.puz.Box;
 import app.crossword.yourealwaysbe.puz.Clue;
@@ -18,11 +18,37 @@ import app.crossword.yourealwaysbe.puz.Puzzle;
 /**
  * Read a character stream of JSON data in the format used by the
  * Amuse Labs.
+ *
+ * The JSON is streamed into the puzzle rather than built into
+ * JSONObjects first. It can also be read straight from a crossword
+ * page, where it is base64 encoded in the window.rawc variable.
  */
 public class AmuseLabsJSONIO implements PuzzleParser {
     private static final Logger LOG
         = Logger.getLogger(AmuseLabsJSONIO.class.getCanonicalName());
 
+    private static final String RAWC_MARKER = "window.rawc";
+
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_AUTHOR = "author";
+    private static final String FIELD_COPYRIGHT = "copyright";
+    private static final String FIELD_PUBLISHER = "publisher";
+    private static final String FIELD_PUBLISH_TIME = "publishTime";
+    private static final String FIELD_WIDTH = "w";
+    private static final String FIELD_HEIGHT = "h";
+    private static final String FIELD_BOX = "box";
+    private static final String FIELD_CLUE_NUMS = "clueNums";
+    private static final String FIELD_CELL_INFOS = "cellInfos";
+    private static final String FIELD_CELL_X = "x";
+    private static final String FIELD_CELL_Y = "y";
+    private static final String FIELD_IS_CIRCLED = "isCircled";
+    private static final String FIELD_PLACED_WORDS = "placedWords";
+    private static final String FIELD_CLUE_NUM = "clueNum";
+    private static final String FIELD_ACROSS = "acrossNotDown";
+    private static final String FIELD_CLUE = "clue";
+
+    private static final long MILLIS_PER_DAY = 1000 * 60 * 60 * 24;
+
     /**
      * An unfancy exception indicating error while parsing
      */
@@ -37,8 +63,7 @@ public class AmuseLabsJSONIO implements PuzzleParser {
 
     public static Puzzle readPuzzle(InputStream is) throws IOException {
         try {
-            JSONObject json = new JSONObject(new JSONTokener(is));
-            return readPuzzleFromJSON(json);
+            return new PuzzleReader(new JSONStreamReader(is)).read();
         } catch (AmuseLabsFormatException | JSONException e) {
             LOG.severe("Could not read Amuse Labs JSON: " + e);
             return null;
@@ -47,125 +72,440 @@ public class AmuseLabsJSONIO implements PuzzleParser {
 
     public static Puzzle readPuzzle(String jsonString) {
         try {
-            JSONObject json = new JSONObject(jsonString);
-            return readPuzzleFromJSON(json);
-        } catch (AmuseLabsFormatException | JSONException e) {
+            return readPuzzle(new ByteArrayInputStream(
+                jsonString.getBytes(Charset.forName("UTF-8"))
+            ));
+        } catch (IOException e) {
             LOG.severe("Could not read Amuse Labs JSON: " + e);
             return null;
         }
     }
 
     /**
-     * Read puzzle from Amuse Labs JSON format
+     * Read the puzzle from an Amuse Labs crossword page
+     *
+     * Finds window.rawc = '&lt;base64&gt;' in the page and decodes the
+     * JSON as it is read, so neither the page nor the JSON is held in
+     * memory.
+     *
+     * With thanks to https://github.com/thisisparker/xword-dl
+     *
+     * @return the puzzle or null if none found
+     */
+    public static Puzzle readPuzzleFromPage(InputStream page)
+            throws IOException {
+        RawcInputStream rawc = new RawcInputStream(page);
+        if (!rawc.find())
+            return null;
+        return readPuzzle(new Base64InputStream(rawc));
+    }
+
+    /**
+     * Streams the top level of the JSON into a Puzzle
+     *
+     * Fields may come in any order, so the grid data is kept until the
+     * end when the dimensions are known.
      */
-    private static Puzzle readPuzzleFromJSON(
-        JSONObject json
-    ) throws JSONException, AmuseLabsFormatException {
-        Puzzle puz = new Puzzle();
+    private static class PuzzleReader {
+        private final JSONStreamReader reader;
+
+        private String title;
+        private String author;
+        private String copyright;
+        private String publisher;
+        private Long publishTime;
+        private int width = -1;
+        private int height = -1;
+        // indexed column then row
+        private List<String[]> box;
+        private List<int[]> clueNums;
+        // x, y pairs
+        private List<int[]> circled = new ArrayList<>();
+        private List<Clue> clues;
+
+        public PuzzleReader(JSONStreamReader reader) {
+            this.reader = reader;
+        }
 
-        puz.setTitle(json.getString("title"));
-        puz.setAuthor(json.getString("author"));
-        puz.setCopyright(json.getString("copyright"));
-        puz.setSource(json.getString("publisher"));
+        public Puzzle read() throws AmuseLabsFormatException {
+            reader.beginObject();
+            while (reader.hasNext())
+                readField(reader.nextName());
+            reader.endObject();
 
-        long epochMillis = json.getLong("publishTime");
-        puz.setDate(LocalDate.ofEpochDay(epochMillis / (1000 * 60 * 60 * 24)));
+            Puzzle puz = new Puzzle();
 
-        try {
-            puz.setBoxes(getBoxes(json));
-        } catch (IllegalArgumentException e) {
-            throw new AmuseLabsFormatException("Could not set grid boxes from data file: " + e.getMessage());
+            puz.setTitle(require(title, FIELD_TITLE));
+            puz.setAuthor(require(author, FIELD_AUTHOR));
+            puz.setCopyright(require(copyright, FIELD_COPYRIGHT));
+            puz.setSource(require(publisher, FIELD_PUBLISHER));
+
+            long epochMillis = require(publishTime, FIELD_PUBLISH_TIME);
+            puz.setDate(LocalDate.ofEpochDay(epochMillis / MILLIS_PER_DAY));
+
+            try {
+                puz.setBoxes(getBoxes());
+            } catch (IllegalArgumentException e) {
+                throw new AmuseLabsFormatException("Could not set grid boxes from data file: " + e.getMessage());
+            }
+
+            for (Clue clue : require(clues, FIELD_PLACED_WORDS))
+                puz.addClue(clue);
+
+            return puz;
         }
 
-        addClues(json, puz);
+        private void readField(String name) throws AmuseLabsFormatException {
+            if (FIELD_TITLE.equals(name)) {
+                title = reader.nextPrimitive();
+            } else if (FIELD_AUTHOR.equals(name)) {
+                author = reader.nextPrimitive();
+            } else if (FIELD_COPYRIGHT.equals(name)) {
+                copyright = reader.nextPrimitive();
+            } else if (FIELD_PUBLISHER.equals(name)) {
+                publisher = reader.nextPrimitive();
+            } else if (FIELD_PUBLISH_TIME.equals(name)) {
+                publishTime = reader.nextLong();
+            } else if (FIELD_WIDTH.equals(name)) {
+                width = reader.nextInt();
+            } else if (FIELD_HEIGHT.equals(name)) {
+                height = reader.nextInt();
+            } else if (FIELD_BOX.equals(name)) {
+                box = nextStringColumns();
+            } else if (FIELD_CLUE_NUMS.equals(name)) {
+                clueNums = nextIntColumns();
+            } else if (FIELD_CELL_INFOS.equals(name)) {
+                readCellInfos();
+            } else if (FIELD_PLACED_WORDS.equals(name)) {
+                readPlacedWords();
+            } else {
+                reader.skipValue();
+            }
+        }
 
-        return puz;
-    }
+        private List<String[]> nextStringColumns() {
+            List<String[]> cols = new ArrayList<>();
+            List<String> col = new ArrayList<>();
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                col.clear();
+                reader.beginArray();
+                while (reader.hasNext())
+                    col.add(reader.nextPrimitive());
+                reader.endArray();
+                cols.add(col.toArray(new String[col.size()]));
+            }
+            reader.endArray();
 
-    private static Box[][] getBoxes(JSONObject json)
-            throws JSONException, AmuseLabsFormatException {
+            return cols;
+        }
 
-        int numRows = json.getInt("h");
-        int numCols = json.getInt("w");
+        private List<int[]> nextIntColumns() {
+            if (reader.peek() != JSONStreamReader.Token.ARRAY) {
+                reader.skipValue();
+                return null;
+            }
 
-        Box[][] boxes = new Box[numRows][numCols];
+            List<int[]> cols = new ArrayList<>();
+            List<Integer> col = new ArrayList<>();
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                col.clear();
+                reader.beginArray();
+                while (reader.hasNext())
+                    col.add(reader.nextInt());
+                reader.endArray();
+
+                int[] values = new int[col.size()];
+                for (int i = 0; i < values.length; i++)
+                    values[i] = col.get(i);
+                cols.add(values);
+            }
+            reader.endArray();
 
-        JSONArray cols = json.getJSONArray("box");
-        for (int col = 0; col < cols.length(); col++) {
-            JSONArray rows = cols.getJSONArray(col);
-            for (int row = 0; row < rows.length(); row++) {
-                String entryString = rows.getString(row);
+            return cols;
+        }
 
-                if (entryString.length() != 1) {
-                    throw new AmuseLabsFormatException(
-                        "Don't know what to do with box contents "
-                            + "that is not a single character: "
-                            + entryString
-                    );
+        private void readCellInfos() {
+            if (reader.peek() != JSONStreamReader.Token.ARRAY) {
+                reader.skipValue();
+                return;
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                int x = -1;
+                int y = -1;
+                boolean isCircled = false;
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (FIELD_CELL_X.equals(name))
+                        x = reader.nextInt();
+                    else if (FIELD_CELL_Y.equals(name))
+                        y = reader.nextInt();
+                    else if (FIELD_IS_CIRCLED.equals(name))
+                        isCircled = reader.nextBoolean();
+                    else
+                        reader.skipValue();
                 }
+                reader.endObject();
 
-                char entry = entryString.charAt(0);
+                if (isCircled)
+                    circled.add(new int[] { x, y });
+            }
+            reader.endArray();
+        }
 
-                if (entry != 0) {
-                    boxes[row][col] = new Box();
-                    boxes[row][col].setSolution(entry);
+        private void readPlacedWords() throws AmuseLabsFormatException {
+            clues = new ArrayList<>();
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                Integer num = null;
+                Boolean across = null;
+                String hint = null;
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (FIELD_CLUE_NUM.equals(name))
+                        num = reader.nextInt();
+                    else if (FIELD_ACROSS.equals(name))
+                        across = reader.nextBoolean();
+                    else if (FIELD_CLUE.equals(name))
+                        hint = nextClueText();
+                    else
+                        reader.skipValue();
                 }
+                reader.endObject();
+
+                clues.add(new Clue(
+                    require(num, FIELD_CLUE_NUM),
+                    require(across, FIELD_ACROSS),
+                    require(hint, FIELD_CLUE)
+                ));
             }
+            reader.endArray();
+        }
+
+        /**
+         * Read the clue text from a clue object
+         */
+        private String nextClueText() {
+            if (reader.peek() != JSONStreamReader.Token.OBJECT) {
+                reader.skipValue();
+                return null;
+            }
+
+            String hint = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (FIELD_CLUE.equals(name))
+                    hint = reader.nextPrimitive();
+                else
+                    reader.skipValue();
+            }
+            reader.endObject();
+
+            return hint;
         }
 
-        cols = json.optJSONArray("clueNums");
-        if (cols != null) {
-            for (int col = 0; col < cols.length(); col++) {
-                JSONArray rows = cols.getJSONArray(col);
-                for (int row = 0; row < rows.length(); row++) {
-                    int clueNum = rows.getInt(row);
+        private Box[][] getBoxes() throws AmuseLabsFormatException {
+            if (width < 0 || height < 0) {
+                throw new AmuseLabsFormatException(
+                    "No puzzle dimensions given"
+                );
+            }
+
+            Box[][] boxes = new Box[height][width];
+
+            List<String[]> cols = require(box, FIELD_BOX);
+            checkColumns(cols.size(), width);
+            for (int col = 0; col < cols.size(); col++) {
+                String[] rows = cols.get(col);
+                checkColumns(rows.length, height);
+                for (int row = 0; row < rows.length; row++) {
+                    String entryString = rows[row];
+
+                    if (entryString == null || entryString.length() != 1) {
+                        throw new AmuseLabsFormatException(
+                            "Don't know what to do with box contents "
+                                + "that is not a single character: "
+                                + entryString
+                        );
+                    }
+
+                    char entry = entryString.charAt(0);
+
+                    if (entry != 0) {
+                        boxes[row][col] = new Box();
+                        boxes[row][col].setSolution(entry);
+                    }
+                }
+            }
 
-                    if (clueNum > 0) {
-                        if (boxes[row][col] == null) {
-                            boxes[row][col] = new Box();
+            if (clueNums != null) {
+                checkColumns(clueNums.size(), width);
+                for (int col = 0; col < clueNums.size(); col++) {
+                    int[] rows = clueNums.get(col);
+                    checkColumns(rows.length, height);
+                    for (int row = 0; row < rows.length; row++) {
+                        int clueNum = rows[row];
+
+                        if (clueNum > 0) {
+                            if (boxes[row][col] == null) {
+                                boxes[row][col] = new Box();
+                            }
+                            boxes[row][col].setClueNumber(clueNum);
                         }
-                        boxes[row][col].setClueNumber(clueNum);
                     }
                 }
             }
+
+            for (int[] cell : circled) {
+                int col = cell[0];
+                int row = cell[1];
+
+                if (row < 0 || row >= height || col < 0 || col >= width) {
+                    throw new AmuseLabsFormatException(
+                        "Cell info outside grid: " + col + ", " + row
+                    );
+                }
+
+                if (boxes[row][col] == null) {
+                    boxes[row][col] = new Box();
+                }
+                boxes[row][col].setCircled(true);
+            }
+
+            return boxes;
         }
 
-        JSONArray cellInfos = json.optJSONArray("cellInfos");
-        if (cellInfos != null) {
-            for (int i = 0; i < cellInfos.length(); i++) {
-                JSONObject cellInfo = cellInfos.getJSONObject(i);
+        private static void checkColumns(int length, int max)
+                throws AmuseLabsFormatException {
+            if (length > max) {
+                throw new AmuseLabsFormatException(
+                    "Grid data larger than puzzle dimensions"
+                );
+            }
+        }
 
-                int row = cellInfo.getInt("y");
-                int col = cellInfo.getInt("x");
-                boolean circled = cellInfo.optBoolean("isCircled");
+        private static <T> T require(T value, String field)
+                throws AmuseLabsFormatException {
+            if (value == null) {
+                throw new AmuseLabsFormatException(
+                    "No " + field + " given"
+                );
+            }
+            return value;
+        }
+    }
 
-                if (circled) {
-                    if (boxes[row][col] == null) {
-                        boxes[row][col] = new Box();
+    /**
+     * The quoted value of window.rawc in a page
+     *
+     * After find, reads the bytes between the quotes following the
+     * marker, then ends. Pages are ASCII around the marker so bytes are
+     * matched directly.
+     */
+    private static class RawcInputStream extends InputStream {
+        private static final byte[] MARKER
+            = RAWC_MARKER.getBytes(Charset.forName("US-ASCII"));
+        // longest proper prefix of MARKER that is also a suffix, for
+        // each length matched (Knuth-Morris-Pratt)
+        private static final int[] FALLBACK = getFallback(MARKER);
+
+        private final InputStream page;
+        private int quote = -1;
+        private boolean ended = false;
+
+        public RawcInputStream(InputStream page) {
+            this.page = page;
+        }
+
+        /**
+         * Move the stream to the start of the value
+         *
+         * The quoted value must be on the same line as the marker, else
+         * the next marker is looked for (e.g. past an if (window.rawc)
+         * test).
+         *
+         * @return true if found
+         */
+        public boolean find() throws IOException {
+            while (findMarker()) {
+                int c;
+                while ((c = page.read()) >= 0 && c != '\n') {
+                    if (c == '\'' || c == '"') {
+                        quote = c;
+                        return true;
                     }
-                    boxes[row][col].setCircled(true);
                 }
+                if (c < 0)
+                    return false;
             }
+            return false;
         }
 
-        return boxes;
-    }
+        @Override
+        public int read() throws IOException {
+            if (quote < 0 || ended)
+                return -1;
 
-    private static void addClues(JSONObject json, Puzzle puz)
-            throws JSONException {
-        JSONArray entries = json.getJSONArray("placedWords");
+            int c = page.read();
+            if (c < 0 || c == quote) {
+                ended = true;
+                return -1;
+            }
+            return c;
+        }
 
-        if (entries == null)
-            return;
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+
+            int count = 0;
+            while (count < len) {
+                int c = read();
+                if (c < 0)
+                    break;
+                b[off + count++] = (byte) c;
+            }
 
-        for (int i = 0; i < entries.length(); i++) {
-            JSONObject entry = entries.getJSONObject(i);
+            return (count == 0) ? -1 : count;
+        }
 
-            int num = entry.getInt("clueNum");
-            boolean across = entry.getBoolean("acrossNotDown");
-            String clue = entry.getJSONObject("clue").getString("clue");
+        private boolean findMarker() throws IOException {
+            int matched = 0;
+            int c;
+            while ((c = page.read()) >= 0) {
+                while (matched > 0 && c != MARKER[matched])
+                    matched = FALLBACK[matched];
+                if (c == MARKER[matched])
+                    matched += 1;
+                if (matched == MARKER.length)
+                    return true;
+            }
+            return false;
+        }
 
-            puz.addClue(new Clue(num, across, clue));
+        private static int[] getFallback(byte[] pattern) {
+            int[] fallback = new int[pattern.length + 1];
+            int k = 0;
+            for (int i = 1; i < pattern.length; i++) {
+                while (k > 0 && pattern[i] != pattern[k])
+                    k = fallback[k];
+                if (pattern[i] == pattern[k])
+                    k += 1;
+                fallback[i + 1] = k;
+            }
+            return fallback;
         }
     }
 }
@@ -0,0 +1,141 @@
+package app.crossword.yourealwaysbe.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes a stream of base64 text as it is read
+ *
+ * Accepts the standard and URL safe alphabets. Whitespace is skipped
+ * and padding is optional. Decoding stops at padding or the end of the
+ * underlying stream.
+ */
+public class Base64InputStream extends FilterInputStream {
+    private static final int WHITESPACE = -2;
+    private static final int PADDING = -3;
+    private static final int INVALID = -1;
+
+    private static final int[] DECODE = new int[128];
+    static {
+        String alphabet
+            = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        for (int i = 0; i < DECODE.length; i++)
+            DECODE[i] = INVALID;
+        for (int i = 0; i < alphabet.length(); i++)
+            DECODE[alphabet.charAt(i)] = i;
+        DECODE['+'] = DECODE['-'] = 62;
+        DECODE['/'] = DECODE['_'] = 63;
+        DECODE[' '] = DECODE['\t'] = DECODE['\r'] = DECODE['\n'] = WHITESPACE;
+        DECODE['='] = PADDING;
+    }
+
+    // up to three decoded bytes not yet returned
+    private final byte[] decoded = new byte[3];
+    private int decodedPos = 0;
+    private int decodedLen = 0;
+    private boolean finished = false;
+
+    public Base64InputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (decodedPos >= decodedLen && !decodeGroup())
+            return -1;
+        return decoded[decodedPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+
+        int count = 0;
+        while (count < len) {
+            if (decodedPos >= decodedLen && !decodeGroup())
+                break;
+            int n = Math.min(len - count, decodedLen - decodedPos);
+            System.arraycopy(decoded, decodedPos, b, off + count, n);
+            decodedPos += n;
+            count += n;
+        }
+
+        return (count == 0) ? -1 : count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && read() >= 0)
+            skipped += 1;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return decodedLen - decodedPos;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readlimit) { }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("Mark not supported");
+    }
+
+    /**
+     * Decode up to four characters into the decoded buffer
+     *
+     * @return false if there was nothing left to decode
+     */
+    private boolean decodeGroup() throws IOException {
+        if (finished)
+            return false;
+
+        int bits = 0;
+        int numChars = 0;
+        while (numChars < 4) {
+            int c = in.read();
+            if (c < 0)
+                break;
+
+            int value = (c < DECODE.length) ? DECODE[c] : INVALID;
+            if (value == WHITESPACE)
+                continue;
+            if (value == PADDING)
+                break;
+            if (value == INVALID) {
+                throw new IOException(
+                    "Invalid base64 character '" + (char) c + "'"
+                );
+            }
+
+            bits = (bits << 6) | value;
+            numChars += 1;
+        }
+
+        if (numChars < 4)
+            finished = true;
+        if (numChars == 1)
+            throw new IOException("Truncated base64 data");
+
+        // align a short group as if it was padded
+        bits <<= 6 * (4 - numChars);
+
+        decodedLen = (numChars * 3) / 4;
+        decoded[0] = (byte) (bits >> 16);
+        decoded[1] = (byte) (bits >> 8);
+        decoded[2] = (byte) bits;
+        decodedPos = 0;
+
+        return decodedLen > 0;
+    }
+}
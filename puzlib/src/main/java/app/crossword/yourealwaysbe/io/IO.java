@@ -11,11 +11,14 @@ import app.crossword.yourealwaysbe.io.versions.IOVersion;
 import app.crossword.yourealwaysbe.puz.Box;
 import app.crossword.yourealwaysbe.puz.Clue;
 import app.crossword.yourealwaysbe.puz.ClueList;
+import app.crossword.yourealwaysbe.puz.Grid;
 import app.crossword.yourealwaysbe.puz.Note;
 import app.crossword.yourealwaysbe.puz.Puzzle.ClueNumDir;
 import app.crossword.yourealwaysbe.puz.Puzzle;
 import app.crossword.yourealwaysbe.puz.PuzzleMeta;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -24,7 +27,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -35,7 +37,30 @@ public class IO implements PuzzleParser {
     public static final String VERSION_STRING = "1.2";
     private static final Charset CHARSET = Charset.forName("Cp1252");
 
+    // longest string allowed in the string section
+    private static final int MAX_STRING_LENGTH = 4096;
+
+    // CHARSET decoding of each byte value, for decoding grids
+    private static final char[] CHARSET_TABLE = new char[256];
+    static {
+        byte[] allBytes = new byte[CHARSET_TABLE.length];
+        for (int i = 0; i < allBytes.length; i++)
+            allBytes[i] = (byte) i;
+        String decoded = new String(allBytes, CHARSET);
+        for (int i = 0; i < CHARSET_TABLE.length; i++)
+            CHARSET_TABLE[i] = decoded.charAt(i);
+    }
+
+    // .puz header layout
+    private static final int HEADER_LENGTH = 0x34;
+    private static final int FILE_MAGIC_OFFSET = 0x02;
+    private static final int SOLUTION_CHECKSUM_OFFSET = 0x1E;
+    private static final int WIDTH_OFFSET = 0x2C;
+    private static final int HEIGHT_OFFSET = 0x2D;
+    private static final int SCRAMBLED_OFFSET = 0x32;
+
     // Extra Section IDs and markers
+    private static final int EXTRA_MARKER_LENGTH = 4;
     private static final String GEXT_MARKER = "GEXT";
     private static final int GEXT = 0;
 
@@ -60,18 +85,7 @@ public class IO implements PuzzleParser {
 
     public static int cksum_region(byte[] data, int offset, int length,
                                    int cksum) {
-        for (int i = offset; i < (offset + length); i++) {
-            if ((cksum & 0x1) != 0) {
-                cksum = (cksum >> 1) + 0x8000;
-            } else {
-                cksum = cksum >> 1;
-            }
-
-            cksum += (0xFF & data[i]);
-            cksum = cksum & 0xFFFF;
-        }
-
-        return cksum;
+        return PuzChecksum.checksum(data, offset, length, cksum);
     }
 
     public static Puzzle load(DataInputStream puzzleInput,
@@ -94,66 +108,81 @@ public class IO implements PuzzleParser {
     }
 
     public static Puzzle loadNative(DataInputStream input) throws IOException {
-        Puzzle puz = new Puzzle();
-
-        input.skipBytes(0x2);
-
-        byte[] fileMagic = new byte[FILE_MAGIC.length()];
-
-        input.read(fileMagic, 0, fileMagic.length);
-
-        // check that this is a puz file
-        if (!FILE_MAGIC.equals(new String(fileMagic, CHARSET)))
-            return  null;
+        NativeHeader header = readNativeHeader(input);
+        if (header == null)
+            return null;
 
-        // done in two steps to match saveNative method
-        input.skip(1);
-        input.skipBytes(0xA);
+        byte[] grids = new byte[2 * header.width * header.height];
+        input.readFully(grids);
 
-        byte[] versionString = new byte[3];
-
-        for (int i = 0; i < versionString.length; i++) {
-            versionString[i] = input.readByte();
-        }
+        // Strings and extra sections are the rest of the file, read in
+        // one go and decode strings directly from the buffer
+        return readNative(
+            header, ByteBuffer.wrap(grids), ByteBuffer.wrap(readRemaining(input))
+        );
+    }
 
-        input.skip(1);
+    /**
+     * Read a .puz puzzle from a buffer
+     *
+     * Reads from the buffer's position to its limit using absolute
+     * offsets, so heap, direct and memory mapped buffers are parsed
+     * without copying them through a stream. The buffer's position is
+     * not changed. Checks are the same as for loadNative(InputStream).
+     *
+     * @return the puzzle or null if not a .puz file
+     */
+    public static Puzzle loadNative(ByteBuffer data) throws IOException {
+        ByteBuffer buffer = data.slice();
 
-        input.skipBytes(2);
-        puz.setSolutionChecksum(Short.reverseBytes(input.readShort()));
+        NativeHeader header = readNativeHeader(buffer);
+        if (header == null)
+            return null;
 
-        input.skipBytes(0xC);
+        int gridsLength = 2 * header.width * header.height;
+        if (buffer.limit() < HEADER_LENGTH + gridsLength)
+            throw new EOFException("Grids run past end of puzzle data");
 
-        int width = 0xFFFF & input.readByte();
-        int height = 0xFFFF & input.readByte();
+        return readNative(
+            header,
+            slice(buffer, HEADER_LENGTH, gridsLength),
+            slice(buffer, HEADER_LENGTH + gridsLength, -1)
+        );
+    }
 
-        // read/skip number of clues
-        input.readShort();
+    /**
+     * Build the puzzle from the sections after the header
+     *
+     * @param grids the solution then response grids
+     * @param rest the strings and extra sections
+     */
+    private static Puzzle readNative(
+        NativeHeader header, ByteBuffer grids, ByteBuffer rest
+    ) throws IOException {
+        int width = header.width;
+        int height = header.height;
+        int size = width * height;
 
-        input.skipBytes(2);
-        puz.setScrambled(input.readShort() != 0);
+        Puzzle puz = new Puzzle();
+        puz.setSolutionChecksum(header.solutionChecksum);
+        puz.setScrambled(header.scrambled);
 
         Box[][] boxes = new Box[height][width];
-        byte[] answerByte = new byte[1];
 
-        for (int x = 0; x < boxes.length; x++) {
-            for (int y = 0; y < boxes[x].length; y++) {
-                answerByte[0] = input.readByte();
-
-                char solution = new String(answerByte, CHARSET.name())
-                        .charAt(0);
+        for (int x = 0, i = 0; x < boxes.length; x++) {
+            for (int y = 0; y < boxes[x].length; y++, i++) {
+                char solution = decodeChar(grids.get(i));
 
                 if (solution != '.') {
                     boxes[x][y] = new Box();
-                    boxes[x][y].setSolution((char) solution);
+                    boxes[x][y].setSolution(solution);
                 }
             }
         }
 
-        for (int x = 0; x < boxes.length; x++) {
-            for (int y = 0; y < boxes[x].length; y++) {
-                answerByte[0] = input.readByte();
-
-                char answer = new String(answerByte, CHARSET.name()).charAt(0);
+        for (int x = 0, i = size; x < boxes.length; x++) {
+            for (int y = 0; y < boxes[x].length; y++, i++) {
+                char answer = decodeChar(grids.get(i));
 
                 if (answer == '.') {
                     continue;
@@ -170,9 +199,11 @@ public class IO implements PuzzleParser {
 
         puz.setBoxes(boxes);
 
-        puz.setTitle(readNullTerminatedString(input));
-        puz.setAuthor(readNullTerminatedString(input));
-        puz.setCopyright(readNullTerminatedString(input));
+        StringTable strings = new StringTable(rest);
+
+        puz.setTitle(strings.next());
+        puz.setAuthor(strings.next());
+        puz.setCopyright(strings.next());
 
         for (int x = 0; x < boxes.length; x++) {
             for (int y = 0; y < boxes[x].length; y++) {
@@ -183,48 +214,90 @@ public class IO implements PuzzleParser {
                 int clueNumber = boxes[x][y].getClueNumber();
 
                 if (boxes[x][y].isAcross() && (clueNumber != 0)) {
-                    String value = readNullTerminatedString(input);
+                    String value = strings.next();
                     puz.addClue(new Clue(clueNumber, true, value));
                 }
 
                 if (boxes[x][y].isDown() && (boxes[x][y].getClueNumber() != 0)) {
-                    String value = readNullTerminatedString(input);
+                    String value = strings.next();
                     puz.addClue(new Clue(clueNumber, false, value));
                 }
             }
         }
 
-        puz.setNotes(readNullTerminatedString(input));
+        puz.setNotes(strings.next());
 
-        boolean eof = false;
+        readExtraSections(rest, strings.getOffset(), puz);
 
-        while (!eof) {
-            try {
-                switch (readExtraSectionType(input)) {
-                    case GEXT:
-                        readGextSection(input, puz);
+        return puz;
+    }
 
-                        break;
+    /**
+     * Read only the meta data of a puzzle and its optional meta file
+     *
+     * As load but without building boxes or clues. Title and author
+     * are taken from the .puz string section and the completion
+     * percentages are counted directly from the grids.
+     *
+     * @param metaInput the .forkyz meta data, may be null
+     * @return the meta data or null if not a .puz file
+     */
+    public static PuzzleMeta loadMeta(
+        DataInputStream puzzleInput, DataInputStream metaInput
+    ) throws IOException {
+        PuzzleMeta meta = (metaInput == null)
+            ? new PuzzleMeta()
+            : readMeta(metaInput);
 
-                    // For reading legacy files only
-                    // info now stored in meta
-                    case ANTS:
-                        loadNotesNative(true, puz, input);
-                        break;
+        return loadNativeMeta(puzzleInput, meta) ? meta : null;
+    }
 
-                    case DNTS:
-                        loadNotesNative(false, puz, input);
-                        break;
+    /**
+     * Fill meta with the .puz data used for listing puzzles
+     *
+     * @return false if not a .puz file
+     */
+    private static boolean loadNativeMeta(
+        DataInputStream input, PuzzleMeta meta
+    ) throws IOException {
+        NativeHeader header = readNativeHeader(input);
+        if (header == null)
+            return false;
 
-                    default:
-                        skipExtraSection(input);
-                }
-            } catch (EOFException e) {
-                eof = true;
-            }
+        int size = header.width * header.height;
+        byte[] solution = new byte[size];
+        byte[] response = new byte[size];
+
+        input.readFully(solution);
+        input.readFully(response);
+
+        int total = 0;
+        int correct = 0;
+        int filled = 0;
+
+        for (int i = 0; i < size; i++) {
+            char sol = decodeChar(solution[i]);
+            if (sol == '.')
+                continue;
+
+            total++;
+
+            char resp = decodeChar(response[i]);
+            if (resp == '-' || resp == '.')
+                resp = Box.BLANK;
+
+            if (resp == sol)
+                correct++;
+            if (resp != Box.BLANK)
+                filled++;
         }
 
-        return puz;
+        meta.percentComplete = (total == 0) ? 0 : (correct * 100) / total;
+        meta.percentFilled = (total == 0) ? 0 : (filled * 100) / total;
+        meta.title = readNullTerminatedString(input);
+        meta.author = readNullTerminatedString(input);
+
+        return true;
     }
 
     public static void readCustom(Puzzle puz, DataInputStream is)
@@ -234,46 +307,84 @@ public class IO implements PuzzleParser {
         v.read(puz, is);
     }
 
-    public static int readExtraSectionType(DataInputStream input)
-            throws IOException {
-        byte[] title = new byte[4];
+    /**
+     * Read the extra sections from offset to the end of data
+     *
+     * Sections are a four letter marker, a little endian length and
+     * checksum, then the data and a null. Unknown sections are skipped
+     * and reading stops at a section that runs past the end.
+     */
+    private static void readExtraSections(
+        ByteBuffer data, int offset, Puzzle puz
+    ) throws IOException {
+        int limit = data.limit();
+
+        while (offset + EXTRA_MARKER_LENGTH <= limit) {
+            int type = getExtraSectionType(data, offset);
+            offset += EXTRA_MARKER_LENGTH;
+
+            // For reading legacy files only, info now stored in meta.
+            // These have no length so are read as a stream.
+            if (type == ANTS || type == DNTS) {
+                ByteBuffer notes = slice(data, offset, -1);
+                DataInputStream input = new DataInputStream(
+                    new ByteBufferInputStream(notes)
+                );
+                try {
+                    loadNotesNative(type == ANTS, puz, input);
+                } catch (EOFException e) {
+                    return;
+                }
+                offset = limit - input.available();
+                continue;
+            }
 
-        for (int i = 0; i < title.length; i++) {
-            title[i] = input.readByte();
-        }
+            if (offset + 4 > limit)
+                return;
+
+            int length = Short.reverseBytes(data.getShort(offset)) & 0xFFFF;
+            // skip length and checksum
+            offset += 4;
 
-        String section = new String(title);
+            if (type == GEXT)
+                readGextSection(data, offset, length, puz);
 
-        if (GEXT_MARKER.equals(section)) {
+            // data and null terminator
+            offset += length + 1;
+        }
+    }
+
+    private static int getExtraSectionType(ByteBuffer data, int offset) {
+        if (matches(data, offset, GEXT_MARKER))
             return GEXT;
-        } else if (ANTS_MARKER.equals(section)) {
+        else if (matches(data, offset, ANTS_MARKER))
             return ANTS;
-        } else if (DNTS_MARKER.equals(section)) {
+        else if (matches(data, offset, DNTS_MARKER))
             return DNTS;
-        }
-
-        return -1;
+        else
+            return -1;
     }
 
-    public static void readGextSection(DataInputStream input, Puzzle puz)
-            throws IOException {
-        input.skipBytes(4);
+    private static void readGextSection(
+        ByteBuffer data, int offset, int length, Puzzle puz
+    ) {
+        Grid grid = puz.getGrid();
+        int end = Math.min(offset + length, data.limit());
 
-        Box[][] boxes = puz.getBoxes();
+        for (int x = 0; x < grid.getHeight(); x++) {
+            for (int y = 0; y < grid.getWidth(); y++, offset++) {
+                if (offset >= end)
+                    return;
 
-        for (int x = 0; x < boxes.length; x++) {
-            for (int y = 0; y < boxes[x].length; y++) {
-                byte gextInfo = input.readByte();
+                byte gextInfo = data.get(offset);
 
                 if ((gextInfo & GEXT_SQUARE_CIRCLED) != 0) {
-                    if (boxes[x][y] != null) {
-                        boxes[x][y].setCircled(true);
+                    if (grid.hasBox(x, y)) {
+                        grid.setCircled(x, y, true);
                     }
                 }
             }
         }
-
-        input.skipBytes(1);
     }
 
     public static PuzzleMeta readMeta(InputStream is) throws IOException {
@@ -297,13 +408,13 @@ public class IO implements PuzzleParser {
                 baos.write(nextByte);
             }
 
-            if (baos.size() > 4096) {
+            if (baos.size() > MAX_STRING_LENGTH) {
                 throw new IOException("Run on string!");
             }
         }
 
         return (baos.size() == 0) ? null : new String(baos.toByteArray(),
-                CHARSET.name());
+                CHARSET);
     }
 
     public static void save(
@@ -337,181 +448,139 @@ public class IO implements PuzzleParser {
     public static void saveNative(Puzzle puz, DataOutputStream dos)
             throws IOException {
         /*
-         * We write the puzzle to a temporary output stream, with 0 entered for
-         * any checksums. Once we have this written out, we can calculate all of
-         * the checksums and write the file to the original output stream.
+         * The checksums are in the header before the data they cover,
+         * so the data is encoded first, checksummed as it goes, and
+         * then written after the header without building a copy of
+         * the whole file.
          */
-        ByteArrayOutputStream tmp = new ByteArrayOutputStream();
-        DataOutputStream tmpDos = new DataOutputStream(tmp);
-
-        tmpDos.writeShort(0);
-
-        tmpDos.writeBytes(FILE_MAGIC);
-        tmpDos.writeByte(0);
-
-        tmpDos.write(new byte[10]);
-
-        tmpDos.writeBytes(VERSION_STRING);
-        tmpDos.writeByte(0);
-
-        tmpDos.write(new byte[2]);
-
-        tmpDos.writeShort(Short.reverseBytes(puz.getSolutionChecksum()));
-
-        tmpDos.write(new byte[0xC]);
-
         int width = puz.getWidth();
         int height = puz.getHeight();
         int numberOfBoxes = width * height;
-
-        tmpDos.writeByte(width);
-        tmpDos.writeByte(height);
-
         int numberOfClues = puz.getNumberOfClues();
-
-        tmpDos.writeShort(Short.reverseBytes((short) numberOfClues));
-        tmpDos.writeShort(Short.reverseBytes((short) 1));
-
         short scrambled = puz.isScrambled() ? (short) 4 : (short) 0;
-        tmpDos.writeShort(Short.reverseBytes(scrambled));
-
-        Box[][] boxes = puz.getBoxes();
-        byte[] gextSection = null;
 
+        Grid puzGrid = puz.getGrid();
         boolean hasGEXT = puz.hasCircled();
 
-        if (hasGEXT) {
-            gextSection = new byte[numberOfBoxes];
-        }
+        byte[] solution = new byte[numberOfBoxes];
+        byte[] grid = new byte[numberOfBoxes];
+        byte[] gextSection = hasGEXT ? new byte[numberOfBoxes] : null;
 
-        for (int x = 0; x < boxes.length; x++) {
-            for (int y = 0; y < boxes[x].length; y++) {
-                if (boxes[x][y] == null) {
-                    tmpDos.writeByte('.');
+        for (int x = 0; x < height; x++) {
+            for (int y = 0; y < width; y++) {
+                int index = (width * x) + y;
+                if (!puzGrid.hasBox(x, y)) {
+                    solution[index] = '.';
+                    grid[index] = '.';
                 } else {
-                    byte val = (byte) boxes[x][y].getSolution(); // Character.toString().getBytes("Cp1252")[0];
-
-                    if (hasGEXT && boxes[x][y].isCircled()) {
-                        gextSection[(width * x) + y] = GEXT_SQUARE_CIRCLED;
-                    }
-
-                    tmpDos.writeByte(val);
+                    solution[index] = (byte) puzGrid.getSolution(x, y);
+                    char response = puzGrid.getResponse(x, y);
+                    grid[index] = (response == Box.BLANK)
+                        ? (byte) '-'
+                        : (byte) response;
+
+                    if (hasGEXT && puzGrid.isCircled(x, y))
+                        gextSection[index] = GEXT_SQUARE_CIRCLED;
                 }
             }
         }
 
-        for (int x = 0; x < boxes.length; x++) {
-            for (int y = 0; y < boxes[x].length; y++) {
-                if (boxes[x][y] == null) {
-                    tmpDos.writeByte('.');
-                } else {
-                    byte val = (byte) boxes[x][y].getResponse(); // Character.toString().getBytes("Cp1252")[0];
-                    tmpDos.writeByte((boxes[x][y].isBlank()) ? '-' : val);
-                }
+        // title, author, copyright, clues, notes
+        List<String> rawClues = getRawClues(puz);
+        byte[][] strings = new byte[4 + rawClues.size()][];
+        int numStrings = 0;
+        strings[numStrings++] = encodeString(puz.getTitle());
+        strings[numStrings++] = encodeString(puz.getAuthor());
+        strings[numStrings++] = encodeString(puz.getCopyright());
+        for (String clue : rawClues)
+            strings[numStrings++] = encodeString(clue);
+        strings[numStrings++] = encodeString(puz.getNotes());
+
+        PuzChecksum cib = new PuzChecksum()
+            .update(width)
+            .update(height)
+            .updateShort(numberOfClues)
+            .updateShort(1)
+            .updateShort(scrambled);
+        PuzChecksum primary = new PuzChecksum(cib.getValue())
+            .update(solution)
+            .update(grid);
+        PuzChecksum sol = new PuzChecksum().update(solution);
+        PuzChecksum part = new PuzChecksum();
+
+        for (int i = 0; i < numStrings; i++) {
+            byte[] string = strings[i];
+            boolean isClue = (i > 2) && (i < (3 + numberOfClues));
+            if (isClue) {
+                primary.update(string);
+                part.update(string);
+            } else if (string.length > 0) {
+                // other strings count their null terminator
+                primary.update(string).update(0);
+                part.update(string).update(0);
             }
         }
 
-        writeNullTerminatedString(tmpDos, puz.getTitle());
-        writeNullTerminatedString(tmpDos, puz.getAuthor());
-        writeNullTerminatedString(tmpDos, puz.getCopyright());
+        int c_cib = cib.getValue();
+        int c_sol = sol.getValue();
+        int c_grid = new PuzChecksum().update(grid).getValue();
+        int c_part = part.getValue();
 
-        for (String clue : getRawClues(puz)) {
-            writeNullTerminatedString(tmpDos, clue);
-        }
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(dos, DEFAULT_BUFFER_SIZE)
+        );
 
-        writeNullTerminatedString(tmpDos, puz.getNotes());
+        out.writeShort(Short.reverseBytes((short) primary.getValue()));
 
-        if (hasGEXT) {
-            tmpDos.writeBytes(GEXT_MARKER);
-            tmpDos.writeShort(Short.reverseBytes((short) numberOfBoxes));
-
-            // Calculate checksum here so we don't need to find this place in
-            // the file later.
-            int c_gext = cksum_region(gextSection, 0, numberOfBoxes, 0);
-            tmpDos.writeShort(Short.reverseBytes((short) c_gext));
-            tmpDos.write(gextSection);
-            tmpDos.writeByte(0);
-        }
+        out.writeBytes(FILE_MAGIC);
+        out.writeByte(0);
 
-        byte[] puzByteArray = tmp.toByteArray();
-        ByteBuffer bb = ByteBuffer.wrap(puzByteArray);
-        bb.order(ByteOrder.LITTLE_ENDIAN);
+        out.writeShort(Short.reverseBytes((short) c_cib));
 
-        // Calculate checksums and write to byte array.
-        int c_cib = cksum_cib(puzByteArray, 0);
-        bb.putShort(0x0E, (short) c_cib);
+        out.writeByte(0x49 ^ (c_cib & 0xFF));
+        out.writeByte(0x43 ^ (c_sol & 0xFF));
+        out.writeByte(0x48 ^ (c_grid & 0xFF));
+        out.writeByte(0x45 ^ (c_part & 0xFF));
+        out.writeByte(0x41 ^ ((c_cib & 0xFF00) >> 8));
+        out.writeByte(0x54 ^ ((c_sol & 0xFF00) >> 8));
+        out.writeByte(0x45 ^ ((c_grid & 0xFF00) >> 8));
+        out.writeByte(0x44 ^ ((c_part & 0xFF00) >> 8));
 
-        int c_primary = cksum_primary_board(puzByteArray, numberOfBoxes,
-                numberOfClues, c_cib);
-        bb.putShort(0, (short) c_primary);
+        out.writeBytes(VERSION_STRING);
+        out.writeByte(0);
 
-        int c_sol = cksum_solution(puzByteArray, numberOfBoxes, 0);
-        int c_grid = cksum_grid(puzByteArray, numberOfBoxes, 0);
-        int c_part = cksum_partial_board(puzByteArray, numberOfBoxes,
-                numberOfClues, 0);
+        out.write(new byte[2]);
 
-        bb.position(0x10);
-        bb.put((byte) (0x49 ^ (c_cib & 0xFF)));
-        bb.put((byte) (0x43 ^ (c_sol & 0xFF)));
-        bb.put((byte) (0x48 ^ (c_grid & 0xFF)));
-        bb.put((byte) (0x45 ^ (c_part & 0xFF)));
-        bb.put((byte) (0x41 ^ ((c_cib & 0xFF00) >> 8)));
-        bb.put((byte) (0x54 ^ ((c_sol & 0xFF00) >> 8)));
-        bb.put((byte) (0x45 ^ ((c_grid & 0xFF00) >> 8)));
-        bb.put((byte) (0x44 ^ ((c_part & 0xFF00) >> 8)));
+        out.writeShort(Short.reverseBytes(puz.getSolutionChecksum()));
 
-        // Dump byte array to output stream.
-        dos.write(puzByteArray);
-    }
+        out.write(new byte[0xC]);
 
-    public static void skipExtraSection(DataInputStream input)
-            throws IOException {
-        short numBytes = Short.reverseBytes(input.readShort());
-        input.skipBytes(2); // checksum
-        input.skipBytes(numBytes); // data
-        input.skipBytes(1); // null terminator
-    }
+        out.writeByte(width);
+        out.writeByte(height);
+        out.writeShort(Short.reverseBytes((short) numberOfClues));
+        out.writeShort(Short.reverseBytes((short) 1));
+        out.writeShort(Short.reverseBytes(scrambled));
 
-    /**
-     * Attempts to unscramble the solution using the input key. Modifications to
-     * the solution array occur in place. If true, the unscrambled solution
-     * checksum is valid.
-     */
-    public static boolean tryUnscramble(Puzzle p, int key_int, byte[] solution) {
-        p.unscrambleKey[0] = (key_int / 1000) % 10;
-        p.unscrambleKey[1] = (key_int / 100) % 10;
-        p.unscrambleKey[2] = (key_int / 10) % 10;
-        p.unscrambleKey[3] = (key_int / 1) % 10;
-
-        for (int i = 3; i >= 0; i--) {
-            unscrambleString(p, solution);
-            System.arraycopy(p.unscrambleBuf, 0, solution, 0,
-                    p.unscrambleBuf.length);
-            unshiftString(p, solution, p.unscrambleKey[i]);
-
-            for (int j = 0; j < solution.length; j++) {
-                int letter = (solution[j] & 0xFF) - p.unscrambleKey[j % 4];
-
-                if (letter < 65) {
-                    letter += 26;
-                }
+        out.write(solution);
+        out.write(grid);
 
-                solution[j] = (byte) letter;
-            }
+        for (int i = 0; i < numStrings; i++) {
+            out.write(strings[i]);
+            out.writeByte(0);
         }
 
-        if (p.solutionChecksum == (short) IO.cksum_region(solution, 0,
-                solution.length, 0)) {
-            int s = 0;
-            for (int i = 0; i < p.getBoxesList().length; i++) {
-                Box b = p.getBoxesList()[i];
-                if (b != null) {
-                    b.setSolution((char) solution[s++]);
-                }
-            }
-            return true;
+        if (hasGEXT) {
+            out.writeBytes(GEXT_MARKER);
+            out.writeShort(Short.reverseBytes((short) numberOfBoxes));
+            int c_gext = PuzChecksum.checksum(
+                gextSection, 0, numberOfBoxes, 0
+            );
+            out.writeShort(Short.reverseBytes((short) c_gext));
+            out.write(gextSection);
+            out.writeByte(0);
         }
-        return false;
+
+        out.flush();
     }
 
     public static void writeCustom(Puzzle puz, DataOutputStream os)
@@ -521,13 +590,20 @@ public class IO implements PuzzleParser {
         v.write(puz, os);
     }
 
+    /**
+     * Find the key of a scrambled puzzle and unscramble it
+     *
+     * @return true if the key was found
+     */
     public static boolean crack(Puzzle puz) {
-        for (int a = 0; a < 10000; a++) {
-            if (tryUnscramble(puz, a, puz.initializeUnscrambleData())) {
-                return true;
-            }
-        }
-        return false;
+        return PuzUnscrambler.unlock(puz);
+    }
+
+    /**
+     * Bytes of the string in the file's charset, empty for null
+     */
+    private static byte[] encodeString(String value) {
+        return (value == null) ? new byte[0] : value.getBytes(CHARSET);
     }
 
     public static void writeNullTerminatedString(OutputStream os, String value)
@@ -539,76 +615,6 @@ public class IO implements PuzzleParser {
         os.write(0);
     }
 
-    public static void unscrambleString(Puzzle p, byte[] str) {
-        int oddIndex = 0;
-        int evenIndex = str.length / 2;
-
-        for (int i = 0; i < str.length; i++) {
-            if ((i % 2) == 0) {
-                p.unscrambleBuf[evenIndex++] = str[i];
-            } else {
-                p.unscrambleBuf[oddIndex++] = str[i];
-            }
-        }
-    }
-
-    public static void unshiftString(Puzzle p, byte[] str, int keynum) {
-        System.arraycopy(str, str.length - keynum, p.unscrambleTmp, 0, keynum);
-        System.arraycopy(str, 0, str, keynum, str.length - keynum);
-        System.arraycopy(p.unscrambleTmp, 0, str, 0, keynum);
-    }
-
-    private static int cksum_cib(byte[] puzByteArray, int cksum) {
-        return cksum_region(puzByteArray, 0x2C, 8, cksum);
-    }
-
-    private static int cksum_grid(byte[] puzByteArray, int numberOfBoxes,
-                                  int cksum) {
-        return cksum_region(puzByteArray, 0x34 + numberOfBoxes, numberOfBoxes,
-                cksum);
-    }
-
-    private static int cksum_partial_board(byte[] puzByteArray,
-                                           int numberOfBoxes, int numberOfClues, int cksum) {
-        int offset = 0x34 + (2 * numberOfBoxes);
-
-        for (int i = 0; i < (4 + numberOfClues); i++) {
-            int startOffset = offset;
-
-            while (puzByteArray[offset] != 0) {
-                offset++;
-            }
-
-            int length = offset - startOffset;
-
-            if ((i > 2) && (i < (3 + numberOfClues))) {
-                cksum = cksum_region(puzByteArray, startOffset, length, cksum);
-            } else if (length > 0) {
-                cksum = cksum_region(puzByteArray, startOffset, length + 1,
-                        cksum);
-            }
-
-            offset++;
-        }
-
-        return cksum;
-    }
-
-    private static int cksum_primary_board(byte[] puzByteArray,
-                                           int numberOfBoxes, int numberOfClues, int cksum) {
-        cksum = cksum_solution(puzByteArray, numberOfBoxes, cksum);
-        cksum = cksum_grid(puzByteArray, numberOfBoxes, cksum);
-        cksum = cksum_partial_board(puzByteArray, numberOfBoxes, numberOfClues,
-                cksum);
-
-        return cksum;
-    }
-
-    private static int cksum_solution(byte[] puzByteArray, int numberOfBoxes,
-                                      int cksum) {
-        return cksum_region(puzByteArray, 0x34, numberOfBoxes, cksum);
-    }
-
     /**
      * Copies the data from an InputStream object to an OutputStream object.
      *
@@ -704,6 +710,150 @@ public class IO implements PuzzleParser {
         }
     }
 
+    /**
+     * The .puz header fields needed to read the rest of the file
+     */
+    private static class NativeHeader {
+        public int width;
+        public int height;
+        public short solutionChecksum;
+        public boolean scrambled;
+    }
+
+    /**
+     * Read the fixed size .puz header
+     *
+     * @return the header or null if not a .puz file
+     */
+    private static NativeHeader readNativeHeader(DataInputStream input)
+            throws IOException {
+        byte[] header = new byte[HEADER_LENGTH];
+
+        int len = 0;
+        while (len < header.length) {
+            int read = input.read(header, len, header.length - len);
+            if (read < 0)
+                break;
+            len += read;
+        }
+
+        return readNativeHeader(ByteBuffer.wrap(header, 0, len));
+    }
+
+    /**
+     * Read the fixed size .puz header at the start of the buffer
+     *
+     * @return the header or null if not a .puz file
+     */
+    private static NativeHeader readNativeHeader(ByteBuffer data)
+            throws IOException {
+        // check that this is a puz file
+        if (!matches(data, FILE_MAGIC_OFFSET, FILE_MAGIC))
+            return null;
+
+        if (data.limit() < HEADER_LENGTH)
+            throw new EOFException("Puzzle header incomplete");
+
+        NativeHeader header = new NativeHeader();
+
+        header.solutionChecksum
+            = Short.reverseBytes(data.getShort(SOLUTION_CHECKSUM_OFFSET));
+        header.width = 0xFF & data.get(WIDTH_OFFSET);
+        header.height = 0xFF & data.get(HEIGHT_OFFSET);
+        header.scrambled = data.getShort(SCRAMBLED_OFFSET) != 0;
+
+        return header;
+    }
+
+    /**
+     * True if the ASCII text is in data at offset
+     */
+    private static boolean matches(ByteBuffer data, int offset, String text) {
+        if (offset + text.length() > data.limit())
+            return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (data.get(offset + i) != (byte) text.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * View of length bytes of data from offset, zero based
+     *
+     * @param length the number of bytes or -1 for the rest
+     */
+    private static ByteBuffer slice(ByteBuffer data, int offset, int length) {
+        ByteBuffer view = data.duplicate();
+        view.position(offset);
+        if (length >= 0)
+            view.limit(offset + length);
+        return view.slice();
+    }
+
+    private static char decodeChar(byte b) {
+        return CHARSET_TABLE[b & 0xFF];
+    }
+
+    /**
+     * Read all remaining bytes of the input
+     */
+    private static byte[] readRemaining(InputStream input) throws IOException {
+        ByteArrayOutputStream baos
+            = new ByteArrayOutputStream(DEFAULT_BUFFER_SIZE);
+        byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer, 0, buffer.length)) >= 0)
+            baos.write(buffer, 0, read);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Reads consecutive null terminated strings from a buffer
+     */
+    private static class StringTable {
+        private final ByteBuffer data;
+        private int offset = 0;
+
+        public StringTable(ByteBuffer data) {
+            this.data = data;
+        }
+
+        /**
+         * Decode next string
+         *
+         * @return the string, or null if the string is empty
+         */
+        public String next() throws IOException {
+            int start = offset;
+            int end = start;
+            int limit = Math.min(data.limit(), start + MAX_STRING_LENGTH + 1);
+
+            while (end < limit && data.get(end) != 0x0)
+                end++;
+
+            if (end == limit)
+                throw new IOException("Run on string!");
+
+            offset = end + 1;
+
+            if (end == start)
+                return null;
+
+            char[] chars = new char[end - start];
+            for (int i = 0; i < chars.length; i++)
+                chars[i] = decodeChar(data.get(start + i));
+            return new String(chars);
+        }
+
+        /**
+         * Offset of the data after the strings read so far
+         */
+        public int getOffset() {
+            return offset;
+        }
+    }
+
     private static IOVersion getIOVersion(int version) throws IOException {
         switch (version) {
         case 1:
@@ -9,6 +9,7 @@ import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -29,10 +30,12 @@ import org.json.JSONWriter;
 import app.crossword.yourealwaysbe.puz.Box;
 import app.crossword.yourealwaysbe.puz.Clue;
 import app.crossword.yourealwaysbe.puz.ClueList;
+import app.crossword.yourealwaysbe.puz.Grid;
 import app.crossword.yourealwaysbe.puz.Note;
 import app.crossword.yourealwaysbe.puz.Playboard.Position;
 import app.crossword.yourealwaysbe.puz.Puzzle.ClueNumDir;
 import app.crossword.yourealwaysbe.puz.Puzzle;
+import app.crossword.yourealwaysbe.puz.PuzzleMeta;
 
 /**
  * Read IPuz from a stream.
@@ -213,9 +216,32 @@ public class IPuzIO implements PuzzleParser {
         }
     }
 
+    /**
+     * Read only the meta data needed to list the puzzle
+     *
+     * Pulls the top level fields from the stream without building a
+     * JSON tree, boxes or clues. Clues are skipped entirely. Percent
+     * complete and filled are counted from the puzzle, saved and
+     * solution arrays.
+     *
+     * @return the meta data or null if not a supported IPuz file
+     */
+    public static PuzzleMeta readMeta(InputStream is) throws IOException {
+        try {
+            return new MetaReader(new JSONStreamReader(is)).read();
+        } catch (IPuzFormatException | JSONException e) {
+            LOG.severe("Could not read IPuz meta data: " + e);
+            return null;
+        }
+    }
+
     private static void checkIPuzVersion(JSONObject puzJson)
             throws IPuzFormatException {
-        String version = puzJson.getString(FIELD_VERSION);
+        checkIPuzVersion(puzJson.getString(FIELD_VERSION));
+    }
+
+    private static void checkIPuzVersion(String version)
+            throws IPuzFormatException {
         for (String supportedVersion : SUPPORTED_VERSIONS) {
             if (supportedVersion.equalsIgnoreCase(version))
                 return;
@@ -229,8 +255,16 @@ public class IPuzIO implements PuzzleParser {
             throws IPuzFormatException {
         JSONArray kinds = puzJson.getJSONArray(FIELD_KIND);
 
-        for (int i = 0; i < kinds.length(); i++) {
-            String kind = kinds.getString(i);
+        List<String> kindList = new ArrayList<>();
+        for (int i = 0; i < kinds.length(); i++)
+            kindList.add(kinds.getString(i));
+
+        checkIPuzKind(kindList);
+    }
+
+    private static void checkIPuzKind(List<String> kinds)
+            throws IPuzFormatException {
+        for (String kind : kinds) {
             for (String supportedKind : SUPPORTED_KINDS) {
                 if (supportedKind.equalsIgnoreCase(kind))
                     return;
@@ -886,26 +920,27 @@ public class IPuzIO implements PuzzleParser {
 
         JSONArray cellsJson = playData.getJSONArray(FIELD_BOX_EXTRAS);
 
-        Box[][] boxes = puz.getBoxes();
+        Grid grid = puz.getGrid();
 
-        int numRows = Math.min(cellsJson.length(), boxes.length);
+        int numRows = Math.min(cellsJson.length(), grid.getHeight());
 
         for (int row = 0; row < numRows; row++) {
             JSONArray rowJson = cellsJson.getJSONArray(row);
 
-            int numCols = Math.min(rowJson.length(), boxes[row].length);
+            int numCols = Math.min(rowJson.length(), grid.getWidth());
 
             for (int col = 0; col < numCols; col++) {
-                Box box = boxes[row][col];
-                if (box != null) {
+                if (grid.hasBox(row, col)) {
                     JSONObject boxJson = rowJson.getJSONObject(col);
 
                     if (boxJson.has(FIELD_BOX_CHEATED)) {
-                        box.setCheated(boxJson.getBoolean(FIELD_BOX_CHEATED));
+                        grid.setCheated(
+                            row, col, boxJson.getBoolean(FIELD_BOX_CHEATED)
+                        );
                     }
                     if (boxJson.has(FIELD_BOX_RESPONDER)) {
-                        box.setResponder(
-                            boxJson.getString(FIELD_BOX_RESPONDER)
+                        grid.setResponder(
+                            row, col, boxJson.getString(FIELD_BOX_RESPONDER)
                         );
                     }
                 }
@@ -1113,21 +1148,19 @@ public class IPuzIO implements PuzzleParser {
             .array();
         writer.newLine();
 
-        Box[][] boxes = puz.getBoxes();
+        Grid grid = puz.getGrid();
 
-        for (int row = 0; row < boxes.length; row++) {
+        for (int row = 0; row < grid.getHeight(); row++) {
             writer.indent(1)
                 .array();
 
-            for (int col = 0; col < boxes[row].length; col++) {
-                Box box = boxes[row][col];
-
-                if (box == null) {
+            for (int col = 0; col < grid.getWidth(); col++) {
+                if (!grid.hasBox(row, col)) {
                     writer.value(DEFAULT_BLOCK);
                 } else {
-                    int clueNumber = box.getClueNumber();
+                    int clueNumber = grid.getClueNumber(row, col);
 
-                    if (box.isCircled()) {
+                    if (grid.isCircled(row, col)) {
                         writer.object()
                             .key(FIELD_STYLE)
                             .object()
@@ -1165,21 +1198,22 @@ public class IPuzIO implements PuzzleParser {
             .array();
         writer.newLine();
 
-        Box[][] boxes = puz.getBoxes();
+        Grid grid = puz.getGrid();
 
-        for (int row = 0; row < boxes.length; row++) {
+        for (int row = 0; row < grid.getHeight(); row++) {
             writer.indent(1)
                 .array();
 
-            for (int col = 0; col < boxes[row].length; col++) {
-                Box box = boxes[row][col];
-
-                if (box == null)
+            for (int col = 0; col < grid.getWidth(); col++) {
+                if (!grid.hasBox(row, col)) {
                     writer.value(DEFAULT_BLOCK);
-                else if (box.isBlank())
-                    writer.value(DEFAULT_EMPTY_WRITE);
-                else
-                    writer.value(String.valueOf(box.getResponse()));
+                } else {
+                    char response = grid.getResponse(row, col);
+                    if (response == Box.BLANK)
+                        writer.value(DEFAULT_EMPTY_WRITE);
+                    else
+                        writer.value(String.valueOf(response));
+                }
             }
 
             writer.endArray();
@@ -1202,19 +1236,17 @@ public class IPuzIO implements PuzzleParser {
             .array();
         writer.newLine();
 
-        Box[][] boxes = puz.getBoxes();
+        Grid grid = puz.getGrid();
 
-        for (int row = 0; row < boxes.length; row++) {
+        for (int row = 0; row < grid.getHeight(); row++) {
             writer.indent(1)
                 .array();
 
-            for (int col = 0; col < boxes[row].length; col++) {
-                Box box = boxes[row][col];
-
-                if (box == null) {
+            for (int col = 0; col < grid.getWidth(); col++) {
+                if (!grid.hasBox(row, col)) {
                     writer.value(DEFAULT_BLOCK);
-                } else if (box.hasSolution()) {
-                    writer.value(String.valueOf(box.getSolution()));
+                } else if (grid.getSolution(row, col) != '\0') {
+                    writer.value(String.valueOf(grid.getSolution(row, col)));
                 } else {
                     writer.value(JSONObject.NULL);
                 }
@@ -1409,8 +1441,8 @@ public class IPuzIO implements PuzzleParser {
         if (!puz.hasCheated() && !puz.hasResponders())
             return;
 
-        Box[][] boxes = puz.getBoxes();
-        if (boxes == null)
+        Grid grid = puz.getGrid();
+        if (grid == null)
             return;
 
         writer.indent(1)
@@ -1418,17 +1450,16 @@ public class IPuzIO implements PuzzleParser {
             .array();
         writer.newLine();
 
-        for (int row = 0; row < boxes.length; row++) {
+        for (int row = 0; row < grid.getHeight(); row++) {
             writer.indent(2)
                 .array();
-            for (int col = 0; col < boxes[row].length; col++) {
+            for (int col = 0; col < grid.getWidth(); col++) {
                 writer.object();
 
-                Box box = boxes[row][col];
-                if (box != null) {
-                    if (box.isCheated())
+                if (grid.hasBox(row, col)) {
+                    if (grid.isCheated(row, col))
                         writer.key(FIELD_BOX_CHEATED).value(true);
-                    String responder = box.getResponder();
+                    String responder = grid.getResponder(row, col);
                     if (responder != null)
                         writer.key(FIELD_BOX_RESPONDER).value(responder);
                 }
@@ -1516,4 +1547,384 @@ public class IPuzIO implements PuzzleParser {
             return this;
         }
     }
+
+    /**
+     * A cell of the puzzle, saved or solution arrays as read by
+     * MetaReader
+     *
+     * Cells given as JSON objects keep their cell and value fields,
+     * other cells are just the string form of the value.
+     */
+    private static class MetaCell {
+        public final boolean isObject;
+        public final boolean hasCell;
+        public final String cell;
+        public final String value;
+
+        public MetaCell(String cell) {
+            this(false, true, cell, null);
+        }
+
+        public MetaCell(boolean hasCell, String cell, String value) {
+            this(true, hasCell, cell, value);
+        }
+
+        private MetaCell(
+            boolean isObject, boolean hasCell, String cell, String value
+        ) {
+            this.isObject = isObject;
+            this.hasCell = hasCell;
+            this.cell = cell;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Streams the top level of an IPuz file into a PuzzleMeta
+     *
+     * Fields may appear in any order, so the grids are kept in a
+     * compact form until block and empty strings are known.
+     */
+    private static class MetaReader {
+        private final JSONStreamReader reader;
+        private final PuzzleMeta meta = new PuzzleMeta();
+
+        private String version;
+        private List<String> kinds;
+        private int width = -1;
+        private int height = -1;
+        private String block = DEFAULT_BLOCK;
+        private String empty = DEFAULT_EMPTY_READ;
+        private MetaCell[][] puzzle;
+        private MetaCell[][] saved;
+        private MetaCell[][] solution;
+
+        public MetaReader(JSONStreamReader reader) {
+            this.reader = reader;
+        }
+
+        public PuzzleMeta read() throws IPuzFormatException {
+            reader.beginObject();
+            while (reader.hasNext())
+                readField(reader.nextName());
+            reader.endObject();
+
+            checkIPuzVersion(version);
+            if (kinds == null)
+                throw new IPuzFormatException("No IPuz kind given");
+            checkIPuzKind(kinds);
+
+            if (width < 0 || height < 0)
+                throw new IPuzFormatException("No puzzle dimensions given");
+            if (puzzle == null)
+                throw new IPuzFormatException("No puzzle cells given");
+
+            countCompletion();
+
+            return meta;
+        }
+
+        private void readField(String name) throws IPuzFormatException {
+            if (FIELD_VERSION.equals(name)) {
+                version = nextOptString();
+            } else if (FIELD_KIND.equals(name)) {
+                kinds = nextStringList();
+            } else if (FIELD_TITLE.equals(name)) {
+                meta.title = nextOptHtmlString();
+            } else if (FIELD_AUTHOR.equals(name)) {
+                meta.author = nextOptHtmlString();
+            } else if (FIELD_PUBLISHER.equals(name)) {
+                meta.source = nextOptHtmlString();
+            } else if (FIELD_URL.equals(name)) {
+                String url = nextOptString();
+                meta.sourceUrl = (url == null) ? "" : url;
+            } else if (FIELD_DATE.equals(name)) {
+                String date = nextOptString();
+                if (date != null && date.length() > 0)
+                    meta.date = LocalDate.parse(date, DATE_FORMATTER);
+            } else if (FIELD_DIMENSIONS.equals(name)) {
+                readDimensions();
+            } else if (FIELD_BLOCK.equals(name)) {
+                String value = nextOptString();
+                block = (value == null) ? DEFAULT_BLOCK : value;
+            } else if (FIELD_EMPTY.equals(name)) {
+                String value = nextOptString();
+                empty = (value == null) ? DEFAULT_EMPTY_READ : value;
+            } else if (FIELD_PUZZLE.equals(name)) {
+                puzzle = nextCells();
+            } else if (FIELD_SAVED.equals(name)) {
+                saved = nextCells();
+            } else if (FIELD_SOLUTION.equals(name)) {
+                solution = nextCells();
+            } else if (FIELD_EXT_SUPPORT_URL.equals(name)) {
+                String url = nextOptString();
+                if (url != null && !url.isEmpty())
+                    meta.supportUrl = url;
+            } else if (FIELD_EXT_PLAY_DATA.equals(name)) {
+                readPlayData();
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        private void readDimensions() {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (FIELD_WIDTH.equals(name))
+                    width = reader.nextInt();
+                else if (FIELD_HEIGHT.equals(name))
+                    height = reader.nextInt();
+                else
+                    reader.skipValue();
+            }
+            reader.endObject();
+        }
+
+        private void readPlayData() {
+            if (reader.peek() != JSONStreamReader.Token.OBJECT) {
+                reader.skipValue();
+                return;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (FIELD_UPDATABLE.equals(name))
+                    meta.updatable = reader.nextBoolean();
+                else
+                    reader.skipValue();
+            }
+            reader.endObject();
+        }
+
+        /**
+         * Read an array of arrays of cells
+         */
+        private MetaCell[][] nextCells() throws IPuzFormatException {
+            if (reader.peek() != JSONStreamReader.Token.ARRAY) {
+                reader.skipValue();
+                return null;
+            }
+
+            List<MetaCell[]> rows = new ArrayList<>();
+            List<MetaCell> row = new ArrayList<>();
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                row.clear();
+                reader.beginArray();
+                while (reader.hasNext())
+                    row.add(nextCell());
+                reader.endArray();
+                rows.add(row.toArray(new MetaCell[row.size()]));
+            }
+            reader.endArray();
+
+            return rows.toArray(new MetaCell[rows.size()][]);
+        }
+
+        /**
+         * Read a single cell
+         *
+         * @return the cell, or null if the cell is null
+         */
+        private MetaCell nextCell() throws IPuzFormatException {
+            switch (reader.peek()) {
+            case OBJECT: {
+                boolean hasCell = false;
+                String cell = null;
+                String value = null;
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (FIELD_CELL.equals(name)) {
+                        hasCell = true;
+                        cell = nextOptString();
+                    } else if (FIELD_VALUE.equals(name)) {
+                        value = nextOptString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return new MetaCell(hasCell, cell, value);
+            }
+            case ARRAY: {
+                reader.beginArray();
+                MetaCell cell = reader.hasNext() ? nextCell() : null;
+                if (reader.hasNext()) {
+                    throw new IPuzFormatException(
+                        "Multiple cell values not supported"
+                    );
+                }
+                reader.endArray();
+                return cell;
+            }
+            default: {
+                String cell = reader.nextPrimitive();
+                return (cell == null) ? null : new MetaCell(cell);
+            }
+            }
+        }
+
+        /**
+         * Count boxes, correct and filled boxes from the grids
+         *
+         * Follows the interpretation of readBoxes
+         */
+        private void countCompletion() throws IPuzFormatException {
+            if (puzzle.length < height) {
+                throw new IPuzFormatException(
+                    "Number of cell rows doesn't match boxes dimensions"
+                );
+            }
+
+            int total = 0;
+            int correct = 0;
+            int filled = 0;
+
+            for (int row = 0; row < height; row++) {
+                if (puzzle[row].length < width) {
+                    throw new IPuzFormatException(
+                        "Number of cell columns doesn't match boxes dimension"
+                    );
+                }
+
+                for (int col = 0; col < width; col++) {
+                    MetaCell cell = puzzle[row][col];
+                    if (!isBox(cell))
+                        continue;
+
+                    total++;
+
+                    char response = Box.BLANK;
+                    if (cell.isObject
+                            && cell.value != null
+                            && cell.value.length() > 0)
+                        response = getSingleChar(cell.value);
+
+                    Character savedValue = getValue(saved, row, col);
+                    if (savedValue != null)
+                        response = savedValue;
+
+                    Character solutionValue = getValue(solution, row, col);
+
+                    if (solutionValue != null && response == solutionValue)
+                        correct++;
+                    if (response != Box.BLANK)
+                        filled++;
+                }
+            }
+
+            meta.percentComplete = (total == 0) ? 0 : (correct * 100) / total;
+            meta.percentFilled = (total == 0) ? 0 : (filled * 100) / total;
+        }
+
+        /**
+         * If the puzzle cell is a box, as in getBoxFromObj
+         */
+        private boolean isBox(MetaCell cell) throws IPuzFormatException {
+            if (cell == null)
+                return false;
+
+            String value = cell.cell;
+            if (cell.isObject && !cell.hasCell)
+                value = empty;
+
+            if (value == null || value.equals(block))
+                return false;
+            if (value.equals(empty))
+                return true;
+
+            try {
+                Integer.valueOf(value);
+                return true;
+            } catch (NumberFormatException e) {
+                throw new IPuzFormatException(
+                    "Unrecognised cell in puzzle: " + value
+                );
+            }
+        }
+
+        /**
+         * Value of a saved or solution cell, as in
+         * getCrosswordValueFromObj
+         *
+         * @return value, Box.BLANK if empty, null if block or omitted
+         */
+        private Character getValue(MetaCell[][] cells, int row, int col)
+                throws IPuzFormatException {
+            if (cells == null || row >= cells.length || col >= cells[row].length)
+                return null;
+
+            MetaCell cell = cells[row][col];
+
+            if (cell == null) {
+                return null;
+            } else if (cell.isObject) {
+                if (cell.value == null || cell.value.length() == 0)
+                    return null;
+                return getSingleChar(cell.value);
+            } else if (block.equals(cell.cell)) {
+                return null;
+            } else if (empty.equals(cell.cell)) {
+                return Box.BLANK;
+            } else {
+                return getSingleChar(cell.cell);
+            }
+        }
+
+        private char getSingleChar(String value) throws IPuzFormatException {
+            if (value.length() != 1) {
+                throw new IPuzFormatException(
+                    "Cannot represent values of more than one character: "
+                        + value
+                );
+            }
+            return value.charAt(0);
+        }
+
+        /**
+         * Read a primitive as a string, skip anything else
+         */
+        private String nextOptString() {
+            switch (reader.peek()) {
+            case OBJECT:
+            case ARRAY:
+                reader.skipValue();
+                return null;
+            default:
+                return reader.nextPrimitive();
+            }
+        }
+
+        /**
+         * As nextOptString but with IPuz HTML removed and null if empty
+         */
+        private String nextOptHtmlString() {
+            String value = nextOptString();
+            if (value == null || value.length() == 0)
+                return null;
+            return unHtmlString(value);
+        }
+
+        private List<String> nextStringList() {
+            List<String> list = new ArrayList<>();
+
+            if (reader.peek() != JSONStreamReader.Token.ARRAY) {
+                reader.skipValue();
+                return list;
+            }
+
+            reader.beginArray();
+            while (reader.hasNext())
+                list.add(nextOptString());
+            reader.endArray();
+
+            return list;
+        }
+    }
 }
@@ -0,0 +1,237 @@
+package app.crossword.yourealwaysbe.io;
+
+import java.io.InputStream;
+
+import org.json.JSONException;
+import org.json.JSONTokener;
+
+/**
+ * Pull reader for JSON streams
+ *
+ * For pulling a few fields out of a large JSON document without
+ * building JSONObjects for the whole thing. Values not wanted can be
+ * skipped without being decoded.
+ *
+ * Usage follows the structure of the document, e.g.
+ *
+ *  reader.beginObject();
+ *  while (reader.hasNext()) {
+ *      String name = reader.nextName();
+ *      ...
+ *  }
+ *  reader.endObject();
+ *
+ * Errors are reported as JSONExceptions. The reader is lenient about
+ * missing commas.
+ */
+class JSONStreamReader {
+    public enum Token { OBJECT, ARRAY, STRING, LITERAL, END }
+
+    private final JSONTokener tokener;
+
+    public JSONStreamReader(InputStream is) {
+        this.tokener = new JSONTokener(is);
+    }
+
+    /**
+     * Type of the next value, without consuming it
+     */
+    public Token peek() throws JSONException {
+        char c = tokener.nextClean();
+        // can't step back from end of input
+        if (c == 0)
+            return Token.END;
+
+        tokener.back();
+
+        switch (c) {
+        case '{': return Token.OBJECT;
+        case '[': return Token.ARRAY;
+        case '"': return Token.STRING;
+        case '}':
+        case ']':
+            return Token.END;
+        default: return Token.LITERAL;
+        }
+    }
+
+    public void beginObject() throws JSONException {
+        expect('{');
+    }
+
+    public void endObject() throws JSONException {
+        expect('}');
+    }
+
+    public void beginArray() throws JSONException {
+        expect('[');
+    }
+
+    public void endArray() throws JSONException {
+        expect(']');
+    }
+
+    /**
+     * True if the current object or array has another item
+     *
+     * Consumes the separating comma if there is one.
+     */
+    public boolean hasNext() throws JSONException {
+        char c = tokener.nextClean();
+        if (c == ',')
+            return true;
+        if (c == 0)
+            return false;
+
+        tokener.back();
+        return c != '}' && c != ']';
+    }
+
+    /**
+     * Read the name of the next field of an object, and the colon
+     */
+    public String nextName() throws JSONException {
+        String name = nextString();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Read a string value
+     */
+    public String nextString() throws JSONException {
+        expect('"');
+        return tokener.nextString('"');
+    }
+
+    /**
+     * Read a string, number, boolean, or null as a string
+     *
+     * @return the string or literal text, or null if the value is null
+     */
+    public String nextPrimitive() throws JSONException {
+        char c = tokener.nextClean();
+        if (c == '"')
+            return tokener.nextString('"');
+        if (c == 0)
+            throw tokener.syntaxError("Unexpected end of input");
+
+        tokener.back();
+        String literal = nextLiteral();
+        if (literal.isEmpty())
+            throw tokener.syntaxError("Expected a value");
+
+        return "null".equals(literal) ? null : literal;
+    }
+
+    /**
+     * Read a boolean value, null is false
+     */
+    public boolean nextBoolean() throws JSONException {
+        String value = nextPrimitive();
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Read an int value
+     */
+    public int nextInt() throws JSONException {
+        String value = nextPrimitive();
+        try {
+            return (int) Double.parseDouble(value);
+        } catch (NullPointerException | NumberFormatException e) {
+            throw tokener.syntaxError("Expected a number not " + value);
+        }
+    }
+
+    /**
+     * Read a long value
+     */
+    public long nextLong() throws JSONException {
+        String value = nextPrimitive();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(value);
+            } catch (NullPointerException | NumberFormatException e2) {
+                throw tokener.syntaxError("Expected a number not " + value);
+            }
+        }
+    }
+
+    /**
+     * Skip the next value, including any nested values
+     */
+    public void skipValue() throws JSONException {
+        int depth = 0;
+        do {
+            char c = tokener.nextClean();
+            switch (c) {
+            case '{':
+            case '[':
+                depth += 1;
+                break;
+            case '}':
+            case ']':
+                depth -= 1;
+                break;
+            case '"':
+                skipString();
+                break;
+            case ',':
+            case ':':
+                break;
+            case 0:
+                throw tokener.syntaxError("Unexpected end of input");
+            default:
+                tokener.back();
+                if (nextLiteral().isEmpty())
+                    throw tokener.syntaxError("Unexpected '" + c + "'");
+            }
+        } while (depth > 0);
+    }
+
+    private void skipString() throws JSONException {
+        while (true) {
+            char c = tokener.next();
+            switch (c) {
+            case 0:
+                throw tokener.syntaxError("Unterminated string");
+            case '\\':
+                tokener.next();
+                break;
+            case '"':
+                return;
+            default:
+                // carry on
+            }
+        }
+    }
+
+    /**
+     * Read an unquoted literal up to the next delimiter
+     */
+    private String nextLiteral() throws JSONException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = tokener.next();
+            if (c == 0 || ",:]}/\\\"[{;=#".indexOf(c) >= 0
+                    || Character.isWhitespace(c)) {
+                if (c != 0)
+                    tokener.back();
+                return sb.toString();
+            }
+            sb.append(c);
+        }
+    }
+
+    private void expect(char expected) throws JSONException {
+        char c = tokener.nextClean();
+        if (c != expected) {
+            throw tokener.syntaxError(
+                "Expected '" + expected + "' not '" + c + "'"
+            );
+        }
+    }
+}
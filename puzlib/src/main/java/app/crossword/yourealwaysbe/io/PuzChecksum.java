@@ -0,0 +1,74 @@
+package app.crossword.yourealwaysbe.io;
+
+/**
+ * Running checksum of the Across Lite .puz format
+ *
+ * For each byte the 16 bit sum is rotated right by one and the byte
+ * added. Regions can be fed in pieces as they are produced, so a file's
+ * checksums can be made without a second pass over a copy of it.
+ */
+public class PuzChecksum {
+    private int cksum;
+
+    public PuzChecksum() {
+        this(0);
+    }
+
+    /**
+     * Start from the value of an earlier checksum
+     */
+    public PuzChecksum(int initial) {
+        cksum = initial & 0xFFFF;
+    }
+
+    /**
+     * Checksum of a region of the data, starting from cksum
+     */
+    public static int checksum(
+        byte[] data, int offset, int length, int cksum
+    ) {
+        int end = offset + length;
+        cksum &= 0xFFFF;
+        for (int i = offset; i < end; i++) {
+            // rotate right without a branch on the low bit
+            cksum = ((cksum >>> 1) | ((cksum & 0x1) << 15))
+                + (data[i] & 0xFF);
+            cksum &= 0xFFFF;
+        }
+        return cksum;
+    }
+
+    public PuzChecksum update(byte[] data) {
+        return update(data, 0, data.length);
+    }
+
+    public PuzChecksum update(byte[] data, int offset, int length) {
+        cksum = checksum(data, offset, length, cksum);
+        return this;
+    }
+
+    /**
+     * Add the low byte of b
+     */
+    public PuzChecksum update(int b) {
+        cksum = (((cksum >>> 1) | ((cksum & 0x1) << 15)) + (b & 0xFF))
+            & 0xFFFF;
+        return this;
+    }
+
+    /**
+     * Add a short in little endian order, as stored in the file
+     */
+    public PuzChecksum updateShort(int value) {
+        update(value);
+        return update(value >> 8);
+    }
+
+    public int getValue() {
+        return cksum;
+    }
+
+    public void reset() {
+        cksum = 0;
+    }
+}
@@ -0,0 +1,235 @@
+package app.crossword.yourealwaysbe.io;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import app.crossword.yourealwaysbe.puz.Grid;
+import app.crossword.yourealwaysbe.puz.Puzzle;
+
+/**
+ * Finds the four digit key of a scrambled .puz solution
+ *
+ * The solution is read down the columns, as it is scrambled. Each key
+ * is tried by undoing the four rounds of scrambling and comparing the
+ * checksum of the result with the puzzle's solution checksum. Scratch
+ * buffers belong to each search, not the puzzle, so several searches
+ * can run at once.
+ *
+ * The checksum only covers the whole solution, so a key can only be
+ * rejected once all rounds are undone. Searches stop at the first
+ * matching key, and a parallel search returns the same (lowest) key as
+ * a sequential one.
+ */
+public class PuzUnscrambler {
+    public static final int NUM_KEYS = 10000;
+
+    // keys tried by one fork join task before splitting stops
+    private static final int KEYS_PER_TASK = 250;
+
+    private final byte[] scrambled;
+    private final int checksum;
+    // where each letter goes when the interleave is undone, the same
+    // for every key: evens went to the back half, odds the front
+    private final int[] unmixed;
+
+    public PuzUnscrambler(Puzzle puz) {
+        this.scrambled = getSolutionDown(puz);
+        this.checksum = puz.getSolutionChecksum() & 0xFFFF;
+
+        int length = scrambled.length;
+        int half = length / 2;
+        unmixed = new int[length];
+        for (int i = 0; i < length; i++)
+            unmixed[i] = ((i & 1) == 0) ? half + (i >> 1) : (i >> 1);
+    }
+
+    /**
+     * Find the key and unscramble the puzzle's solution
+     *
+     * @return true if a key was found
+     */
+    public static boolean unlock(Puzzle puz) {
+        PuzUnscrambler unscrambler = new PuzUnscrambler(puz);
+        return unscrambler.apply(puz, unscrambler.findKey());
+    }
+
+    /**
+     * As unlock(Puzzle) with the key search split across the pool
+     */
+    public static boolean unlock(Puzzle puz, ForkJoinPool pool) {
+        PuzUnscrambler unscrambler = new PuzUnscrambler(puz);
+        return unscrambler.apply(puz, unscrambler.findKey(pool));
+    }
+
+    /**
+     * Unscramble the puzzle with the key if it is correct
+     *
+     * @return true if the key was correct
+     */
+    public static boolean unlock(Puzzle puz, int key) {
+        return new PuzUnscrambler(puz).apply(puz, key);
+    }
+
+    /**
+     * Find the lowest key that unscrambles the solution
+     *
+     * @return the key or -1 if none
+     */
+    public int findKey() {
+        Search search = new Search();
+        for (int key = 0; key < NUM_KEYS; key++) {
+            if (search.tryKey(key))
+                return key;
+        }
+        return -1;
+    }
+
+    /**
+     * As findKey but with the key space split across the pool
+     */
+    public int findKey(ForkJoinPool pool) {
+        AtomicInteger found = new AtomicInteger(NUM_KEYS);
+        pool.invoke(new SearchTask(0, NUM_KEYS, found));
+        int key = found.get();
+        return (key < NUM_KEYS) ? key : -1;
+    }
+
+    /**
+     * The unscrambled solution read down the columns
+     *
+     * @return the solution or null if the key is not correct
+     */
+    public byte[] unscramble(int key) {
+        Search search = new Search();
+        return search.tryKey(key) ? search.work.clone() : null;
+    }
+
+    private boolean apply(Puzzle puz, int key) {
+        if (key < 0 || key >= NUM_KEYS)
+            return false;
+
+        byte[] solution = unscramble(key);
+        if (solution == null)
+            return false;
+
+        puz.setUnscrambledSolution(solution);
+        return true;
+    }
+
+    private static byte[] getSolutionDown(Puzzle puz) {
+        Grid grid = puz.getGrid();
+        int width = puz.getWidth();
+        int height = puz.getHeight();
+
+        int size = 0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (grid.hasBox(y, x))
+                    size += 1;
+            }
+        }
+
+        byte[] solution = new byte[size];
+        int i = 0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (grid.hasBox(y, x))
+                    solution[i++] = (byte) grid.getSolution(y, x);
+            }
+        }
+        return solution;
+    }
+
+    /**
+     * Scratch state for trying keys one after another
+     */
+    private class Search {
+        private final int[] digits = new int[4];
+        private byte[] work = new byte[scrambled.length];
+        private byte[] next = new byte[scrambled.length];
+
+        /**
+         * Undo the scrambling with the key
+         *
+         * On return work holds the result, which is the solution if
+         * true is returned.
+         */
+        boolean tryKey(int key) {
+            int length = scrambled.length;
+            if (length == 0)
+                return false;
+
+            digits[0] = (key / 1000) % 10;
+            digits[1] = (key / 100) % 10;
+            digits[2] = (key / 10) % 10;
+            digits[3] = key % 10;
+
+            System.arraycopy(scrambled, 0, work, 0, length);
+
+            for (int round = 3; round >= 0; round--) {
+                int shift = digits[round] % length;
+                // undo the interleave, the shift and the added key in
+                // one pass
+                for (int i = 0; i < length; i++) {
+                    int pos = unmixed[i] + shift;
+                    if (pos >= length)
+                        pos -= length;
+
+                    int letter = (work[i] & 0xFF) - digits[pos & 3];
+                    if (letter < 65)
+                        letter += 26;
+
+                    next[pos] = (byte) letter;
+                }
+
+                byte[] swap = work;
+                work = next;
+                next = swap;
+            }
+
+            return PuzChecksum.checksum(work, 0, length, 0) == checksum;
+        }
+    }
+
+    /**
+     * Searches a range of keys, recording the lowest key found
+     */
+    private class SearchTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final AtomicInteger found;
+
+        SearchTask(int from, int to, AtomicInteger found) {
+            this.from = from;
+            this.to = to;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > KEYS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                    new SearchTask(from, mid, found),
+                    new SearchTask(mid, to, found)
+                );
+                return;
+            }
+
+            Search search = new Search();
+            for (int key = from; key < to; key++) {
+                // a lower key has already been found
+                if (key >= found.get())
+                    return;
+                if (search.tryKey(key)) {
+                    int current = found.get();
+                    while (key < current
+                            && !found.compareAndSet(current, key))
+                        current = found.get();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package app.crossword.yourealwaysbe.io;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.logging.Logger;
 
 import app.crossword.yourealwaysbe.puz.Puzzle;
@@ -10,17 +17,47 @@ public class PuzzleStreamReader {
     private static final Logger LOGGER
         = Logger.getLogger(PuzzleStreamReader.class.getCanonicalName());
 
+    // number of bytes read from the start of the stream to guess format
+    private static final int SNIFF_LENGTH = 512;
+
+    /**
+     * Largest source read into memory, beyond this sources are
+     * reopened for each parse attempt
+     */
+    public static final int MAX_BUFFERED_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * Largest file that will be memory mapped
+     */
+    public static final long MAX_MAPPED_SIZE = 64 * 1024 * 1024;
+
+    private static final IO PUZ_PARSER = new IO();
+    private static final JPZIO JPZ_PARSER = new JPZIO();
+    private static final IPuzIO IPUZ_PARSER = new IPuzIO();
+    private static final UclickXMLIO UCLICK_PARSER = new UclickXMLIO();
+    private static final BrainsOnlyIO BRAINS_ONLY_PARSER = new BrainsOnlyIO();
+    private static final KingFeaturesPlaintextIO KING_FEATURES_PARSER
+        = new KingFeaturesPlaintextIO();
+    private static final GuardianJSONIO GUARDIAN_PARSER = new GuardianJSONIO();
+    private static final AmuseLabsJSONIO AMUSE_LABS_PARSER
+        = new AmuseLabsJSONIO();
+
     private static final PuzzleParser[] PARSERS = {
-        new IO(),
-        new JPZIO(),
-        new IPuzIO(),
-        new UclickXMLIO(),
-        new BrainsOnlyIO(),
-        new KingFeaturesPlaintextIO(),
-        new GuardianJSONIO(),
-        new AmuseLabsJSONIO()
+        PUZ_PARSER,
+        JPZ_PARSER,
+        IPUZ_PARSER,
+        UCLICK_PARSER,
+        BRAINS_ONLY_PARSER,
+        KING_FEATURES_PARSER,
+        GUARDIAN_PARSER,
+        AMUSE_LABS_PARSER
     };
 
+    private static final byte[] PUZ_MAGIC
+        = IO.FILE_MAGIC.getBytes(StandardCharsets.US_ASCII);
+    private static final int PUZ_MAGIC_OFFSET = 0x2;
+    private static final byte[] ZIP_MAGIC = { 'P', 'K', 0x03, 0x04 };
+
     public interface InputStreamSupplier {
         /**
          * Return a new input stream for the puzzle
@@ -34,20 +71,349 @@ public class PuzzleStreamReader {
      * Read the puzzle from the input stream, try multiple formats
      *
      * The supplier function should return an input stream for the
-     * puzzle source. The method will try known file formats until it
+     * puzzle source. The source is read once into memory and each
+     * parser works on a view of the same bytes. The start of the data
+     * is examined to guess the file format and the matching parser is
+     * tried first. If there is no guess, or the guess does not parse,
+     * the method will try the remaining known file formats until it
      * finds one that parses to completion.
+     *
+     * Sources larger than MAX_BUFFERED_SIZE, or that fail while being
+     * buffered, are not held in memory, instead the supplier is called
+     * again for each parse attempt.
      */
     public static Puzzle parseInput(InputStreamSupplier isSupplier) {
+        byte[] data = null;
+        try (InputStream is = isSupplier.get()) {
+            data = readFully(is, MAX_BUFFERED_SIZE);
+        } catch (Exception e) {
+            LOGGER.info("Could not buffer puzzle source: " + e);
+            return parseStreaming(isSupplier);
+        }
+
+        if (data == null)
+            return parseStreaming(isSupplier);
+        else
+            return parseBuffer(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Read the puzzle from a file, try multiple formats
+     *
+     * As parseInput(InputStreamSupplier) but the file is memory mapped
+     * rather than copied when it is no larger than MAX_MAPPED_SIZE.
+     *
+     * @return the puzzle or null if could not be read
+     */
+    public static Puzzle parseInput(File file) {
+        long size = file.length();
+
+        if (size > MAX_MAPPED_SIZE)
+            return parseStreaming(() -> new FileInputStream(file));
+
+        try (
+            FileInputStream fis = new FileInputStream(file);
+            FileChannel channel = fis.getChannel()
+        ) {
+            return parseBuffer(
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+            );
+        } catch (IOException e) {
+            LOGGER.info("Could not map puzzle file " + file + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Try parsers on in-memory data, best guess first
+     */
+    private static Puzzle parseBuffer(ByteBuffer data) {
+        PuzzleParser guess = null;
+
+        try (InputStream is = new ByteBufferInputStream(data)) {
+            guess = guessParser(is);
+        } catch (IOException e) {
+            // carry on without a guess
+        }
+
+        if (guess != null) {
+            Puzzle puz = tryParser(guess, data);
+            if (puz != null)
+                return puz;
+        }
+
         for (PuzzleParser parser : PARSERS) {
-            try (InputStream is = isSupplier.get()) {
-                Puzzle puz = parser.parseInput(is);
+            if (parser == guess)
+                continue;
+
+            Puzzle puz = tryParser(parser, data);
+            if (puz != null)
+                return puz;
+        }
+
+        return null;
+    }
+
+    /**
+     * Parse with parser from in-memory data
+     *
+     * .puz is read from the buffer directly, other formats from a
+     * stream over it.
+     *
+     * @return puzzle or null if it didn't work
+     */
+    private static Puzzle tryParser(PuzzleParser parser, ByteBuffer data) {
+        if (parser != PUZ_PARSER)
+            return tryParser(parser, () -> new ByteBufferInputStream(data));
+
+        try {
+            return IO.loadNative(data);
+        } catch (Exception e) {
+            LOGGER.info("Parse attempt failed with " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Try parsers on a fresh stream from the supplier each time
+     */
+    private static Puzzle parseStreaming(InputStreamSupplier isSupplier) {
+        PuzzleParser guess = null;
+
+        try (
+            InputStream is = new BufferedInputStream(isSupplier.get())
+        ) {
+            guess = guessParser(is);
+            if (guess != null) {
+                Puzzle puz = guess.parseInput(is);
                 if (puz != null)
                     return puz;
-            } catch (Exception e) {
-                LOGGER.info("Parse attempt failed with " + e);
-                // on to the next one
+            }
+        } catch (Exception e) {
+            LOGGER.info("Parse attempt failed with " + e);
+        }
+
+        for (PuzzleParser parser : PARSERS) {
+            if (parser == guess)
+                continue;
+
+            Puzzle puz = tryParser(parser, isSupplier);
+            if (puz != null)
+                return puz;
+        }
+
+        return null;
+    }
+
+    /**
+     * Parse with parser from a new stream
+     *
+     * @return puzzle or null if it didn't work
+     */
+    private static Puzzle tryParser(
+        PuzzleParser parser, InputStreamSupplier isSupplier
+    ) {
+        try (InputStream is = isSupplier.get()) {
+            return parser.parseInput(is);
+        } catch (Exception e) {
+            LOGGER.info("Parse attempt failed with " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Read the whole stream if it is no more than limit bytes
+     *
+     * @return the contents, or null if the stream is too long
+     */
+    private static byte[] readFully(InputStream is, int limit)
+            throws IOException {
+        byte[] buffer = new byte[IO.DEFAULT_BUFFER_SIZE];
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        int read;
+        while ((read = is.read(buffer, 0, buffer.length)) >= 0) {
+            baos.write(buffer, 0, read);
+            if (baos.size() > limit)
+                return null;
+        }
+
+        return baos.toByteArray();
+    }
+
+    /**
+     * Guess parser from start of stream
+     *
+     * Stream must support mark/reset, and will be reset to its starting
+     * position on return.
+     *
+     * @return the parser most likely to succeed, or null if no idea
+     */
+    static PuzzleParser guessParser(InputStream is) throws IOException {
+        byte[] header = new byte[SNIFF_LENGTH];
+
+        is.mark(SNIFF_LENGTH);
+        int len = 0;
+        while (len < header.length) {
+            int read = is.read(header, len, header.length - len);
+            if (read < 0)
+                break;
+            len += read;
+        }
+        is.reset();
+
+        return guessParser(header, len);
+    }
+
+    /**
+     * Guess parser from the first len bytes of a file
+     *
+     * @return the parser most likely to succeed, or null if no idea
+     */
+    static PuzzleParser guessParser(byte[] header, int len) {
+        if (startsWith(header, len, PUZ_MAGIC_OFFSET, PUZ_MAGIC))
+            return PUZ_PARSER;
+
+        if (startsWith(header, len, 0, ZIP_MAGIC))
+            return JPZ_PARSER;
+
+        int start = skipWhitespace(header, len, skipBOM(header, len));
+        if (start >= len)
+            return null;
+
+        switch (header[start]) {
+        case '<':
+            return guessXMLParser(header, len, start);
+        case '{': {
+            int next = skipWhitespace(header, len, start + 1);
+            // King Features starts "{ 1  2 ..." not "{ \"key\": ..."
+            if (next < len && header[next] != '"')
+                return KING_FEATURES_PARSER;
+            return guessJSONParser(header, len);
+        }
+        default:
+            return isPlainText(header, len, start)
+                ? BRAINS_ONLY_PARSER
+                : null;
+        }
+    }
+
+    /**
+     * Distinguish XML formats by their root element
+     */
+    private static PuzzleParser guessXMLParser(
+        byte[] header, int len, int start
+    ) {
+        String root = getXMLRootElement(
+            new String(header, start, len - start, StandardCharsets.UTF_8)
+        );
+        if (root == null)
+            return null;
+        else if (root.equalsIgnoreCase("crossword"))
+            return UCLICK_PARSER;
+        else if (root.startsWith("crossword-compiler"))
+            return JPZ_PARSER;
+        else
+            return null;
+    }
+
+    /**
+     * Distinguish JSON formats by their distinctive keys
+     *
+     * Only the header is available so keys deeper in the file cannot
+     * be relied upon. The guess is a best effort.
+     */
+    private static PuzzleParser guessJSONParser(byte[] header, int len) {
+        String text = new String(header, 0, len, StandardCharsets.UTF_8);
+
+        if (text.contains("ipuz.org"))
+            return IPUZ_PARSER;
+        if (text.contains("\"publishTime\"")
+                || text.contains("\"puzzleType\"")
+                || text.contains("\"srcFileName\""))
+            return AMUSE_LABS_PARSER;
+        if (text.contains("\"entries\"")
+                || text.contains("\"crosswordType\"")
+                || text.contains("\"webPublicationDate\""))
+            return GUARDIAN_PARSER;
+
+        return null;
+    }
+
+    /**
+     * Find name of the first element that is not a declaration,
+     * processing instruction or comment
+     *
+     * @return element name without namespace prefix or null
+     */
+    private static String getXMLRootElement(String text) {
+        int pos = 0;
+        while (pos < text.length()) {
+            int open = text.indexOf('<', pos);
+            if (open < 0 || open + 1 >= text.length())
+                return null;
+
+            char next = text.charAt(open + 1);
+            if (next == '?' || next == '!') {
+                String end = text.startsWith("<!--", open) ? "-->" : ">";
+                int close = text.indexOf(end, open);
+                if (close < 0)
+                    return null;
+                pos = close + end.length();
+            } else {
+                int nameEnd = open + 1;
+                while (nameEnd < text.length()) {
+                    char c = text.charAt(nameEnd);
+                    if (Character.isWhitespace(c) || c == '>' || c == '/')
+                        break;
+                    nameEnd += 1;
+                }
+                String name = text.substring(open + 1, nameEnd);
+                int colon = name.indexOf(':');
+                return (colon < 0) ? name : name.substring(colon + 1);
             }
         }
         return null;
     }
+
+    /**
+     * True if the bytes look like lines of printable ASCII text
+     */
+    private static boolean isPlainText(byte[] header, int len, int start) {
+        for (int i = start; i < len; i++) {
+            int b = header[i] & 0xFF;
+            if (b < 0x20 && b != '\n' && b != '\r' && b != '\t')
+                return false;
+            if (b >= 0x7F)
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean startsWith(
+        byte[] header, int len, int offset, byte[] prefix
+    ) {
+        if (offset + prefix.length > len)
+            return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (header[offset + i] != prefix[i])
+                return false;
+        }
+        return true;
+    }
+
+    private static int skipBOM(byte[] header, int len) {
+        if (len >= 3
+                && header[0] == (byte) 0xEF
+                && header[1] == (byte) 0xBB
+                && header[2] == (byte) 0xBF)
+            return 3;
+        return 0;
+    }
+
+    private static int skipWhitespace(byte[] header, int len, int pos) {
+        while (pos < len && Character.isWhitespace((char) header[pos]))
+            pos += 1;
+        return pos;
+    }
 }
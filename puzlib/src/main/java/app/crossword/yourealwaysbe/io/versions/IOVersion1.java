@@ -1,7 +1,7 @@
 package app.crossword.yourealwaysbe.io.versions;
 
 import app.crossword.yourealwaysbe.io.IO;
-import app.crossword.yourealwaysbe.puz.Box;
+import app.crossword.yourealwaysbe.puz.Grid;
 import app.crossword.yourealwaysbe.puz.Puzzle;
 import app.crossword.yourealwaysbe.puz.PuzzleMeta;
 
@@ -17,14 +17,16 @@ public class IOVersion1 implements IOVersion {
     public void read(Puzzle puz, DataInputStream dis) throws IOException {
         PuzzleMeta meta = readMeta(dis);
         applyMeta(puz, meta);
-        Box[][] boxes = puz.getBoxes();
-        for(Box[] row : boxes ){
-            for(Box b : row){
-                if(b == null){
+        Grid grid = puz.getGrid();
+        for(int row = 0; row < grid.getHeight(); row++){
+            for(int col = 0; col < grid.getWidth(); col++){
+                if(!grid.hasBox(row, col)){
                     continue;
                 }
-                b.setCheated(dis.readBoolean());
-                b.setResponder(IO.readNullTerminatedString(dis));
+                grid.setCheated(row, col, dis.readBoolean());
+                grid.setResponder(
+                    row, col, IO.readNullTerminatedString(dis)
+                );
             }
         }
         try{
@@ -57,14 +59,16 @@ public class IOVersion1 implements IOVersion {
 
     public void write(Puzzle puz, DataOutputStream dos) throws IOException {
         writeMeta(puz, dos);
-        Box[][] boxes = puz.getBoxes();
-        for(Box[] row : boxes ){
-            for(Box b : row){
-                if(b == null){
+        Grid grid = puz.getGrid();
+        for(int row = 0; row < grid.getHeight(); row++){
+            for(int col = 0; col < grid.getWidth(); col++){
+                if(!grid.hasBox(row, col)){
                     continue;
                 }
-                dos.writeBoolean(b.isCheated());
-                IO.writeNullTerminatedString(dos, b.getResponder());
+                dos.writeBoolean(grid.isCheated(row, col));
+                IO.writeNullTerminatedString(
+                    dos, grid.getResponder(row, col)
+                );
             }
         }
         dos.writeLong(puz.getTime());
@@ -2,22 +2,29 @@ package app.crossword.yourealwaysbe.puz;
 
 import java.io.Serializable;
 
+/**
+ * A cell of a puzzle
+ *
+ * The data of a box is kept in a BoxStore at the box's index. Boxes
+ * of a puzzle are views of its Grid, so cost only a reference and an
+ * index. A box made with new Box() keeps its own data, for building
+ * the boxes of a puzzle before Puzzle.setBoxes.
+ */
 public class Box implements Serializable {
     public static final char BLANK = ' ';
-    private static final int NOCLUE = -1;
-
-    private String responder;
-    private boolean across;
-    private boolean cheated;
-    private boolean down;
-    private boolean circled;
-    private char response = BLANK;
-    private char solution;
-    private int clueNumber;
-    private int partOfAcrossClueNumber = NOCLUE;
-    private int partOfDownClueNumber = NOCLUE;
-    private int acrossPosition;
-    private int downPosition;
+    static final int NOCLUE = -1;
+
+    private final BoxStore store;
+    private final int index;
+
+    public Box() {
+        this(new SingleBoxStore(), 0);
+    }
+
+    Box(BoxStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
 
     @Override
     public boolean equals(Object obj) {
@@ -29,7 +36,7 @@ public class Box implements Serializable {
             return false;
         }
 
-        if (getClass() != obj.getClass()) {
+        if (!(obj instanceof Box)) {
             return false;
         }
 
@@ -59,7 +66,7 @@ public class Box implements Serializable {
             if (other.getResponder() != null) {
                 return false;
             }
-        } else if (!responder.equals(other.responder)) {
+        } else if (!getResponder().equals(other.getResponder())) {
             return false;
         }
 
@@ -110,77 +117,77 @@ public class Box implements Serializable {
      * @param responder the responder to set
      */
     public void setResponder(String responder) {
-        this.responder = responder;
+        store.setResponder(index, responder);
     }
 
     /**
      * @return the across
      */
     public boolean isAcross() {
-        return across;
+        return store.isAcross(index);
     }
 
     /**
      * @param across the across to set
      */
     public void setAcross(boolean across) {
-        this.across = across;
+        store.setAcross(index, across);
     }
 
     /**
      * @return the cheated
      */
     public boolean isCheated() {
-        return cheated;
+        return store.isCheated(index);
     }
 
     /**
      * @param cheated the cheated to set
      */
     public void setCheated(boolean cheated) {
-        this.cheated = cheated;
+        store.setCheated(index, cheated);
     }
 
     /**
      * @return the down
      */
     public boolean isDown() {
-        return down;
+        return store.isDown(index);
     }
 
     /**
      * @param down the down to set
      */
     public void setDown(boolean down) {
-        this.down = down;
+        store.setDown(index, down);
     }
 
     /**
      * @return if the box is circled
      */
     public boolean isCircled() {
-	return circled;
+        return store.isCircled(index);
     }
 
     /**
      * @param circled the circled to set
      */
     public void setCircled(boolean circled) {
-	this.circled = circled;
+        store.setCircled(index, circled);
     }
 
     /**
      * @return the response
      */
     public char getResponse() {
-        return response;
+        return store.getResponse(index);
     }
 
     /**
      * @param response the response to set
      */
     public void setResponse(char response) {
-        this.response = response;
+        store.setResponse(index, response);
     }
 
     /**
@@ -194,35 +201,35 @@ public class Box implements Serializable {
      * @return the solution
      */
     public char getSolution() {
-        return solution;
+        return store.getSolution(index);
     }
 
     /**
      * @param solution the solution to set
      */
     public void setSolution(char solution) {
-        this.solution = solution;
+        store.setSolution(index, solution);
     }
 
     /**
      * @return the clueNumber, or 0 for no clue
      */
     public int getClueNumber() {
-        return clueNumber;
+        return store.getClueNumber(index);
     }
 
     /**
      * @param clueNumber the clueNumber to set
      */
     public void setClueNumber(int clueNumber) {
-        this.clueNumber = clueNumber;
+        store.setClueNumber(index, clueNumber);
     }
 
     /**
      * @return the responder
      */
     public String getResponder() {
-        return responder;
+        return store.getResponder(index);
     }
 
     /**
@@ -236,7 +243,7 @@ public class Box implements Serializable {
      * @param clueNumber across clue that box is a part of
      */
     public void setPartOfAcrossClueNumber(int clueNumber) {
-        this.partOfAcrossClueNumber = clueNumber;
+        store.setPartOfAcrossClueNumber(index, clueNumber);
     }
 
     /**
@@ -244,21 +251,21 @@ public class Box implements Serializable {
      * returns true)
      */
     public int getPartOfAcrossClueNumber() {
-        return partOfAcrossClueNumber;
+        return store.getPartOfAcrossClueNumber(index);
     }
 
     /**
      * @returns true if box is part of across clue
      */
     public boolean isPartOfAcross() {
-        return partOfAcrossClueNumber != NOCLUE;
+        return getPartOfAcrossClueNumber() != NOCLUE;
     }
 
     /**
      * @param clueNumber down clue that box is a part of
      */
     public void setPartOfDownClueNumber(int clueNumber) {
-        this.partOfDownClueNumber = clueNumber;
+        store.setPartOfDownClueNumber(index, clueNumber);
     }
 
     /**
@@ -266,14 +273,14 @@ public class Box implements Serializable {
      * returns true)
      */
     public int getPartOfDownClueNumber() {
-        return partOfDownClueNumber;
+        return store.getPartOfDownClueNumber(index);
     }
 
     /**
      * @returns true if box is part of down clue
      */
     public boolean isPartOfDown() {
-        return partOfDownClueNumber != NOCLUE;
+        return getPartOfDownClueNumber() != NOCLUE;
     }
 
     /**
@@ -281,7 +288,7 @@ public class Box implements Serializable {
      * across word
      */
     public void setAcrossPosition(int position) {
-        this.acrossPosition = position;
+        store.setAcrossPosition(index, position);
     }
 
     /**
@@ -289,7 +296,7 @@ public class Box implements Serializable {
      * true
      */
     public int getAcrossPosition() {
-        return acrossPosition;
+        return store.getAcrossPosition(index);
     }
 
     /**
@@ -297,7 +304,7 @@ public class Box implements Serializable {
      * down word
      */
     public void setDownPosition(int position) {
-        this.downPosition = position;
+        store.setDownPosition(index, position);
     }
 
     /**
@@ -305,6 +312,120 @@ public class Box implements Serializable {
      * true
      */
     public int getDownPosition() {
-        return downPosition;
+        return store.getDownPosition(index);
+    }
+
+    /**
+     * Store of the data of a box not in a grid
+     */
+    private static class SingleBoxStore extends BoxStore {
+        private String responder;
+        private boolean across;
+        private boolean cheated;
+        private boolean down;
+        private boolean circled;
+        private char response = BLANK;
+        private char solution;
+        private int clueNumber;
+        private int partOfAcrossClueNumber = NOCLUE;
+        private int partOfDownClueNumber = NOCLUE;
+        private int acrossPosition;
+        private int downPosition;
+
+        @Override
+        String getResponder(int index) { return responder; }
+
+        @Override
+        void setResponder(int index, String responder) {
+            this.responder = responder;
+        }
+
+        @Override
+        boolean isAcross(int index) { return across; }
+
+        @Override
+        void setAcross(int index, boolean across) { this.across = across; }
+
+        @Override
+        boolean isCheated(int index) { return cheated; }
+
+        @Override
+        void setCheated(int index, boolean cheated) {
+            this.cheated = cheated;
+        }
+
+        @Override
+        boolean isDown(int index) { return down; }
+
+        @Override
+        void setDown(int index, boolean down) { this.down = down; }
+
+        @Override
+        boolean isCircled(int index) { return circled; }
+
+        @Override
+        void setCircled(int index, boolean circled) {
+            this.circled = circled;
+        }
+
+        @Override
+        char getResponse(int index) { return response; }
+
+        @Override
+        void setResponse(int index, char response) {
+            this.response = response;
+        }
+
+        @Override
+        char getSolution(int index) { return solution; }
+
+        @Override
+        void setSolution(int index, char solution) {
+            this.solution = solution;
+        }
+
+        @Override
+        int getClueNumber(int index) { return clueNumber; }
+
+        @Override
+        void setClueNumber(int index, int clueNumber) {
+            this.clueNumber = clueNumber;
+        }
+
+        @Override
+        int getPartOfAcrossClueNumber(int index) {
+            return partOfAcrossClueNumber;
+        }
+
+        @Override
+        void setPartOfAcrossClueNumber(int index, int clueNumber) {
+            this.partOfAcrossClueNumber = clueNumber;
+        }
+
+        @Override
+        int getPartOfDownClueNumber(int index) {
+            return partOfDownClueNumber;
+        }
+
+        @Override
+        void setPartOfDownClueNumber(int index, int clueNumber) {
+            this.partOfDownClueNumber = clueNumber;
+        }
+
+        @Override
+        int getAcrossPosition(int index) { return acrossPosition; }
+
+        @Override
+        void setAcrossPosition(int index, int position) {
+            this.acrossPosition = position;
+        }
+
+        @Override
+        int getDownPosition(int index) { return downPosition; }
+
+        @Override
+        void setDownPosition(int index, int position) {
+            this.downPosition = position;
+        }
     }
 }
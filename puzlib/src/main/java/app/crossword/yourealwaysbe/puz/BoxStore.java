@@ -0,0 +1,37 @@
+package app.crossword.yourealwaysbe.puz;
+
+import java.io.Serializable;
+
+/**
+ * Where the data of a Box is kept
+ *
+ * A box reads and writes its data through the store and its index in
+ * it. The Grid of a puzzle is the store of all its boxes, while a box
+ * made with new Box() has a store of its own.
+ */
+abstract class BoxStore implements Serializable {
+    abstract String getResponder(int index);
+    abstract void setResponder(int index, String responder);
+    abstract boolean isAcross(int index);
+    abstract void setAcross(int index, boolean across);
+    abstract boolean isCheated(int index);
+    abstract void setCheated(int index, boolean cheated);
+    abstract boolean isDown(int index);
+    abstract void setDown(int index, boolean down);
+    abstract boolean isCircled(int index);
+    abstract void setCircled(int index, boolean circled);
+    abstract char getResponse(int index);
+    abstract void setResponse(int index, char response);
+    abstract char getSolution(int index);
+    abstract void setSolution(int index, char solution);
+    abstract int getClueNumber(int index);
+    abstract void setClueNumber(int index, int clueNumber);
+    abstract int getPartOfAcrossClueNumber(int index);
+    abstract void setPartOfAcrossClueNumber(int index, int clueNumber);
+    abstract int getPartOfDownClueNumber(int index);
+    abstract void setPartOfDownClueNumber(int index, int clueNumber);
+    abstract int getAcrossPosition(int index);
+    abstract void setAcrossPosition(int index, int position);
+    abstract int getDownPosition(int index);
+    abstract void setDownPosition(int index, int position);
+}
@@ -0,0 +1,460 @@
+package app.crossword.yourealwaysbe.puz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact storage of the boxes of a puzzle
+ *
+ * The data of each box is kept in primitive arrays indexed by row *
+ * width + col rather than in a Box object per cell. Responders are
+ * stored once in a table and referred to by index.
+ *
+ * Boxes returned by getBox and getBoxes are views that read and write
+ * the arrays, so changes through them are seen by the grid. A view
+ * holds only the grid and the index of its cell, and the grid does not
+ * keep them. Code that walks every cell should use the accessors by
+ * row and column instead, which read the arrays without making views.
+ *
+ * Counts of boxes that are filled, correct, cheated, etc. are kept up
+ * to date as boxes change, so the completion queries do not scan the
+ * grid.
+ */
+public class Grid extends BoxStore {
+    private static final byte FLAG_PRESENT = 1;
+    private static final byte FLAG_ACROSS = 1 << 1;
+    private static final byte FLAG_DOWN = 1 << 2;
+    private static final byte FLAG_CHEATED = 1 << 3;
+    private static final byte FLAG_CIRCLED = 1 << 4;
+
+    private static final int NO_RESPONDER = 0;
+
+    private final int width;
+    private final int height;
+
+    private final byte[] flags;
+    private final char[] solutions;
+    private final char[] responses;
+    private final int[] clueNumbers;
+    private final int[] partOfAcrossClueNumbers;
+    private final int[] partOfDownClueNumbers;
+    private final short[] acrossPositions;
+    private final short[] downPositions;
+    private final short[] responderIds;
+
+    // index 0 is no responder
+    private final List<String> responders = new ArrayList<>();
+
+    // counts over the boxes that are not blocks
+    private int numBoxes;
+    private int numFilled;
+    private int numCorrect;
+    private int numWithSolution;
+    private int numCheated;
+    private int numCircled;
+    private int numWithResponder;
+
+    /**
+     * An empty grid, all cells blocks
+     */
+    public Grid(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        int size = width * height;
+        flags = new byte[size];
+        solutions = new char[size];
+        responses = new char[size];
+        clueNumbers = new int[size];
+        partOfAcrossClueNumbers = new int[size];
+        partOfDownClueNumbers = new int[size];
+        acrossPositions = new short[size];
+        downPositions = new short[size];
+        responderIds = new short[size];
+
+        responders.add(null);
+    }
+
+    /**
+     * Copy the data of the boxes into a new grid
+     *
+     * @param boxes in row, col order, null for blocks, must be a true
+     * grid
+     */
+    public static Grid fromBoxes(Box[][] boxes) {
+        int height = boxes.length;
+        int width = (height > 0) ? boxes[0].length : 0;
+
+        Grid grid = new Grid(width, height);
+
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                Box box = boxes[row][col];
+                if (box != null)
+                    grid.setFrom(grid.getIndex(row, col), box);
+            }
+        }
+
+        return grid;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /**
+     * View of the box at the position, or null if it is a block
+     */
+    public Box getBox(int row, int col) {
+        int index = getIndex(row, col);
+        return isPresent(index) ? new Box(this, index) : null;
+    }
+
+    /**
+     * New views of all boxes in row, col order, null for blocks
+     */
+    public Box[][] getBoxes() {
+        Box[][] boxes = new Box[height][width];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++)
+                boxes[row][col] = getBox(row, col);
+        }
+        return boxes;
+    }
+
+    /**
+     * True if the position is a box rather than a block
+     */
+    public boolean hasBox(int row, int col) {
+        return isPresent(getIndex(row, col));
+    }
+
+    /**
+     * Solution of the box at the position, which must not be a block
+     */
+    public char getSolution(int row, int col) {
+        return getSolution(getBoxIndex(row, col));
+    }
+
+    public void setSolution(int row, int col, char solution) {
+        setSolution(getBoxIndex(row, col), solution);
+    }
+
+    public char getResponse(int row, int col) {
+        return getResponse(getBoxIndex(row, col));
+    }
+
+    public void setResponse(int row, int col, char response) {
+        setResponse(getBoxIndex(row, col), response);
+    }
+
+    public boolean isCircled(int row, int col) {
+        return isCircled(getBoxIndex(row, col));
+    }
+
+    public void setCircled(int row, int col, boolean circled) {
+        setCircled(getBoxIndex(row, col), circled);
+    }
+
+    public boolean isCheated(int row, int col) {
+        return isCheated(getBoxIndex(row, col));
+    }
+
+    public void setCheated(int row, int col, boolean cheated) {
+        setCheated(getBoxIndex(row, col), cheated);
+    }
+
+    public String getResponder(int row, int col) {
+        return getResponder(getBoxIndex(row, col));
+    }
+
+    public void setResponder(int row, int col, String responder) {
+        setResponder(getBoxIndex(row, col), responder);
+    }
+
+    /**
+     * Clue number of the box at the position, or 0 for no clue
+     */
+    public int getClueNumber(int row, int col) {
+        return getClueNumber(getBoxIndex(row, col));
+    }
+
+    public int getPercentComplete() {
+        return (numBoxes == 0) ? 0 : (numCorrect * 100) / numBoxes;
+    }
+
+    public int getPercentFilled() {
+        return (numFilled * 100) / numBoxes;
+    }
+
+    /**
+     * Returns true if some box has a solution set
+     */
+    public boolean hasSolution() {
+        return numWithSolution > 0;
+    }
+
+    /**
+     * Returns true if some box has cheated
+     */
+    public boolean hasCheated() {
+        return numCheated > 0;
+    }
+
+    /**
+     * Returns true if some box is circled
+     */
+    public boolean hasCircled() {
+        return numCircled > 0;
+    }
+
+    /**
+     * Returns true if some box has a responder set
+     */
+    public boolean hasResponders() {
+        return numWithResponder > 0;
+    }
+
+    /**
+     * Equal if the grids have the same boxes in the sense of
+     * Box.equals
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof Grid))
+            return false;
+
+        Grid other = (Grid) obj;
+
+        if (width != other.width || height != other.height)
+            return false;
+
+        for (int i = 0; i < flags.length; i++) {
+            if (flags[i] != other.flags[i])
+                return false;
+            if (!isPresent(i))
+                continue;
+            if (solutions[i] != other.solutions[i]
+                    || responses[i] != other.responses[i]
+                    || clueNumbers[i] != other.clueNumbers[i]
+                    || partOfAcrossClueNumbers[i]
+                        != other.partOfAcrossClueNumbers[i]
+                    || partOfDownClueNumbers[i]
+                        != other.partOfDownClueNumbers[i]
+                    || !Objects.equals(
+                        getResponder(i), other.getResponder(i)
+                    ))
+                return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * width + height;
+        result = 31 * result + Arrays.hashCode(flags);
+        result = 31 * result + Arrays.hashCode(solutions);
+        result = 31 * result + Arrays.hashCode(responses);
+        result = 31 * result + Arrays.hashCode(clueNumbers);
+        return result;
+    }
+
+    private int getIndex(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            throw new IndexOutOfBoundsException(
+                "(" + row + ", " + col + ") outside of grid"
+            );
+        }
+        return row * width + col;
+    }
+
+    /**
+     * Index of the position, which must be a box
+     */
+    private int getBoxIndex(int row, int col) {
+        int index = getIndex(row, col);
+        if (!isPresent(index)) {
+            throw new IllegalArgumentException(
+                "(" + row + ", " + col + ") is a block"
+            );
+        }
+        return index;
+    }
+
+    private boolean isPresent(int index) {
+        return (flags[index] & FLAG_PRESENT) != 0;
+    }
+
+    private boolean getFlag(int index, byte flag) {
+        return (flags[index] & flag) != 0;
+    }
+
+    private void setFlag(int index, byte flag, boolean value) {
+        if (value)
+            flags[index] |= flag;
+        else
+            flags[index] &= ~flag;
+    }
+
+    private void setFrom(int index, Box box) {
+        flags[index] = FLAG_PRESENT;
+        responses[index] = Box.BLANK;
+        numBoxes += 1;
+
+        setFlag(index, FLAG_ACROSS, box.isAcross());
+        setFlag(index, FLAG_DOWN, box.isDown());
+        setCheated(index, box.isCheated());
+        setCircled(index, box.isCircled());
+        setSolution(index, box.getSolution());
+        setResponse(index, box.getResponse());
+        clueNumbers[index] = box.getClueNumber();
+        partOfAcrossClueNumbers[index] = box.getPartOfAcrossClueNumber();
+        partOfDownClueNumbers[index] = box.getPartOfDownClueNumber();
+        acrossPositions[index] = (short) box.getAcrossPosition();
+        downPositions[index] = (short) box.getDownPosition();
+        setResponder(index, box.getResponder());
+    }
+
+    @Override
+    void setResponse(int index, char response) {
+        updateCounts(index, -1);
+        responses[index] = response;
+        updateCounts(index, 1);
+    }
+
+    @Override
+    void setSolution(int index, char solution) {
+        updateCounts(index, -1);
+        solutions[index] = solution;
+        updateCounts(index, 1);
+    }
+
+    /**
+     * Add or remove the box's response and solution from the counts
+     */
+    private void updateCounts(int index, int delta) {
+        if (responses[index] != Box.BLANK)
+            numFilled += delta;
+        if (responses[index] == solutions[index])
+            numCorrect += delta;
+        if (solutions[index] != '\0')
+            numWithSolution += delta;
+    }
+
+    @Override
+    void setCheated(int index, boolean cheated) {
+        if (cheated != getFlag(index, FLAG_CHEATED)) {
+            numCheated += cheated ? 1 : -1;
+            setFlag(index, FLAG_CHEATED, cheated);
+        }
+    }
+
+    @Override
+    void setCircled(int index, boolean circled) {
+        if (circled != getFlag(index, FLAG_CIRCLED)) {
+            numCircled += circled ? 1 : -1;
+            setFlag(index, FLAG_CIRCLED, circled);
+        }
+    }
+
+    @Override
+    String getResponder(int index) {
+        return responders.get(responderIds[index]);
+    }
+
+    @Override
+    void setResponder(int index, String responder) {
+        if (responderIds[index] != NO_RESPONDER)
+            numWithResponder -= 1;
+
+        if (responder == null) {
+            responderIds[index] = NO_RESPONDER;
+            return;
+        }
+
+        // few responders per puzzle, a list search is enough
+        int id = responders.indexOf(responder);
+        if (id < 0) {
+            id = responders.size();
+            responders.add(responder);
+        }
+        responderIds[index] = (short) id;
+        numWithResponder += 1;
+    }
+
+    @Override
+    boolean isAcross(int index) { return getFlag(index, FLAG_ACROSS); }
+
+    @Override
+    void setAcross(int index, boolean across) {
+        setFlag(index, FLAG_ACROSS, across);
+    }
+
+    @Override
+    boolean isCheated(int index) { return getFlag(index, FLAG_CHEATED); }
+
+    @Override
+    boolean isDown(int index) { return getFlag(index, FLAG_DOWN); }
+
+    @Override
+    void setDown(int index, boolean down) {
+        setFlag(index, FLAG_DOWN, down);
+    }
+
+    @Override
+    boolean isCircled(int index) { return getFlag(index, FLAG_CIRCLED); }
+
+    @Override
+    char getResponse(int index) { return responses[index]; }
+
+    @Override
+    char getSolution(int index) { return solutions[index]; }
+
+    @Override
+    int getClueNumber(int index) { return clueNumbers[index]; }
+
+    @Override
+    void setClueNumber(int index, int clueNumber) {
+        clueNumbers[index] = clueNumber;
+    }
+
+    @Override
+    int getPartOfAcrossClueNumber(int index) {
+        return partOfAcrossClueNumbers[index];
+    }
+
+    @Override
+    void setPartOfAcrossClueNumber(int index, int clueNumber) {
+        partOfAcrossClueNumbers[index] = clueNumber;
+    }
+
+    @Override
+    int getPartOfDownClueNumber(int index) {
+        return partOfDownClueNumbers[index];
+    }
+
+    @Override
+    void setPartOfDownClueNumber(int index, int clueNumber) {
+        partOfDownClueNumbers[index] = clueNumber;
+    }
+
+    @Override
+    int getAcrossPosition(int index) { return acrossPositions[index]; }
+
+    @Override
+    void setAcrossPosition(int index, int position) {
+        acrossPositions[index] = (short) position;
+    }
+
+    @Override
+    int getDownPosition(int index) { return downPositions[index]; }
+
+    @Override
+    void setDownPosition(int index, int position) {
+        downPositions[index] = (short) position;
+    }
+}
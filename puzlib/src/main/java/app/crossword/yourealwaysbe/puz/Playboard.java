@@ -3,7 +3,10 @@ package app.crossword.yourealwaysbe.puz;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -21,6 +24,11 @@ public class Playboard implements Serializable {
     private Puzzle puzzle;
     private String responder;
     private Box[][] boxes;
+    // word index, see buildWordIndex
+    private int[][] acrossWordStartIndex;
+    private int[][] downWordStartIndex;
+    private int[][] acrossRunLengths;
+    private int[][] downRunLengths;
     private boolean across = true;
     private boolean showErrorsGrid;
     private boolean showErrorsCursor;
@@ -30,6 +38,9 @@ public class Playboard implements Serializable {
     private Set<PlayboardListener> listeners = WeakSet.buildSet();
     private int notificationDisabledDepth = 0;
     private Word previousWord = null;
+    // boxes changed since the last notification, see notifyChange
+    private Set<Position> changedPositions = new LinkedHashSet<>();
+    private Position notifiedHighlight = null;
 
     public Playboard(Puzzle puzzle,
                      MovementStrategy movementStrategy,
@@ -51,11 +62,13 @@ public class Playboard implements Serializable {
         if (this.highlightLetter == null)
             this.highlightLetter = new Position(0, 0);
         this.across = this.puzzle.getAcross();
-        this.boxes = new Box[puzzle.getBoxes()[0].length][puzzle.getBoxes().length];
+        // the board shares one set of views of the puzzle's boxes
+        Box[][] puzBoxes = puzzle.getBoxes();
+        this.boxes = new Box[puzBoxes[0].length][puzBoxes.length];
 
-        for (int x = 0; x < puzzle.getBoxes().length; x++) {
-            for (int y = 0; y < puzzle.getBoxes()[x].length; y++) {
-                boxes[y][x] = puzzle.getBoxes()[x][y];
+        for (int x = 0; x < puzBoxes.length; x++) {
+            for (int y = 0; y < puzBoxes[x].length; y++) {
+                boxes[y][x] = puzBoxes[x][y];
 
                 if ((boxes[y][x] != null) && boxes[y][x].isAcross()) {
                     acrossWordStarts.put(boxes[y][x].getClueNumber(), new Position(y, x));
@@ -67,6 +80,8 @@ public class Playboard implements Serializable {
             }
         }
 
+        buildWordIndex();
+
         if (getCurrentBox() == null)
             this.moveRight(false);
 
@@ -117,14 +132,10 @@ public class Playboard implements Serializable {
      * Clue number for current position or -1 if none
      */
     public int getClueNumber() {
-        Position start = this.getCurrentWordStart();
-        Box[][] boxes =  this.getBoxes();
-        if (start.across >= 0 && start.across < boxes.length) {
-            Box[] row = boxes[start.across];
-            if (start.down >= 0 && start.down < row.length) {
-                return row[start.down].getClueNumber();
-            }
-        }
+        int startAcross = getCurrentWordStartAcross();
+        int startDown = getCurrentWordStartDown();
+        if (isInGrid(startAcross, startDown))
+            return boxes[startAcross][startDown].getClueNumber();
         return -1;
     }
 
@@ -202,23 +213,15 @@ public class Playboard implements Serializable {
     }
 
     public Box[] getCurrentWordBoxes() {
-        Word currentWord = this.getCurrentWord();
-        Box[] result = new Box[currentWord.length];
-
-        int across = currentWord.start.across;
-        int down = currentWord.start.down;
+        int across = getCurrentWordStartAcross();
+        int down = getCurrentWordStartDown();
+        Box[] result = new Box[getWordRange(across, down, isAcross())];
 
         for (int i = 0; i < result.length; i++) {
-            int newAcross = across;
-            int newDown = down;
-
-            if (currentWord.across) {
-                newAcross += i;
-            } else {
-                newDown += i;
-            }
-
-            result[i] = this.boxes[newAcross][newDown];
+            if (isAcross())
+                result[i] = this.boxes[across + i][down];
+            else
+                result[i] = this.boxes[across][down + i];
         }
 
         return result;
@@ -257,43 +260,35 @@ public class Playboard implements Serializable {
     }
 
     public Position getCurrentWordStart() {
-        if (this.isAcross()) {
-            int col = this.highlightLetter.across;
-            Box b = null;
-
-            while (b == null) {
-                try {
-                    if ((boxes[col][this.highlightLetter.down] != null) &&
-                            boxes[col][this.highlightLetter.down].isAcross()) {
-                        b = boxes[col][this.highlightLetter.down];
-                    } else {
-                        col--;
-                    }
-                } catch (Exception e) {
-                    break;
-                }
-            }
+        return new Position(
+            getCurrentWordStartAcross(), getCurrentWordStartDown()
+        );
+    }
 
-            return new Position(col, this.highlightLetter.down);
-        } else {
-            int row = this.highlightLetter.down;
-            Box b = null;
-
-            while (b == null) {
-                try {
-                    if ((boxes[this.highlightLetter.across][row] != null) &&
-                            boxes[this.highlightLetter.across][row].isDown()) {
-                        b = boxes[this.highlightLetter.across][row];
-                    } else {
-                        row--;
-                    }
-                } catch (Exception e) {
-                    break;
-                }
-            }
+    /**
+     * Across coordinate of the start of the current word
+     *
+     * -1 if there is no word start before the cursor
+     */
+    private int getCurrentWordStartAcross() {
+        int across = highlightLetter.across;
+        if (isAcross() && isInGrid(across, highlightLetter.down))
+            return acrossWordStartIndex[across][highlightLetter.down];
+        else
+            return across;
+    }
 
-            return new Position(this.highlightLetter.across, row);
-        }
+    /**
+     * Down coordinate of the start of the current word
+     *
+     * -1 if there is no word start before the cursor
+     */
+    private int getCurrentWordStartDown() {
+        int down = highlightLetter.down;
+        if (!isAcross() && isInGrid(highlightLetter.across, down))
+            return downWordStartIndex[highlightLetter.across][down];
+        else
+            return down;
     }
 
     public void setCurrentWord(String response) {
@@ -302,6 +297,7 @@ public class Playboard implements Serializable {
         for (int i = 0; i < length; i++) {
             boxes[i].setResponse(response.charAt(i));
         }
+        markCurrentWordChanged();
         notifyChange();
     }
 
@@ -311,6 +307,7 @@ public class Playboard implements Serializable {
         for (int i = 0; i < length; i++) {
             boxes[i].setResponse(response[i].getResponse());
         }
+        markCurrentWordChanged();
         notifyChange();
     }
 
@@ -391,7 +388,7 @@ public class Playboard implements Serializable {
         boolean changed = (this.showErrorsGrid != showErrors);
         this.showErrorsGrid = showErrors;
         if (changed)
-            notifyChange();
+            notifyChange(true);
     }
 
     /**
@@ -400,8 +397,10 @@ public class Playboard implements Serializable {
     public void setShowErrorsCursor(boolean showErrorsCursor) {
         boolean changed = (this.showErrorsCursor != showErrorsCursor);
         this.showErrorsCursor = showErrorsCursor;
-        if (changed)
+        if (changed) {
+            markChanged(highlightLetter);
             notifyChange();
+        }
     }
 
     /**
@@ -499,45 +498,86 @@ public class Playboard implements Serializable {
     }
 
     public int getWordRange(Position start, boolean across) {
-        if (across) {
-            int col = start.across;
-            Box b;
+        return getWordRange(start.across, start.down, across);
+    }
 
-            do {
-                b = null;
+    public int getWordRange() {
+        return getWordRange(
+            getCurrentWordStartAcross(), getCurrentWordStartDown(), isAcross()
+        );
+    }
 
-                int checkCol = col + 1;
+    /**
+     * Length of the word from the start to the next block or grid edge
+     *
+     * The start box itself is always counted, even if it is a block.
+     */
+    private int getWordRange(int startAcross, int startDown, boolean across) {
+        int nextAcross = across ? startAcross + 1 : startAcross;
+        int nextDown = across ? startDown : startDown + 1;
 
-                try {
-                    col++;
-                    b = this.getBoxes()[checkCol][start.down];
-                } catch (RuntimeException ignored) {
-                }
-            } while (b != null);
+        if (!isInGrid(nextAcross, nextDown))
+            return 1;
 
-            return col - start.across;
-        } else {
-            int row = start.down;
-            Box b;
+        return 1 + (across
+            ? acrossRunLengths[nextAcross][nextDown]
+            : downRunLengths[nextAcross][nextDown]);
+    }
 
-            do {
-                b = null;
+    /**
+     * Build the word index of the grid, which does not change
+     *
+     * For each cell the start of the across and down words it is in
+     * (the nearest clue start before it in the row or column, -1 if
+     * none), and the number of boxes from it to the next block or
+     * grid edge in each direction. These make word lookups array reads
+     * rather than scans of the grid.
+     */
+    private void buildWordIndex() {
+        int width = boxes.length;
+        int height = (width > 0) ? boxes[0].length : 0;
+
+        acrossWordStartIndex = new int[width][height];
+        downWordStartIndex = new int[width][height];
+        acrossRunLengths = new int[width][height];
+        downRunLengths = new int[width][height];
+
+        for (int down = 0; down < height; down++) {
+            int start = -1;
+            for (int across = 0; across < width; across++) {
+                Box box = boxes[across][down];
+                if (box != null && box.isAcross())
+                    start = across;
+                acrossWordStartIndex[across][down] = start;
+            }
 
-                int checkRow = row + 1;
+            int run = 0;
+            for (int across = width - 1; across >= 0; across--) {
+                run = (boxes[across][down] == null) ? 0 : run + 1;
+                acrossRunLengths[across][down] = run;
+            }
+        }
 
-                try {
-                    row++;
-                    b = this.getBoxes()[start.across][checkRow];
-                } catch (RuntimeException ignored) {
-                }
-            } while (b != null);
+        for (int across = 0; across < width; across++) {
+            int start = -1;
+            for (int down = 0; down < height; down++) {
+                Box box = boxes[across][down];
+                if (box != null && box.isDown())
+                    start = down;
+                downWordStartIndex[across][down] = start;
+            }
 
-            return row - start.down;
+            int run = 0;
+            for (int down = height - 1; down >= 0; down--) {
+                run = (boxes[across][down] == null) ? 0 : run + 1;
+                downRunLengths[across][down] = run;
+            }
         }
     }
 
-    public int getWordRange() {
-        return getWordRange(this.getCurrentWordStart(), this.isAcross());
+    private boolean isInGrid(int across, int down) {
+        return 0 <= across && across < boxes.length
+            && 0 <= down && down < boxes[across].length;
     }
 
     /**
@@ -560,6 +600,7 @@ public class Playboard implements Serializable {
 
         if (!isDontDeleteCurrent()) {
             currentBox.setBlank();
+            markChanged(highlightLetter);
         }
 
         popNotificationDisabled();
@@ -574,6 +615,8 @@ public class Playboard implements Serializable {
 
         pushNotificationDisabled();
 
+        markCurrentWordChanged();
+
         if (currentBox.isBlank()) {
             Note note = this.getNote();
             if (note != null) {
@@ -818,6 +861,7 @@ public class Playboard implements Serializable {
             pushNotificationDisabled();
             b.setResponse(letter);
             b.setResponder(this.responder);
+            markChanged(highlightLetter);
             Word next = this.nextLetter();
             popNotificationDisabled();
 
@@ -851,6 +895,8 @@ public class Playboard implements Serializable {
         if (pos >= 0 && pos < response.length())
             note.setScratchLetter(pos, letter);
 
+        markCurrentWordChanged();
+
         this.nextLetter();
         popNotificationDisabled();
 
@@ -900,6 +946,7 @@ public class Playboard implements Serializable {
         if ((b != null) && (b.getSolution() != b.getResponse())) {
             b.setCheated(true);
             b.setResponse(b.getSolution());
+            markChanged(highlightLetter);
 
             notifyChange();
 
@@ -934,7 +981,8 @@ public class Playboard implements Serializable {
             }
         }
 
-        notifyChange(true);
+        changedPositions.addAll(changes);
+        notifyChange();
 
         return changes;
     }
@@ -954,7 +1002,8 @@ public class Playboard implements Serializable {
             }
         }
 
-        notifyChange(true);
+        changedPositions.addAll(changes);
+        notifyChange();
 
         return changes;
     }
@@ -1019,16 +1068,45 @@ public class Playboard implements Serializable {
         if (notificationDisabledDepth == 0) {
             updateHistory();
 
+            // cursor moves change how the old and new box are drawn
+            if (!highlightLetter.equals(notifiedHighlight)) {
+                if (notifiedHighlight != null)
+                    changedPositions.add(notifiedHighlight);
+                markChanged(highlightLetter);
+            }
+
             Word currentWord = getCurrentWord();
+            Collection<Position> changes = Collections.unmodifiableList(
+                new ArrayList<>(changedPositions)
+            );
+            changedPositions.clear();
+
             for (PlayboardListener listener : listeners) {
                 listener.onPlayboardChange(
-                    wholeBoard, currentWord, previousWord
+                    wholeBoard, currentWord, previousWord, changes
                 );
             }
             previousWord = currentWord;
+            notifiedHighlight = new Position(
+                highlightLetter.across, highlightLetter.down
+            );
         }
     }
 
+    /**
+     * Record that the box at the position changed for the next
+     * notification
+     */
+    private void markChanged(Position position) {
+        // copy as positions are mutable
+        changedPositions.add(new Position(position.across, position.down));
+    }
+
+    private void markCurrentWordChanged() {
+        for (Position position : getCurrentWordPositions())
+            changedPositions.add(position);
+    }
+
     private void pushNotificationDisabled() {
         notificationDisabledDepth += 1;
     }
@@ -1120,23 +1198,28 @@ public class Playboard implements Serializable {
     /**
      * Playboard listeners will be updated when the highlighted letter
      * changes or the contents of a box changes.
-     *
-     * TODO: what about notes in scratch?
      */
     public interface PlayboardListener {
         /**
          * Notify that something has changed on the board
          *
          * currentWord and previousWord are the selected words since the
-         * last notification. These will be where changes are.
+         * last notification. If they differ, the word highlighting has
+         * changed. Other changes are in changes.
          *
          * @param wholeBoard true if change affects whole board
          * @param currentWord the currently selected word
          * @param previousWord the word selected in the last
          * notification (may be null)
+         * @param changes positions of boxes whose response, cheated
+         * state, scratch notes, or cursor highlight changed since the
+         * last notification
          */
         public void onPlayboardChange(
-            boolean wholeBoard, Word currentWord, Word previousWord
+            boolean wholeBoard,
+            Word currentWord,
+            Word previousWord,
+            Collection<Position> changes
         );
     }
 }
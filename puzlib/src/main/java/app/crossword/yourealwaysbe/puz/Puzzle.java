@@ -4,7 +4,6 @@ import app.crossword.yourealwaysbe.puz.Playboard.Position;
 
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -33,7 +32,7 @@ public class Puzzle implements Serializable{
     private String source;
     private String sourceUrl = "";
     private String supportUrl;
-    private Box[][] boxes;
+    private Grid grid;
     private boolean updatable;
     private int height;
     private int width;
@@ -50,11 +49,6 @@ public class Puzzle implements Serializable{
 
     private LinkedList<ClueNumDir> historyList = new LinkedList<>();
 
-    // Temporary fields used for unscrambling.
-    public int[] unscrambleKey;
-    public byte[] unscrambleTmp;
-    public byte[] unscrambleBuf;
-
     public void addClue(Clue clue) {
         if (clue.getIsAcross())
             this.acrossClues.addClue(clue);
@@ -113,14 +107,13 @@ public class Puzzle implements Serializable{
      * change in future. Also sets height and width.
      *
      * @param boxes boxes in row, col order, null means black square.
-     * Must be a true grid.
+     * Must be a true grid. The data of the boxes is copied into the
+     * puzzle's grid.
      * @throws IllegalArgumentException if the boxes are not a grid, or
      * contain numbering inconsistent with the "standard" crossword
      * numbering system.
      */
     public void setBoxes(Box[][] boxes) {
-        this.boxes = boxes;
-
         int clueCount = 1;
 
         this.height = boxes.length;
@@ -227,10 +220,30 @@ public class Puzzle implements Serializable{
             }
         }
 
+        this.grid = Grid.fromBoxes(boxes);
     }
 
+    /**
+     * The boxes of the puzzle in row, col order, null for blocks
+     *
+     * The boxes are views of the puzzle's grid, changes to them change
+     * the puzzle. Boxes passed to setBoxes are copied and are not part
+     * of the puzzle afterwards.
+     *
+     * The views are created on each call and not kept by the puzzle,
+     * so callers should hold on to the array rather than call again
+     * for each box. Code that only reads or writes the cells should
+     * use the accessors of getGrid, which make no views.
+     */
     public Box[][] getBoxes() {
-        return boxes;
+        return (grid == null) ? null : grid.getBoxes();
+    }
+
+    /**
+     * The compact storage of the puzzle's boxes, null if not set
+     */
+    public Grid getGrid() {
+        return grid;
     }
 
     /**
@@ -252,12 +265,14 @@ public class Puzzle implements Serializable{
     }
 
     public Box[] getBoxesList() {
-        Box[] result = new Box[boxes.length * boxes[0].length];
+        int height = grid.getHeight();
+        int width = grid.getWidth();
+        Box[] result = new Box[height * width];
         int i = 0;
 
-        for (int x = 0; x < boxes.length; x++) {
-            for (int y = 0; y < boxes[x].length; y++) {
-                result[i++] = boxes[x][y];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                result[i++] = grid.getBox(row, col);
             }
         }
 
@@ -334,37 +349,12 @@ public class Puzzle implements Serializable{
         };
     }
 
-    /**
-     * Initialize the temporary unscramble buffers.  Returns the scrambled solution.
-     */
-    public byte[] initializeUnscrambleData() {
-        unscrambleKey = new int[4];
-        unscrambleTmp = new byte[9];
-
-        byte[] solution = getSolutionDown();
-        unscrambleBuf = new byte[solution.length];
-
-        return solution;
-    }
-
-    private byte[] getSolutionDown() {
-        StringBuilder ans = new StringBuilder();
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                if (boxes[y][x] != null) {
-                    ans.append(boxes[y][x].getSolution());
-                }
-            }
-        }
-        return ans.toString().getBytes();
-    }
-
     public void setUnscrambledSolution(byte[] solution) {
         int i = 0;
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
-                if (boxes[y][x] != null) {
-                    boxes[y][x].setSolution((char) solution[i++]);
+                if (grid.hasBox(y, x)) {
+                    grid.setSolution(y, x, (char) solution[i++]);
                 }
             }
         }
@@ -408,43 +398,11 @@ public class Puzzle implements Serializable{
     }
 
     public int getPercentComplete() {
-        int total = 0;
-        int correct = 0;
-
-        for (int x = 0; x < boxes.length; x++) {
-            for (int y = 0; y < boxes[x].length; y++) {
-                if (boxes[x][y] != null) {
-                    total++;
-
-                    if (boxes[x][y].getResponse() == boxes[x][y].getSolution()) {
-                        correct++;
-                    }
-                }
-            }
-        }
-        if(total == 0){
-            return 0;
-        }
-        return (correct * 100) / (total);
+        return (grid == null) ? 0 : grid.getPercentComplete();
     }
 
     public int getPercentFilled() {
-        int total = 0;
-        int filled = 0;
-
-        for (int x = 0; x < boxes.length; x++) {
-            for (int y = 0; y < boxes[x].length; y++) {
-                if (boxes[x][y] != null) {
-                    total++;
-
-                    if (!boxes[x][y].isBlank()) {
-                        filled++;
-                    }
-                }
-            }
-        }
-
-        return (filled * 100) / (total);
+        return grid.getPercentFilled();
     }
 
     public void setSource(String source) {
@@ -567,72 +525,28 @@ public class Puzzle implements Serializable{
      * Returns true if some box has a solution set
      */
     public boolean hasSolution() {
-        if (boxes == null)
-            return false;
-
-        for (int row = 0; row < boxes.length; row++) {
-            for (int col = 0; col < boxes[row].length; col++) {
-                Box box = boxes[row][col];
-                if (box != null && box.hasSolution())
-                    return true;
-            }
-        }
-
-        return false;
+        return (grid != null) && grid.hasSolution();
     }
 
     /**
      * Returns true if some box has cheated
      */
     public boolean hasCheated() {
-        if (boxes == null)
-            return false;
-
-        for (int row = 0; row < boxes.length; row++) {
-            for (int col = 0; col < boxes[row].length; col++) {
-                Box box = boxes[row][col];
-                if (box != null && box.isCheated())
-                    return true;
-            }
-        }
-
-        return false;
+        return (grid != null) && grid.hasCheated();
     }
 
     /**
      * Returns true if some box has a responder set
      */
     public boolean hasResponders() {
-        if (boxes == null)
-            return false;
-
-        for (int row = 0; row < boxes.length; row++) {
-            for (int col = 0; col < boxes[row].length; col++) {
-                Box box = boxes[row][col];
-                if (box != null && box.getResponder() != null)
-                    return true;
-            }
-        }
-
-        return false;
+        return (grid != null) && grid.hasResponders();
     }
 
     /**
      * Returns true if some box is circled
      */
     public boolean hasCircled() {
-        if (boxes == null)
-            return false;
-
-        for (int row = 0; row < boxes.length; row++) {
-            for (int col = 0; col < boxes[row].length; col++) {
-                Box box = boxes[row][col];
-                if (box != null && box.isCircled())
-                    return true;
-            }
-        }
-
-        return false;
+        return (grid != null) && grid.hasCircled();
     }
 
     @Override
@@ -667,19 +581,7 @@ public class Puzzle implements Serializable{
             return false;
         }
 
-        Box[][] b1 = boxes;
-        Box[][] b2 = other.boxes;
-        boolean boxEq = true;
-
-        for (int x = 0; x < b1.length; x++) {
-            for (int y = 0; y < b1[x].length; y++) {
-                boxEq = boxEq
-                    ? ((b1[x][y] == b2[x][y]) || b1[x][y].equals(b2[x][y]))
-                    : boxEq;
-            }
-        }
-
-        if (!boxEq) {
+        if (!Objects.equals(grid, other.grid)) {
             return false;
         }
 
@@ -741,7 +643,7 @@ public class Puzzle implements Serializable{
         result = (prime * result) + acrossClues.hashCode();
         result = (prime * result) + downClues.hashCode();
         result = (prime * result) + ((author == null) ? 0 : author.hashCode());
-        result = (prime * result) + Arrays.hashCode(boxes);
+        result = (prime * result) + Objects.hashCode(grid);
         result = (prime * result) +
             ((copyright == null) ? 0 : copyright.hashCode());
         result = (prime * result) + height;
@@ -756,7 +658,7 @@ public class Puzzle implements Serializable{
 
     @Override
     public String toString() {
-        return "Puzzle " + boxes.length + " x " + boxes[0].length + " " +
+        return "Puzzle " + height + " x " + width + " " +
         this.title;
     }
 
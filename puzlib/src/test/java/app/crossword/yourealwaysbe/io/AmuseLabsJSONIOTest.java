@@ -1,8 +1,12 @@
 
 package app.crossword.yourealwaysbe.io;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.time.LocalDate;
+import java.util.Base64;
 
 import junit.framework.TestCase;
 
@@ -60,5 +64,40 @@ public class AmuseLabsJSONIOTest extends TestCase {
             assertIsTestPuzzle1(puz);
         }
     }
-}
 
+    public void testPuzzle1String() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = getTestPuzzle1InputStream()) {
+            IO.copyStream(is, baos);
+        }
+        String json = new String(baos.toByteArray(), "UTF-8");
+        assertIsTestPuzzle1(AmuseLabsJSONIO.readPuzzle(json));
+    }
+
+    public void testPuzzle1FromPage() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = getTestPuzzle1InputStream()) {
+            IO.copyStream(is, baos);
+        }
+        String rawc = Base64.getEncoder().encodeToString(baos.toByteArray());
+
+        // a partial match and a marker with no value come first
+        String page = "<html><script>\n"
+            + "var windowindow.rawc;\n"
+            + "if (window.rawc)\n"
+            + "  window.rawc = '" + rawc + "';\n"
+            + "</script></html>\n";
+
+        Puzzle puz = AmuseLabsJSONIO.readPuzzleFromPage(
+            new ByteArrayInputStream(page.getBytes(Charset.forName("UTF-8")))
+        );
+        assertIsTestPuzzle1(puz);
+    }
+
+    public void testNoRawc() throws Exception {
+        String page = "<html>window.rawc\n</html>";
+        assertNull(AmuseLabsJSONIO.readPuzzleFromPage(
+            new ByteArrayInputStream(page.getBytes(Charset.forName("UTF-8")))
+        ));
+    }
+}
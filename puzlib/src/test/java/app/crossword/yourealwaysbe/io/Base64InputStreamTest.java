@@ -0,0 +1,75 @@
+package app.crossword.yourealwaysbe.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class Base64InputStreamTest extends TestCase {
+
+    public Base64InputStreamTest(String testName) {
+        super(testName);
+    }
+
+    private static byte[] decode(String encoded) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (
+            InputStream is = new Base64InputStream(new ByteArrayInputStream(
+                encoded.getBytes(Charset.forName("US-ASCII"))
+            ))
+        ) {
+            IO.copyStream(is, baos);
+        }
+        return baos.toByteArray();
+    }
+
+    public void testMatchesEncoders() throws Exception {
+        Base64.Encoder[] encoders = {
+            Base64.getEncoder(),
+            Base64.getEncoder().withoutPadding(),
+            Base64.getUrlEncoder(),
+            Base64.getMimeEncoder()
+        };
+
+        Random random = new Random(31);
+        for (int i = 0; i < 200; i++) {
+            byte[] data = new byte[random.nextInt(500)];
+            random.nextBytes(data);
+            for (Base64.Encoder encoder : encoders) {
+                assertTrue(Arrays.equals(
+                    data, decode(encoder.encodeToString(data))
+                ));
+            }
+        }
+    }
+
+    public void testSingleBytes() throws Exception {
+        byte[] data = "Amuse Labs".getBytes(Charset.forName("US-ASCII"));
+        String encoded = Base64.getEncoder().encodeToString(data);
+
+        try (
+            InputStream is = new Base64InputStream(new ByteArrayInputStream(
+                encoded.getBytes(Charset.forName("US-ASCII"))
+            ))
+        ) {
+            for (byte b : data)
+                assertEquals(b & 0xFF, is.read());
+            assertEquals(-1, is.read());
+        }
+    }
+
+    public void testInvalid() {
+        try {
+            decode("QUJD*");
+            fail("Expected invalid character error");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -5,13 +5,17 @@
 
 package app.crossword.yourealwaysbe.io;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 
 import junit.framework.TestCase;
@@ -96,6 +100,108 @@ public class IOTest extends TestCase {
         }
     }
 
+    public void testLoadBuffer() throws Exception {
+        String[] resources = {
+            "/test.puz",
+            "/2010-7-4-LosAngelesTimes.puz",
+            "/2010-7-19-NewYorkTimes.puz",
+            "/puz_110523margulies.puz"
+        };
+
+        for (String resource : resources) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (InputStream is = IOTest.class.getResourceAsStream(resource)) {
+                IO.copyStream(is, baos);
+            }
+            byte[] data = baos.toByteArray();
+
+            Puzzle expected = IO.loadNative(new ByteArrayInputStream(data));
+
+            // heap buffer not starting at 0
+            ByteBuffer heap = ByteBuffer.allocate(data.length + 3);
+            heap.position(3);
+            heap.put(data);
+            heap.position(3);
+            assertEquals(expected, IO.loadNative(heap));
+            assertEquals(3, heap.position());
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+            direct.put(data);
+            direct.flip();
+            assertEquals(expected, IO.loadNative(direct));
+        }
+
+        assertIsTestPuzzle1(IO.loadNative(ByteBuffer.wrap(
+            getTestPuzzle1Bytes()
+        )));
+        assertNull(IO.loadNative(ByteBuffer.wrap(new byte[] { 1, 2, 3 })));
+    }
+
+    public void testLoadBufferTruncated() throws Exception {
+        byte[] data = getTestPuzzle1Bytes();
+        try {
+            IO.loadNative(ByteBuffer.wrap(data, 0, 0x100));
+            fail("Truncated grid should not load");
+        } catch (EOFException e) {
+            // expected
+        }
+    }
+
+    private static byte[] getTestPuzzle1Bytes() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = getTestPuzzle1InputStream()) {
+            IO.copyStream(is, baos);
+        }
+        return baos.toByteArray();
+    }
+
+    public void testLoadMeta() throws Exception {
+        Puzzle puz;
+        try (
+            InputStream is = getTestPuzzle1InputStream();
+        ) {
+            puz = IO.loadNative(is);
+        }
+
+        puz.setSource("Unit Test");
+        puz.setDate(LocalDate.of(2009, 11, 13));
+        puz.setUpdatable(true);
+        puz.getBoxes()[0][0].setResponse(puz.getBoxes()[0][0].getSolution());
+        puz.getBoxes()[0][1].setResponse('Z');
+
+        ByteArrayOutputStream puzOS = new ByteArrayOutputStream();
+        ByteArrayOutputStream metaOS = new ByteArrayOutputStream();
+        IO.save(puz, puzOS, metaOS);
+
+        PuzzleMeta meta = IO.loadMeta(
+            new DataInputStream(
+                new ByteArrayInputStream(puzOS.toByteArray())
+            ),
+            new DataInputStream(
+                new ByteArrayInputStream(metaOS.toByteArray())
+            )
+        );
+
+        assertEquals(puz.getTitle(), meta.title);
+        assertEquals(puz.getAuthor(), meta.author);
+        assertEquals("Unit Test", meta.source);
+        assertEquals(puz.getDate(), meta.date);
+        assertTrue(meta.updatable);
+        assertEquals(puz.getPercentComplete(), meta.percentComplete);
+        assertEquals(puz.getPercentFilled(), meta.percentFilled);
+        assertTrue(meta.percentFilled > 0);
+
+        meta = IO.loadMeta(
+            new DataInputStream(
+                new ByteArrayInputStream(puzOS.toByteArray())
+            ),
+            null
+        );
+        assertEquals(puz.getTitle(), meta.title);
+        assertEquals(puz.getPercentFilled(), meta.percentFilled);
+        assertNull(meta.source);
+    }
+
     public void testSave() throws Exception {
         try (
             InputStream is = IOTest.class.getResourceAsStream("/test.puz")
@@ -234,9 +340,7 @@ public class IOTest extends TestCase {
             }
             System.out.println();
             try{
-                assertTrue(IO.tryUnscramble(
-                    puz, 2465, puz.initializeUnscrambleData())
-                );
+                assertTrue(PuzUnscrambler.unlock(puz, 2465));
                 for(Box b :  puz.getBoxesList()){
                     if(b != null)
                     System.out.print(b.getSolution()+" ");
@@ -13,6 +13,7 @@ import app.crossword.yourealwaysbe.puz.Note;
 import app.crossword.yourealwaysbe.puz.Playboard.Position;
 import app.crossword.yourealwaysbe.puz.Puzzle.ClueNumDir;
 import app.crossword.yourealwaysbe.puz.Puzzle;
+import app.crossword.yourealwaysbe.puz.PuzzleMeta;
 
 public class IPuzIOTest extends TestCase {
 
@@ -196,5 +197,55 @@ public class IPuzIOTest extends TestCase {
             assertEquals(puz, puz2);
         }
     }
+
+    public void testReadMeta() throws Exception {
+        Puzzle puz;
+        try (InputStream is = getTestPuzzle1InputStream()) {
+            puz = IPuzIO.readPuzzle(is);
+        }
+
+        try (InputStream is = getTestPuzzle1InputStream()) {
+            assertMetaMatches(puz, IPuzIO.readMeta(is));
+        }
+
+        Box[][] boxes = puz.getBoxes();
+        boxes[0][1].setResponse(boxes[0][1].getSolution());
+        boxes[1][2].setResponse('Y');
+        puz.setUpdatable(true);
+        puz.setSupportUrl("http://test.url");
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        IPuzIO.writePuzzle(puz, baos);
+        baos.close();
+
+        PuzzleMeta meta = IPuzIO.readMeta(
+            new ByteArrayInputStream(baos.toByteArray())
+        );
+        assertMetaMatches(puz, meta);
+        assertTrue(meta.percentFilled > 0);
+        assertTrue(meta.updatable);
+        assertEquals("http://test.url", meta.supportUrl);
+    }
+
+    public void testReadMetaHTML() throws Exception {
+        Puzzle puz;
+        try (InputStream is = getTestPuzzleHTMLInputStream()) {
+            puz = IPuzIO.readPuzzle(is);
+        }
+
+        try (InputStream is = getTestPuzzleHTMLInputStream()) {
+            assertMetaMatches(puz, IPuzIO.readMeta(is));
+        }
+    }
+
+    private static void assertMetaMatches(Puzzle puz, PuzzleMeta meta) {
+        assertEquals(puz.getTitle(), meta.title);
+        assertEquals(puz.getAuthor(), meta.author);
+        assertEquals(puz.getSource(), meta.source);
+        assertEquals(puz.getDate(), meta.date);
+        assertEquals(puz.isUpdatable(), meta.updatable);
+        assertEquals(puz.getPercentComplete(), meta.percentComplete);
+        assertEquals(puz.getPercentFilled(), meta.percentFilled);
+    }
 }
 
@@ -0,0 +1,126 @@
+package app.crossword.yourealwaysbe.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import app.crossword.yourealwaysbe.puz.Puzzle;
+
+public class PuzChecksumTest extends TestCase {
+
+    public PuzChecksumTest(String testName) {
+        super(testName);
+    }
+
+    /**
+     * The byte at a time checksum from the format description
+     */
+    private static int reference(
+        byte[] data, int offset, int length, int cksum
+    ) {
+        for (int i = offset; i < (offset + length); i++) {
+            if ((cksum & 0x1) != 0) {
+                cksum = (cksum >> 1) + 0x8000;
+            } else {
+                cksum = cksum >> 1;
+            }
+            cksum += (0xFF & data[i]);
+            cksum = cksum & 0xFFFF;
+        }
+        return cksum;
+    }
+
+    public void testMatchesReference() {
+        Random random = new Random(17);
+        for (int i = 0; i < 100; i++) {
+            byte[] data = new byte[random.nextInt(1000)];
+            random.nextBytes(data);
+            int initial = random.nextInt(0x10000);
+            assertEquals(
+                reference(data, 0, data.length, initial),
+                PuzChecksum.checksum(data, 0, data.length, initial)
+            );
+        }
+    }
+
+    public void testPieces() {
+        Random random = new Random(23);
+        byte[] data = new byte[500];
+        random.nextBytes(data);
+
+        PuzChecksum cksum = new PuzChecksum()
+            .update(data, 0, 100)
+            .update(data[100])
+            .update(data, 101, 399);
+
+        assertEquals(reference(data, 0, 500, 0), cksum.getValue());
+
+        cksum.reset();
+        cksum.updateShort(0x1234);
+        assertEquals(
+            reference(new byte[] { 0x34, 0x12 }, 0, 2, 0),
+            cksum.getValue()
+        );
+    }
+
+    public void testSavedChecksums() throws Exception {
+        assertSavedChecksums("/test.puz");
+        assertSavedChecksums("/2010-7-4-LosAngelesTimes.puz");
+    }
+
+    /**
+     * Save the puzzle and check the header against checksums of the
+     * saved bytes
+     */
+    private void assertSavedChecksums(String resource) throws Exception {
+        Puzzle puz;
+        try (InputStream is = getClass().getResourceAsStream(resource)) {
+            puz = IO.loadNative(is);
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        IO.saveNative(puz, baos);
+        byte[] data = baos.toByteArray();
+        ByteBuffer bb = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+
+        int numBoxes = puz.getWidth() * puz.getHeight();
+        int numClues = puz.getNumberOfClues();
+
+        int cib = reference(data, 0x2C, 8, 0);
+        int sol = reference(data, 0x34, numBoxes, 0);
+        int grid = reference(data, 0x34 + numBoxes, numBoxes, 0);
+
+        int part = 0;
+        int primary = reference(data, 0x34, 2 * numBoxes, cib);
+        int offset = 0x34 + 2 * numBoxes;
+        for (int i = 0; i < 4 + numClues; i++) {
+            int start = offset;
+            while (data[offset] != 0)
+                offset++;
+            int length = offset - start;
+            if (i > 2 && i < 3 + numClues) {
+                part = reference(data, start, length, part);
+                primary = reference(data, start, length, primary);
+            } else if (length > 0) {
+                part = reference(data, start, length + 1, part);
+                primary = reference(data, start, length + 1, primary);
+            }
+            offset++;
+        }
+
+        assertEquals(primary, bb.getShort(0) & 0xFFFF);
+        assertEquals(cib, bb.getShort(0x0E) & 0xFFFF);
+        assertEquals(0x49 ^ (cib & 0xFF), data[0x10] & 0xFF);
+        assertEquals(0x43 ^ (sol & 0xFF), data[0x11] & 0xFF);
+        assertEquals(0x48 ^ (grid & 0xFF), data[0x12] & 0xFF);
+        assertEquals(0x45 ^ (part & 0xFF), data[0x13] & 0xFF);
+        assertEquals(0x41 ^ (cib >> 8), data[0x14] & 0xFF);
+        assertEquals(0x54 ^ (sol >> 8), data[0x15] & 0xFF);
+        assertEquals(0x45 ^ (grid >> 8), data[0x16] & 0xFF);
+        assertEquals(0x44 ^ (part >> 8), data[0x17] & 0xFF);
+    }
+}
@@ -0,0 +1,73 @@
+package app.crossword.yourealwaysbe.io;
+
+import java.io.InputStream;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+import app.crossword.yourealwaysbe.puz.Box;
+import app.crossword.yourealwaysbe.puz.Puzzle;
+
+public class PuzUnscramblerTest extends TestCase {
+
+    public PuzUnscramblerTest(String testName) {
+        super(testName);
+    }
+
+    private static Puzzle load(String resource) throws Exception {
+        try (
+            InputStream is
+                = PuzUnscramblerTest.class.getResourceAsStream(resource)
+        ) {
+            return IO.loadNative(is);
+        }
+    }
+
+    public void testFindKey() throws Exception {
+        assertFindKey("/2010-7-19-NewYorkTimes.puz", 2465);
+        assertFindKey("/puz_110131aniston.puz", 8161);
+        // more than one key matches the checksum, the lowest is taken
+        assertFindKey("/puz_110523margulies.puz", 5869);
+    }
+
+    private void assertFindKey(String resource, int key) throws Exception {
+        PuzUnscrambler unscrambler = new PuzUnscrambler(load(resource));
+        assertEquals(key, unscrambler.findKey());
+        assertEquals(key, unscrambler.findKey(ForkJoinPool.commonPool()));
+        assertNotNull(unscrambler.unscramble(key));
+        assertNull(unscrambler.unscramble(key + 1));
+    }
+
+    public void testNotScrambled() throws Exception {
+        PuzUnscrambler unscrambler = new PuzUnscrambler(load("/test.puz"));
+        assertEquals(-1, unscrambler.findKey());
+        assertEquals(-1, unscrambler.findKey(ForkJoinPool.commonPool()));
+    }
+
+    public void testUnlock() throws Exception {
+        Puzzle puz = load("/2010-7-19-NewYorkTimes.puz");
+        assertTrue(puz.isScrambled());
+
+        assertFalse(PuzUnscrambler.unlock(puz, 1234));
+        assertTrue(puz.isScrambled());
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertTrue(PuzUnscrambler.unlock(puz, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertFalse(puz.isScrambled());
+
+        // solution checksum is over the unscrambled solution by column
+        Box[][] boxes = puz.getBoxes();
+        PuzChecksum cksum = new PuzChecksum();
+        for (int col = 0; col < puz.getWidth(); col++) {
+            for (int row = 0; row < puz.getHeight(); row++) {
+                if (boxes[row][col] != null)
+                    cksum.update(boxes[row][col].getSolution());
+            }
+        }
+        assertEquals(puz.getSolutionChecksum() & 0xFFFF, cksum.getValue());
+    }
+}
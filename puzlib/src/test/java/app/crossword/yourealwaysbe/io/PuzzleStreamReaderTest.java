@@ -1,6 +1,12 @@
 
 package app.crossword.yourealwaysbe.io;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 import junit.framework.TestCase;
 
 public class PuzzleStreamReaderTest extends TestCase {
@@ -51,5 +57,98 @@ public class PuzzleStreamReaderTest extends TestCase {
             })
         );
     }
-}
 
+    public void testGuardian() throws Exception {
+        GuardianJSONIOTest.assertIsTestPuzzle1(
+            PuzzleStreamReader.parseInput(() -> {
+                return GuardianJSONIOTest.getTestPuzzle1InputStream();
+            })
+        );
+    }
+
+    public void testAmuseLabs() throws Exception {
+        AmuseLabsJSONIOTest.assertIsTestPuzzle1(
+            PuzzleStreamReader.parseInput(() -> {
+                return AmuseLabsJSONIOTest.getTestPuzzle1InputStream();
+            })
+        );
+    }
+
+    public void testGuessParser() throws Exception {
+        assertGuess(IO.class, IOTest.getTestPuzzle1InputStream());
+        assertGuess(JPZIO.class, JPZIOTest.getTestPuzzle1InputStream());
+        assertGuess(IPuzIO.class, IPuzIOTest.getTestPuzzle1InputStream());
+        assertGuess(
+            UclickXMLIO.class, UclickXMLIOTest.getTestPuzzle1InputStream()
+        );
+        assertGuess(
+            BrainsOnlyIO.class, BrainsOnlyIOTest.getTestPuzzle1InputStream()
+        );
+        assertGuess(
+            KingFeaturesPlaintextIO.class,
+            KingFeaturesPlaintextIOTest.getTestPuzzle1InputStream()
+        );
+        assertGuess(
+            GuardianJSONIO.class,
+            GuardianJSONIOTest.getTestPuzzle1InputStream()
+        );
+        assertGuess(
+            AmuseLabsJSONIO.class,
+            AmuseLabsJSONIOTest.getTestPuzzle1InputStream()
+        );
+    }
+
+    public void testSourceOpenedOnce() throws Exception {
+        int[] opened = { 0 };
+
+        // parses with none of the formats, so all parsers are tried
+        assertNull(
+            PuzzleStreamReader.parseInput(() -> {
+                opened[0] += 1;
+                return BrainsOnlyIOTest.class.getResourceAsStream(
+                    "/brainsonly3.txt"
+                );
+            })
+        );
+
+        assertEquals(1, opened[0]);
+    }
+
+    public void testParseFile() throws Exception {
+        File tmp = File.createTempFile("test", ".ipuz");
+        tmp.deleteOnExit();
+
+        try (
+            InputStream is = IPuzIOTest.getTestPuzzle1InputStream();
+            OutputStream os = new FileOutputStream(tmp)
+        ) {
+            IO.copyStream(is, os);
+        }
+
+        IPuzIOTest.assertIsTestPuzzle1(PuzzleStreamReader.parseInput(tmp));
+    }
+
+    public void testParsePuzFile() throws Exception {
+        File tmp = File.createTempFile("test", ".puz");
+        tmp.deleteOnExit();
+
+        try (
+            InputStream is = IOTest.getTestPuzzle1InputStream();
+            OutputStream os = new FileOutputStream(tmp)
+        ) {
+            IO.copyStream(is, os);
+        }
+
+        IOTest.assertIsTestPuzzle1(PuzzleStreamReader.parseInput(tmp));
+    }
+
+    private static void assertGuess(
+        Class<? extends PuzzleParser> expected, InputStream is
+    ) throws Exception {
+        try (InputStream bis = new BufferedInputStream(is)) {
+            PuzzleParser guess = PuzzleStreamReader.guessParser(bis);
+            assertNotNull(guess);
+            assertEquals(expected, guess.getClass());
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package app.crossword.yourealwaysbe.puz;
+
+import java.io.DataInputStream;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import app.crossword.yourealwaysbe.io.IO;
+import app.crossword.yourealwaysbe.io.IOTest;
+
+public class GridTest extends TestCase {
+
+    public GridTest(String testName) {
+        super(testName);
+    }
+
+    private static Box[][] makeBoxes() {
+        Box[][] boxes = new Box[2][3];
+        for (int row = 0; row < 2; row++) {
+            for (int col = 0; col < 3; col++) {
+                if (row == 1 && col == 1)
+                    continue;
+                Box box = new Box();
+                box.setSolution((char) ('A' + row * 3 + col));
+                boxes[row][col] = box;
+            }
+        }
+        boxes[0][0].setResponse('A');
+        boxes[0][1].setResponse('X');
+        boxes[0][2].setCircled(true);
+        boxes[1][0].setResponder("someone");
+        return boxes;
+    }
+
+    public void testFromBoxes() {
+        Box[][] boxes = makeBoxes();
+        Grid grid = Grid.fromBoxes(boxes);
+
+        assertEquals(3, grid.getWidth());
+        assertEquals(2, grid.getHeight());
+        assertNull(grid.getBox(1, 1));
+
+        Box[][] views = grid.getBoxes();
+        for (int row = 0; row < 2; row++) {
+            for (int col = 0; col < 3; col++) {
+                assertEquals(boxes[row][col], views[row][col]);
+                if (boxes[row][col] != null)
+                    assertEquals(views[row][col], boxes[row][col]);
+            }
+        }
+
+        assertEquals(20, grid.getPercentComplete());
+        assertEquals(40, grid.getPercentFilled());
+        assertTrue(grid.hasSolution());
+        assertTrue(grid.hasCircled());
+        assertTrue(grid.hasResponders());
+        assertFalse(grid.hasCheated());
+    }
+
+    public void testViewsWriteThrough() {
+        Grid grid = Grid.fromBoxes(makeBoxes());
+
+        Box box = grid.getBox(1, 2);
+        box.setResponse('F');
+        box.setCheated(true);
+        box.setResponder("other");
+
+        Box again = grid.getBox(1, 2);
+        assertEquals('F', again.getResponse());
+        assertTrue(again.isCheated());
+        assertEquals("other", again.getResponder());
+        assertEquals("someone", grid.getBox(1, 0).getResponder());
+
+        assertTrue(grid.hasCheated());
+        assertEquals(40, grid.getPercentComplete());
+        assertEquals(60, grid.getPercentFilled());
+
+        again.setCheated(false);
+        again.setResponder(null);
+        assertFalse(grid.getBox(1, 2).isCheated());
+        assertNull(grid.getBox(1, 2).getResponder());
+    }
+
+    public void testPositionAccessors() {
+        Grid grid = Grid.fromBoxes(makeBoxes());
+
+        assertFalse(grid.hasBox(1, 1));
+        assertTrue(grid.hasBox(1, 2));
+        assertEquals('A', grid.getResponse(0, 0));
+        assertEquals('B', grid.getSolution(0, 1));
+        assertTrue(grid.isCircled(0, 2));
+        assertEquals("someone", grid.getResponder(1, 0));
+
+        grid.setResponse(1, 2, 'F');
+        grid.setCheated(1, 2, true);
+        grid.setResponder(1, 2, "other");
+
+        Box box = grid.getBox(1, 2);
+        assertEquals('F', box.getResponse());
+        assertTrue(box.isCheated());
+        assertEquals("other", box.getResponder());
+        assertEquals(40, grid.getPercentComplete());
+        assertTrue(grid.hasCheated());
+
+        try {
+            grid.getSolution(1, 1);
+            fail("Block has no solution");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testPuzzleGrid() throws Exception {
+        Puzzle puz = IO.loadNative(
+            new DataInputStream(IOTest.class.getResourceAsStream("/test.puz"))
+        );
+        Box[][] boxes = puz.getBoxes();
+
+        // views are made on demand, not kept by the puzzle
+        assertNotSame(boxes, puz.getBoxes());
+
+        int total = 0;
+        int correct = 0;
+        for (Box[] row : boxes) {
+            for (Box box : row) {
+                if (box != null) {
+                    box.setResponse(
+                        (total % 2 == 0) ? box.getSolution() : 'Z'
+                    );
+                    total += 1;
+                    if (box.getResponse() == box.getSolution())
+                        correct += 1;
+                }
+            }
+        }
+
+        assertEquals(
+            (correct * 100) / total,
+            puz.getGrid().getPercentComplete()
+        );
+        assertEquals(puz.getPercentComplete(), Grid.fromBoxes(boxes)
+            .getPercentComplete());
+        assertEquals(puz.getGrid(), Grid.fromBoxes(boxes));
+        assertEquals(boxes[0][0], puz.getBoxes()[0][0]);
+    }
+
+    public void testCountsFollowChanges() {
+        Grid grid = Grid.fromBoxes(makeBoxes());
+        Box[][] views = grid.getBoxes();
+        Random random = new Random(42);
+        String[] responders = { null, "someone", "other" };
+
+        for (int i = 0; i < 1000; i++) {
+            Box box = views[random.nextInt(2)][random.nextInt(3)];
+            if (box == null)
+                continue;
+
+            switch (random.nextInt(5)) {
+            case 0:
+                box.setResponse("ABC ".charAt(random.nextInt(4)));
+                break;
+            case 1:
+                box.setSolution("AB\0".charAt(random.nextInt(3)));
+                break;
+            case 2:
+                box.setCheated(random.nextBoolean());
+                break;
+            case 3:
+                box.setCircled(random.nextBoolean());
+                break;
+            default:
+                box.setResponder(responders[random.nextInt(3)]);
+            }
+
+            assertCounts(views, grid);
+        }
+    }
+
+    /**
+     * Check the grid's counts against a scan of the boxes
+     */
+    private static void assertCounts(Box[][] boxes, Grid grid) {
+        int total = 0;
+        int correct = 0;
+        int filled = 0;
+        boolean solution = false;
+        boolean cheated = false;
+        boolean circled = false;
+        boolean responders = false;
+
+        for (Box[] row : boxes) {
+            for (Box box : row) {
+                if (box == null)
+                    continue;
+                total += 1;
+                if (box.getResponse() == box.getSolution())
+                    correct += 1;
+                if (!box.isBlank())
+                    filled += 1;
+                solution |= box.getSolution() != '\0';
+                cheated |= box.isCheated();
+                circled |= box.isCircled();
+                responders |= box.getResponder() != null;
+            }
+        }
+
+        assertEquals((correct * 100) / total, grid.getPercentComplete());
+        assertEquals((filled * 100) / total, grid.getPercentFilled());
+        assertEquals(solution, grid.hasSolution());
+        assertEquals(cheated, grid.hasCheated());
+        assertEquals(circled, grid.hasCircled());
+        assertEquals(responders, grid.hasResponders());
+    }
+}
@@ -6,12 +6,17 @@
 package app.crossword.yourealwaysbe.puz;
 
 import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import junit.framework.TestCase;
 
 import app.crossword.yourealwaysbe.io.IO;
 import app.crossword.yourealwaysbe.io.IOTest;
+import app.crossword.yourealwaysbe.puz.Playboard.PlayboardListener;
 import app.crossword.yourealwaysbe.puz.Playboard.Position;
+import app.crossword.yourealwaysbe.puz.Playboard.Word;
 
 /**
  *
@@ -95,4 +100,121 @@ public class PlayboardTest extends TestCase {
 
     }
 
+    public void testWordIndex() throws Exception {
+        String[] files = {
+            "/test.puz",
+            "/2010-7-4-LosAngelesTimes.puz",
+            "/puz_110523margulies.puz"
+        };
+
+        for (String file : files) {
+            Puzzle puz = IO.loadNative(
+                new DataInputStream(IOTest.class.getResourceAsStream(file))
+            );
+            Playboard board = new Playboard(puz);
+            Box[][] boxes = board.getBoxes();
+
+            for (int across = 0; across < boxes.length; across++) {
+                for (int down = 0; down < boxes[across].length; down++) {
+                    Box box = boxes[across][down];
+                    if (box == null)
+                        continue;
+                    if (box.isPartOfAcross())
+                        checkWord(board, across, down, true);
+                    if (box.isPartOfDown())
+                        checkWord(board, across, down, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check current word at position against a scan of the grid
+     */
+    private void checkWord(
+        Playboard board, int across, int down, boolean isAcross
+    ) {
+        Box[][] boxes = board.getBoxes();
+
+        board.setHighlightLetter(new Position(across, down));
+        board.setAcross(isAcross);
+
+        int startAcross = across;
+        int startDown = down;
+        if (isAcross) {
+            while (startAcross > 0 && boxes[startAcross - 1][down] != null)
+                startAcross -= 1;
+        } else {
+            while (startDown > 0 && boxes[across][startDown - 1] != null)
+                startDown -= 1;
+        }
+
+        int length = 0;
+        while (startAcross + (isAcross ? length : 0) < boxes.length
+                && startDown + (isAcross ? 0 : length)
+                    < boxes[across].length
+                && boxes[startAcross + (isAcross ? length : 0)]
+                        [startDown + (isAcross ? 0 : length)] != null) {
+            length += 1;
+        }
+
+        Box box = boxes[across][down];
+        Playboard.Word word = board.getCurrentWord();
+        assertEquals(new Position(startAcross, startDown), word.start);
+        assertEquals(length, word.length);
+        assertEquals(isAcross, word.across);
+        assertEquals(length, board.getCurrentWordBoxes().length);
+        assertEquals(
+            isAcross
+                ? box.getPartOfAcrossClueNumber()
+                : box.getPartOfDownClueNumber(),
+            board.getClueNumber()
+        );
+        assertSame(
+            box,
+            board.getCurrentWordBoxes()[
+                isAcross ? across - startAcross : down - startDown
+            ]
+        );
+    }
+
+    public void testChangedPositions() throws Exception {
+        Puzzle puz = IO.loadNative(new DataInputStream(IOTest.class.getResourceAsStream("/test.puz")));
+        Playboard board = new Playboard(puz);
+
+        List<Position> changes = new ArrayList<>();
+        // held here as the board only keeps weak references
+        PlayboardListener listener = new PlayboardListener() {
+            public void onPlayboardChange(
+                boolean wholeBoard,
+                Word currentWord,
+                Word previousWord,
+                Collection<Position> changed
+            ) {
+                assertFalse(wholeBoard);
+                changes.clear();
+                changes.addAll(changed);
+            }
+        };
+        board.addListener(listener);
+
+        Position start = board.getCurrentWordStart();
+        board.setHighlightLetter(start);
+        board.setAcross(true);
+
+        board.playLetter('A');
+        Position next = board.getHighlightLetter();
+        assertEquals(2, changes.size());
+        assertTrue(changes.contains(start));
+        assertTrue(changes.contains(next));
+
+        board.playLetter('B');
+        assertEquals(2, changes.size());
+        assertTrue(changes.contains(next));
+        assertTrue(changes.contains(board.getHighlightLetter()));
+
+        List<Position> revealed = board.revealPuzzle();
+        assertEquals(revealed.size(), changes.size());
+        assertTrue(changes.containsAll(revealed));
+    }
 }